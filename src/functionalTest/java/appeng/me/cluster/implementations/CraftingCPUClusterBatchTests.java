@@ -0,0 +1,269 @@
+package appeng.me.cluster.implementations;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+
+import net.minecraft.inventory.InventoryCrafting;
+import net.minecraft.item.ItemStack;
+
+import org.junit.jupiter.api.Test;
+
+import appeng.api.config.Actionable;
+import appeng.api.networking.IGridNode;
+import appeng.api.networking.crafting.CraftingItemList;
+import appeng.api.networking.crafting.ICraftingCPU;
+import appeng.api.networking.crafting.ICraftingJob;
+import appeng.api.networking.crafting.ICraftingMedium;
+import appeng.api.networking.crafting.ICraftingPatternDetails;
+import appeng.api.networking.energy.IEnergyGrid;
+import appeng.api.networking.security.BaseActionSource;
+import appeng.api.storage.data.IAEItemStack;
+import appeng.api.storage.data.IItemList;
+import appeng.api.util.WorldCoord;
+import appeng.crafting.MECraftingInventory;
+import appeng.helpers.PatternHelper;
+import appeng.test.mockme.MockAESystem;
+import appeng.test.mockme.MockGridNode;
+import appeng.tile.crafting.TileCraftingTile;
+import appeng.util.item.AEItemStack;
+import gregtech.api.enums.Materials;
+
+public class CraftingCPUClusterBatchTests {
+
+    final ItemStack ironDust = Materials.Iron.getDust(1);
+    final ItemStack ironIngot = Materials.Iron.getIngots(1);
+
+    final MockAESystem aeSystem = new MockAESystem(null);
+    final BatchMedium medium = new BatchMedium();
+    final List<Double> extractedPower = new ArrayList<>();
+    final IEnergyGrid energy = (IEnergyGrid) Proxy.newProxyInstance(
+            IEnergyGrid.class.getClassLoader(),
+            new Class<?>[] { IEnergyGrid.class },
+            (proxy, method, args) -> {
+                if (!method.getName().equals("extractAEPower")) {
+                    throw new UnsupportedOperationException(method.getName());
+                }
+                if (args[1] == Actionable.MODULATE) {
+                    extractedPower.add((Double) args[0]);
+                }
+                return args[0];
+            });
+
+    /** 2 iron dust -> 1 iron ingot */
+    final PatternHelper pattern;
+
+    public CraftingCPUClusterBatchTests() {
+        final ItemStack twoDust = ironDust.copy();
+        twoDust.stackSize = 2;
+        pattern = aeSystem.newProcessingPattern().addInput(twoDust).addOutput(ironIngot).build();
+        aeSystem.cgCache.addCraftingOption(medium, pattern);
+        aeSystem.cgCache.setMockPatternsFromMethods();
+    }
+
+    /**
+     * Creates a cluster with one storage block and accelerators worth 3 co-processors, so 4 crafts can be pushed per
+     * tick, and starts crafting {@code crafts} ingots with {@code dust} iron dust in the CPU.
+     */
+    private CraftingCPUCluster startCrafting(final long crafts, final long dust) {
+        final CraftingCPUCluster cluster = new CraftingCPUCluster(new WorldCoord(0, 0, 0), new WorldCoord(1, 0, 0));
+        cluster.addTile(new TestCraftingTile(1024 * 1024, 0));
+        cluster.addTile(new TestCraftingTile(0, 3));
+
+        final TestJob job = new TestJob(cluster, crafts, dust);
+        assertNotNull(cluster.submitJob(aeSystem.grid, job, aeSystem.dummyActionSource, null));
+        return cluster;
+    }
+
+    private long getAmount(final CraftingCPUCluster cluster, final ItemStack stack, final CraftingItemList list) {
+        final IAEItemStack is = cluster.getItemStack(AEItemStack.create(stack), list);
+        return is == null ? 0 : is.getStackSize();
+    }
+
+    @Test
+    void batchPushesSeveralCraftsAtOnce() {
+        final CraftingCPUCluster cluster = startCrafting(10, 20);
+
+        cluster.updateCraftingLogic(aeSystem.grid, energy, aeSystem.cgCache);
+
+        // 4 operations per tick, all used by one push with the inputs multiplied
+        assertEquals(List.of(4), medium.batches);
+        assertEquals(List.of(8), medium.batchInputs);
+        assertEquals(0, medium.singlePushes);
+        assertEquals(0, cluster.getRemainingOperations());
+
+        // power for all copies is extracted at once
+        assertEquals(List.of(8.0), extractedPower);
+
+        assertEquals(12, getAmount(cluster, ironDust, CraftingItemList.STORAGE));
+        assertEquals(6, getAmount(cluster, ironIngot, CraftingItemList.PENDING));
+        assertEquals(4, getAmount(cluster, ironIngot, CraftingItemList.ACTIVE));
+    }
+
+    @Test
+    void refusedBatchIsPutBackAndPushedOneByOne() {
+        medium.acceptBatches = false;
+        final CraftingCPUCluster cluster = startCrafting(10, 20);
+
+        cluster.updateCraftingLogic(aeSystem.grid, energy, aeSystem.cgCache);
+
+        assertFalse(medium.batches.isEmpty());
+        assertEquals(4, medium.singlePushes);
+        assertEquals(List.of(2.0, 2.0, 2.0, 2.0), extractedPower);
+
+        // only the single pushes consumed any dust
+        assertEquals(12, getAmount(cluster, ironDust, CraftingItemList.STORAGE));
+        assertEquals(6, getAmount(cluster, ironIngot, CraftingItemList.PENDING));
+        assertEquals(4, getAmount(cluster, ironIngot, CraftingItemList.ACTIVE));
+    }
+
+    @Test
+    void stockForOneCopyIsPushedWithoutBatch() {
+        final CraftingCPUCluster cluster = startCrafting(10, 2);
+
+        cluster.updateCraftingLogic(aeSystem.grid, energy, aeSystem.cgCache);
+
+        assertTrue(medium.batches.isEmpty());
+        assertEquals(1, medium.singlePushes);
+        assertEquals(List.of(2.0), extractedPower);
+
+        assertEquals(0, getAmount(cluster, ironDust, CraftingItemList.STORAGE));
+        assertEquals(9, getAmount(cluster, ironIngot, CraftingItemList.PENDING));
+        assertEquals(1, getAmount(cluster, ironIngot, CraftingItemList.ACTIVE));
+    }
+
+    private static class BatchMedium implements ICraftingMedium {
+
+        boolean acceptBatches = true;
+        final List<Integer> batches = new ArrayList<>();
+        final List<Integer> batchInputs = new ArrayList<>();
+        int singlePushes = 0;
+
+        @Override
+        public boolean pushPattern(ICraftingPatternDetails patternDetails, InventoryCrafting table) {
+            singlePushes++;
+            return true;
+        }
+
+        @Override
+        public boolean isBusy() {
+            return false;
+        }
+
+        @Override
+        public int getMaxBatchSize(ICraftingPatternDetails patternDetails) {
+            return 8;
+        }
+
+        @Override
+        public boolean pushPatternBatch(ICraftingPatternDetails patternDetails, InventoryCrafting table, int copies) {
+            batches.add(copies);
+            batchInputs.add(table.getStackInSlot(0).stackSize);
+            return acceptBatches;
+        }
+    }
+
+    private static class TestCraftingTile extends TileCraftingTile {
+
+        private final IGridNode node = new MockGridNode() {
+
+            @Override
+            public boolean isActive() {
+                return true;
+            }
+        };
+        private final long storageBytes;
+        private final int acceleration;
+
+        TestCraftingTile(long storageBytes, int acceleration) {
+            this.storageBytes = storageBytes;
+            this.acceleration = acceleration;
+        }
+
+        @Override
+        public IGridNode getActionableNode() {
+            return node;
+        }
+
+        @Override
+        public boolean isActive() {
+            return true;
+        }
+
+        @Override
+        public boolean isStorage() {
+            return storageBytes > 0;
+        }
+
+        @Override
+        public long getStorageBytes() {
+            return storageBytes;
+        }
+
+        @Override
+        public boolean isAccelerator() {
+            // also called by the super constructor, before the fields are set
+            return acceleration > 0;
+        }
+
+        @Override
+        public int acceleratorValue() {
+            return acceleration;
+        }
+    }
+
+    private class TestJob implements ICraftingJob {
+
+        private final CraftingCPUCluster cluster;
+        private final long crafts;
+        private final long dust;
+
+        TestJob(CraftingCPUCluster cluster, long crafts, long dust) {
+            this.cluster = cluster;
+            this.crafts = crafts;
+            this.dust = dust;
+        }
+
+        @Override
+        public boolean isSimulation() {
+            return false;
+        }
+
+        @Override
+        public long getByteTotal() {
+            return 0;
+        }
+
+        @Override
+        public void populatePlan(IItemList<IAEItemStack> plan) {}
+
+        @Override
+        public IAEItemStack getOutput() {
+            return AEItemStack.create(ironIngot).setStackSize(crafts);
+        }
+
+        @Override
+        public boolean simulateFor(int milli) {
+            return false;
+        }
+
+        @Override
+        public Future<ICraftingJob> schedule() {
+            return null;
+        }
+
+        @Override
+        public boolean supportsCPUCluster(ICraftingCPU craftingCPU) {
+            return craftingCPU == cluster;
+        }
+
+        @Override
+        public void startCrafting(MECraftingInventory storage, ICraftingCPU craftingCPU, BaseActionSource src) {
+            cluster.addCrafting(pattern, crafts);
+            cluster.addStorage(AEItemStack.create(ironDust).setStackSize(dust));
+        }
+    }
+}
@@ -5,6 +5,8 @@ import java.io.PrintWriter;
 import java.nio.file.FileSystems;
 import java.nio.file.Path;
 
+import net.minecraft.init.Items;
+import net.minecraft.item.ItemStack;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.util.ChatComponentText;
 
@@ -20,11 +22,13 @@ import org.junit.platform.launcher.listeners.SummaryGeneratingListener;
 import org.junit.platform.launcher.listeners.TestExecutionSummary;
 import org.junit.platform.reporting.legacy.xml.LegacyXmlReportGeneratingListener;
 
+import appeng.test.mockme.MockStencilItem;
 import cpw.mods.fml.common.FMLCommonHandler;
 import cpw.mods.fml.common.Mod;
 import cpw.mods.fml.common.Mod.EventHandler;
 import cpw.mods.fml.common.event.FMLPreInitializationEvent;
 import cpw.mods.fml.common.event.FMLServerStartedEvent;
+import cpw.mods.fml.common.registry.GameRegistry;
 import gregtech.GTMod;
 
 // Most of these don't matter as this mod never gets published
@@ -35,11 +39,17 @@ import gregtech.GTMod;
         dependencies = "required-after:appliedenergistics2;required-after:gregtech")
 public class AppengTestMod {
 
+    public static MockStencilItem stencil;
+
     @EventHandler
     public void preInit(FMLPreInitializationEvent ev) {
         // Disable GT5u messing with vanilla recipes for unit tests
         GTMod.gregtechproxy.mNerfedWoodPlank = false;
         GTMod.gregtechproxy.mChangeWoodenVanillaTools = false;
+
+        stencil = new MockStencilItem();
+        GameRegistry.registerItem(stencil, "stencil");
+        GameRegistry.addShapelessRecipe(new ItemStack(Items.brick), stencil, Items.clay_ball);
     }
 
     @EventHandler
@@ -66,7 +76,11 @@ public class AppengTestMod {
             }
         }
         final LauncherDiscoveryRequest discovery = LauncherDiscoveryRequestBuilder.request()
-                .selectors(DiscoverySelectors.selectPackage("appeng.test")).build();
+                .selectors(
+                        DiscoverySelectors.selectPackage("appeng.test"),
+                        // tests that need package-private access to what they test
+                        DiscoverySelectors.selectPackage("appeng.me.cluster.implementations"))
+                .build();
         final SummaryGeneratingListener summaryGenerator = new SummaryGeneratingListener();
         final TestExecutionSummary summary;
         try (PrintWriter stderrWriter = new PrintWriter(new CloseShieldOutputStream(System.err), true)) {
@@ -0,0 +1,169 @@
+package appeng.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import net.minecraft.block.Block;
+import net.minecraft.init.Blocks;
+import net.minecraft.item.ItemStack;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import appeng.api.AEApi;
+import appeng.api.config.Actionable;
+import appeng.api.networking.security.BaseActionSource;
+import appeng.api.storage.ICellInventoryHandler;
+import appeng.api.storage.IMEInventoryHandler;
+import appeng.api.storage.data.IAEItemStack;
+import appeng.me.storage.CellInventory;
+import appeng.util.IterationCounter;
+import appeng.util.item.AEItemStack;
+import appeng.util.item.ItemList;
+
+public class CellInventoryPersistenceTests {
+
+    private static final int OPERATIONS = 200_000;
+
+    private final BaseActionSource src = new BaseActionSource();
+    private final List<IAEItemStack> types = new ArrayList<>();
+
+    public CellInventoryPersistenceTests() {
+        final Block[] colored = { Blocks.wool, Blocks.stained_hardened_clay, Blocks.stained_glass, Blocks.carpet };
+        for (final Block block : colored) {
+            for (int meta = 0; meta < 16 && this.types.size() < 63; meta++) {
+                this.types.add(AEItemStack.create(new ItemStack(block, 1, meta)));
+            }
+        }
+    }
+
+    private static ItemStack newCell() {
+        return AEApi.instance().definitions().items().cell64k().maybeStack(1).get();
+    }
+
+    private static CellInventory openCell(final ItemStack cell) {
+        final IMEInventoryHandler<IAEItemStack> handler = CellInventory.getCell(cell, null);
+        assertNotNull(handler);
+        return (CellInventory) ((ICellInventoryHandler) handler).getCellInv();
+    }
+
+    private static ItemList contents(final CellInventory inv) {
+        return (ItemList) inv.getAvailableItems(new ItemList(), IterationCounter.fetchNewId());
+    }
+
+    private void fillAllTypes(final CellInventory inv) {
+        for (final IAEItemStack type : this.types) {
+            assertNull(inv.injectItems(type.copy().setStackSize(16), Actionable.MODULATE, this.src));
+        }
+    }
+
+    private void randomOperation(final CellInventory inv, final Random random) {
+        final IAEItemStack type = this.types.get(random.nextInt(this.types.size()));
+        if (random.nextBoolean()) {
+            inv.injectItems(type.copy().setStackSize(1 + random.nextInt(8)), Actionable.MODULATE, this.src);
+        } else {
+            inv.extractItems(type.copy().setStackSize(1 + random.nextInt(8)), Actionable.MODULATE, this.src);
+        }
+    }
+
+    @Test
+    void reloadedCellMatchesAfterRandomOperations() {
+        final ItemStack cell = newCell();
+        final CellInventory inv = openCell(cell);
+        final Random random = new Random(42);
+
+        this.fillAllTypes(inv);
+        for (int i = 0; i < 10_000; i++) {
+            this.randomOperation(inv, random);
+        }
+
+        final ItemList expected = contents(inv);
+        final CellInventory reloaded = openCell(cell);
+        final ItemList actual = contents(reloaded);
+
+        assertEquals(inv.getStoredItemTypes(), reloaded.getStoredItemTypes());
+        assertEquals(inv.getStoredItemCount(), reloaded.getStoredItemCount());
+        for (final IAEItemStack stack : expected) {
+            final IAEItemStack matching = actual.findPrecise(stack);
+            assertNotNull(matching, stack::toString);
+            assertEquals(stack.getStackSize(), matching.getStackSize(), () -> "Stack size of " + stack);
+        }
+        assertEquals(expected.size(), actual.size());
+    }
+
+    @Test
+    void drainedTypesAreCompacted() {
+        final ItemStack cell = newCell();
+        final CellInventory inv = openCell(cell);
+
+        this.fillAllTypes(inv);
+        for (int i = 0; i < this.types.size(); i += 2) {
+            assertNotNull(inv.extractItems(this.types.get(i).copy().setStackSize(16), Actionable.MODULATE, this.src));
+        }
+
+        final CellInventory reloaded = openCell(cell);
+        assertEquals(this.types.size() / 2, reloaded.getStoredItemTypes());
+        assertEquals(this.types.size() / 2 * 16L, reloaded.getStoredItemCount());
+    }
+
+    @Test
+    void drainedTypeInsertedAgainIsStored() {
+        final ItemStack cell = newCell();
+        final CellInventory inv = openCell(cell);
+        final IAEItemStack drained = this.types.get(5);
+
+        this.fillAllTypes(inv);
+        assertNotNull(inv.extractItems(drained.copy().setStackSize(16), Actionable.MODULATE, this.src));
+        assertNull(inv.injectItems(drained.copy().setStackSize(3), Actionable.MODULATE, this.src));
+
+        // the type counts against the cap again
+        final IAEItemStack extra = AEItemStack.create(new ItemStack(Blocks.stone));
+        assertNotNull(inv.injectItems(extra, Actionable.MODULATE, this.src));
+        assertEquals(this.types.size(), inv.getStoredItemTypes());
+
+        final CellInventory reloaded = openCell(cell);
+        assertEquals(this.types.size(), reloaded.getStoredItemTypes());
+        assertEquals((this.types.size() - 1) * 16L + 3, reloaded.getStoredItemCount());
+        final IAEItemStack stored = contents(reloaded).findPrecise(drained);
+        assertNotNull(stored);
+        assertEquals(3, stored.getStackSize());
+        assertNull(contents(reloaded).findPrecise(extra));
+    }
+
+    /**
+     * Not an assertion, reports the throughput of a full 63 type cell with dirty slot persistence against rewriting
+     * every slot after each operation like the cell used to. Only runs with {@code -Dae2.benchmark=true}.
+     */
+    @Test
+    @Tag("benchmark")
+    @EnabledIfSystemProperty(named = "ae2.benchmark", matches = "true")
+    void persistenceBenchmark() {
+        final CellInventory incremental = openCell(newCell());
+        this.fillAllTypes(incremental);
+        Random random = new Random(7);
+        long start = System.nanoTime();
+        for (int i = 0; i < OPERATIONS; i++) {
+            this.randomOperation(incremental, random);
+        }
+        final double incrementalOps = OPERATIONS / ((System.nanoTime() - start) / 1e9);
+
+        final CellInventory fullRewrite = openCell(newCell());
+        this.fillAllTypes(fullRewrite);
+        random = new Random(7);
+        start = System.nanoTime();
+        for (int i = 0; i < OPERATIONS; i++) {
+            this.randomOperation(fullRewrite, random);
+            fullRewrite.rewriteAllSlots();
+        }
+        final double fullRewriteOps = OPERATIONS / ((System.nanoTime() - start) / 1e9);
+
+        System.out.printf(
+                "63 type cell: %.0f ops/s with dirty slot writes, %.0f ops/s rewriting every slot%n",
+                incrementalOps,
+                fullRewriteOps);
+    }
+}
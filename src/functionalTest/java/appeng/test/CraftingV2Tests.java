@@ -3,6 +3,12 @@ package appeng.test;
 import static org.junit.jupiter.api.Assertions.*;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
 
 import net.minecraft.init.Blocks;
 import net.minecraft.init.Items;
@@ -20,9 +26,22 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 
+import appeng.api.networking.events.MENetworkCraftingPatternChange;
+import appeng.api.networking.security.BaseActionSource;
+import appeng.api.networking.storage.IBaseMonitor;
+import appeng.api.storage.IMEMonitor;
+import appeng.api.storage.IMEMonitorHandlerReceiver;
 import appeng.api.storage.data.IAEItemStack;
+import appeng.core.AEConfig;
+import appeng.crafting.MECraftingInventory;
+import appeng.crafting.v2.CraftingContext;
 import appeng.crafting.v2.CraftingJobV2;
+import appeng.crafting.v2.CraftingTreeSerializer;
+import appeng.crafting.v2.resolvers.CraftableItemResolver.CraftFromPatternTask;
+import appeng.me.cache.helpers.PatternAnalysisCache;
+import appeng.me.cache.helpers.PatternAnalysisCache.Analysis;
 import appeng.test.mockme.MockAESystem;
+import appeng.test.mockme.MockPatternProvider;
 import appeng.util.item.AEItemStack;
 import appeng.util.item.ItemList;
 import gregtech.api.enums.Materials;
@@ -30,6 +49,8 @@ import gregtech.api.enums.OrePrefixes;
 import gregtech.api.util.GTOreDictUnificator;
 import gregtech.common.items.IDMetaTool01;
 import gregtech.common.items.MetaGeneratedTool01;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 
 public class CraftingV2Tests {
 
@@ -83,6 +104,37 @@ public class CraftingV2Tests {
 
         assertTrue(job.isDone());
         assertFalse(job.isCancelled());
+        assertSerializationRoundTrip(job);
+    }
+
+    private static CraftingTreeSerializer serializeTree(CraftingJobV2 job) throws IOException {
+        final CraftingTreeSerializer serializer = new CraftingTreeSerializer(dummyWorld);
+        serializer.writeSerializableAndQueueChildren(job);
+        while (serializer.hasWork()) {
+            serializer.doWork();
+        }
+        return serializer;
+    }
+
+    private static byte[] toBytes(ByteBuf buffer) {
+        final byte[] bytes = new byte[buffer.readableBytes()];
+        buffer.getBytes(buffer.readerIndex(), bytes);
+        return bytes;
+    }
+
+    /**
+     * Reads the serialized tree back and writes it again, the tables have to come out the same for the bytes to match.
+     */
+    private void assertSerializationRoundTrip(CraftingJobV2 job) {
+        try {
+            final byte[] written = toBytes(serializeTree(job).getBuffer());
+            final CraftingJobV2 read = CraftingJobV2
+                    .deserialize(dummyWorld, Unpooled.wrappedBuffer(written).order(ByteOrder.LITTLE_ENDIAN));
+            assertNotNull(read);
+            assertArrayEquals(written, toBytes(serializeTree(read).getBuffer()));
+        } catch (IOException e) {
+            fail(e);
+        }
     }
 
     private void assertJobPlanEquals(CraftingJobV2 job, IAEItemStack... stacks) {
@@ -334,6 +386,41 @@ public class CraftingV2Tests {
                 AEItemStack.create(withSize(bronzeDoublePlate.copy(), 0)).setCountRequestable(1));
     }
 
+    @Test
+    void canCraftDoublePlateWithGtToolOnWorkerThread() {
+        MockAESystem aeSystem = new MockAESystem(dummyWorld);
+        aeSystem.addStoredItem(gtHammer.copy());
+        aeSystem.addStoredItem(withSize(bronzeIngot.copy(), 4));
+        addHammerBronzePlateRecipe(aeSystem);
+        addHammerBronzeDoublePlateRecipe(aeSystem);
+
+        final int threads = AEConfig.instance.craftingCalculationThreads;
+        AEConfig.instance.craftingCalculationThreads = 1;
+        final CraftingJobV2 job;
+        try {
+            job = aeSystem.makeCraftingJob(bronzeDoublePlate);
+            job.schedule();
+        } finally {
+            AEConfig.instance.craftingCalculationThreads = threads;
+        }
+
+        // complex crafts need the server thread, keep serving the worker like the tick handler would
+        final long deadline = System.currentTimeMillis() + 10_000;
+        while (job.simulateFor(SIMPLE_SIMULATION_TIMEOUT_MS)) {
+            assertTrue(System.currentTimeMillis() < deadline, "Worker did not finish in time");
+        }
+
+        assertTrue(job.isDone());
+        assertFalse(job.isCancelled());
+        assertEquals(false, job.isSimulation());
+        assertJobPlanEquals(
+                job,
+                AEItemStack.create(gtHammer.copy()),
+                AEItemStack.create(withSize(bronzeIngot.copy(), 4)),
+                AEItemStack.create(withSize(bronzePlate.copy(), 0)).setCountRequestable(2),
+                AEItemStack.create(withSize(bronzeDoublePlate.copy(), 0)).setCountRequestable(1));
+    }
+
     @Test
     void canCraft2WithGtToolMissing1() {
         MockAESystem aeSystem = new MockAESystem(dummyWorld);
@@ -351,6 +438,184 @@ public class CraftingV2Tests {
                 AEItemStack.create(withSize(bronzePlate.copy(), 0)).setCountRequestable(2));
     }
 
+    @Test
+    void complexCraftsShareOneTask() {
+        final ItemStack milk = new ItemStack(Items.milk_bucket, 1);
+        final ItemStack sugar = new ItemStack(Items.sugar, 1);
+        final ItemStack egg = new ItemStack(Items.egg, 1);
+        final ItemStack wheat = new ItemStack(Items.wheat, 1);
+        MockAESystem aeSystem = new MockAESystem(dummyWorld);
+        aeSystem.addStoredItem(withSize(milk, 3 * 8));
+        aeSystem.addStoredItem(withSize(sugar, 2 * 8));
+        aeSystem.addStoredItem(withSize(egg, 8));
+        aeSystem.addStoredItem(withSize(wheat, 3 * 8));
+        // the buckets are left behind empty, so each cake is a craft of its own
+        aeSystem.newCraftingPattern() //
+                .addInput(milk.copy()).addInput(milk.copy()).addInput(milk.copy()) //
+                .addInput(sugar.copy()).addInput(egg.copy()).addInput(sugar.copy()) //
+                .addInput(wheat.copy()).addInput(wheat.copy()).addInput(wheat.copy()) //
+                .addOutput(new ItemStack(Items.cake, 1)).buildAndAdd();
+
+        final CraftingJobV2 job = aeSystem.makeCraftingJob(new ItemStack(Items.cake, 8));
+        simulateJobAndCheck(job, SIMPLE_SIMULATION_TIMEOUT_MS);
+        assertEquals(false, job.isSimulation());
+        assertJobPlanEquals(
+                job,
+                AEItemStack.create(withSize(milk, 3 * 8)),
+                AEItemStack.create(withSize(sugar, 2 * 8)),
+                AEItemStack.create(withSize(egg, 8)),
+                AEItemStack.create(withSize(wheat, 3 * 8)),
+                AEItemStack.create(new ItemStack(Items.cake, 0)).setCountRequestable(8));
+
+        final List<CraftFromPatternTask> tasks = job.getContext().getResolvedTasks().stream()
+                .filter(task -> task instanceof CraftFromPatternTask).map(task -> (CraftFromPatternTask) task)
+                .collect(Collectors.toList());
+        assertEquals(1, tasks.size());
+        assertEquals(8, tasks.get(0).getTotalCraftsDone());
+    }
+
+    private static long getStackSize(MECraftingInventory inv, ItemStack stack) {
+        final IAEItemStack found = inv.getItemList().findPrecise(AEItemStack.create(stack));
+        return found == null ? 0 : found.getStackSize();
+    }
+
+    @Test
+    void repeatedComplexCraftsReuseTheirContainerItem() {
+        final ItemStack stencil = new ItemStack(AppengTestMod.stencil, 1);
+        final ItemStack clay = new ItemStack(Items.clay_ball, 1);
+        final ItemStack brick = new ItemStack(Items.brick, 1);
+        MockAESystem aeSystem = new MockAESystem(dummyWorld);
+        aeSystem.addStoredItem(stencil.copy());
+        aeSystem.addStoredItem(withSize(clay, 8));
+        // the stencil is left in the grid as it was, so all crafts after the first one are done in one batch
+        aeSystem.newCraftingPattern().addInput(stencil.copy()).addInput(clay.copy()).addOutput(brick.copy())
+                .buildAndAdd();
+
+        final CraftingJobV2 job = aeSystem.makeCraftingJob(withSize(brick, 8));
+        simulateJobAndCheck(job, SIMPLE_SIMULATION_TIMEOUT_MS);
+        assertEquals(false, job.isSimulation());
+        assertJobPlanEquals(
+                job,
+                AEItemStack.create(stencil.copy()),
+                AEItemStack.create(withSize(clay, 8)),
+                AEItemStack.create(withSize(brick, 0)).setCountRequestable(8));
+
+        final List<CraftFromPatternTask> tasks = job.getContext().getResolvedTasks().stream()
+                .filter(task -> task instanceof CraftFromPatternTask).map(task -> (CraftFromPatternTask) task)
+                .collect(Collectors.toList());
+        assertEquals(1, tasks.size());
+        final CraftFromPatternTask task = tasks.get(0);
+        assertEquals(8, task.getTotalCraftsDone());
+        // one craft on its own, then the other 7 requesting the stencil once
+        assertEquals(Arrays.asList(1L, 1L, 1L, 7L), requestSizes(task));
+
+        final CraftingContext context = job.getContext();
+        assertEquals(1, getStackSize(context.byproductsInventory, stencil));
+
+        // part of the latest batch, the stencil is still needed by the rest of it
+        task.partialRefund(context, 3);
+        assertEquals(5, task.getTotalCraftsDone());
+        assertEquals(Arrays.asList(1L, 1L, 1L, 4L), requestSizes(task));
+        assertEquals(1, getStackSize(context.byproductsInventory, stencil));
+
+        // the whole latest batch, its stencil goes back to where the batch got it from
+        task.partialRefund(context, 4);
+        assertEquals(1, task.getTotalCraftsDone());
+        assertEquals(Arrays.asList(1L, 1L), requestSizes(task));
+        assertEquals(1, getStackSize(context.byproductsInventory, stencil));
+
+        task.fullRefund(context);
+        assertEquals(0, task.getTotalCraftsDone());
+        assertTrue(task.getChildRequests().isEmpty());
+        assertEquals(0, getStackSize(context.byproductsInventory, stencil));
+        assertEquals(1, getStackSize(context.itemModel, stencil));
+        assertEquals(8, getStackSize(context.itemModel, clay));
+    }
+
+    private static List<Long> requestSizes(CraftFromPatternTask task) {
+        return task.getChildRequests().stream().map(request -> request.stack.getStackSize())
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    void patternAnalysisIsSharedBetweenJobs() {
+        MockAESystem aeSystem = new MockAESystem(dummyWorld);
+        aeSystem.addStoredItem(gtHammer.copy());
+        aeSystem.addStoredItem(withSize(bronzeIngot.copy(), 4));
+        addHammerBronzePlateRecipe(aeSystem);
+        final PatternAnalysisCache analysis = aeSystem.cgCache.getPatternAnalysis();
+
+        simulateJobAndCheck(aeSystem.makeCraftingJob(bronzePlate), SIMPLE_SIMULATION_TIMEOUT_MS);
+        final long complexityMisses = analysis.getMisses(Analysis.COMPLEXITY);
+        final long patternMisses = analysis.getMisses(Analysis.PATTERNS);
+        assertEquals(1, complexityMisses);
+
+        simulateJobAndCheck(aeSystem.makeCraftingJob(bronzePlate), SIMPLE_SIMULATION_TIMEOUT_MS);
+        assertEquals(complexityMisses, analysis.getMisses(Analysis.COMPLEXITY));
+        assertEquals(patternMisses, analysis.getMisses(Analysis.PATTERNS));
+        assertTrue(analysis.getHitRate(Analysis.COMPLEXITY) > 0.5);
+
+        // only the new pattern has to be simulated
+        addHammerBronzeDoublePlateRecipe(aeSystem);
+        simulateJobAndCheck(aeSystem.makeCraftingJob(bronzeDoublePlate), SIMPLE_SIMULATION_TIMEOUT_MS);
+        assertEquals(complexityMisses + 1, analysis.getMisses(Analysis.COMPLEXITY));
+        assertEquals(patternMisses + 1, analysis.getMisses(Analysis.PATTERNS));
+    }
+
+    @Test
+    void patternChangesOnlyPostTheirOwnItems() {
+        MockAESystem aeSystem = new MockAESystem(dummyWorld);
+        final MockPatternProvider first = new MockPatternProvider();
+        first.patterns.add(
+                aeSystem.newProcessingPattern().addInput(ironDust.copy()).addOutput(ironIngot.copy()).build());
+        final MockPatternProvider second = new MockPatternProvider();
+        second.patterns.add(
+                aeSystem.newProcessingPattern().addInput(goldDust.copy()).addOutput(goldIngot.copy()).build());
+        aeSystem.cgCache.addNode(aeSystem.grid.rootNode, first);
+        aeSystem.cgCache.addNode(aeSystem.grid.rootNode, second);
+        final IMEMonitor<IAEItemStack> monitor = aeSystem.sgCache.getItemInventory();
+        assertTrue(monitor.getStorageList().findPrecise(AEItemStack.create(ironIngot)).isCraftable());
+
+        final List<IAEItemStack> posted = new ArrayList<>();
+        monitor.addListener(new IMEMonitorHandlerReceiver<>() {
+
+            @Override
+            public boolean isValid(Object verificationToken) {
+                return true;
+            }
+
+            @Override
+            public void postChange(IBaseMonitor<IAEItemStack> monitor, Iterable<IAEItemStack> change,
+                    BaseActionSource actionSource) {
+                change.forEach(posted::add);
+            }
+
+            @Override
+            public void onListUpdate() {}
+        }, null);
+
+        second.patterns.add(
+                aeSystem.newProcessingPattern().addInput(withSize(goldIngot.copy(), 9)).addOutput(goldBlock.copy())
+                        .build());
+        aeSystem.cgCache.updateCPUClusters(new MENetworkCraftingPatternChange(second, null));
+        assertEquals(1, posted.size());
+        assertTrue(posted.get(0).isSameType(goldBlock));
+        assertTrue(posted.get(0).isCraftable());
+        assertEquals(3, aeSystem.cgCache.getCraftingPatterns().size());
+
+        posted.clear();
+        aeSystem.cgCache.removeNode(aeSystem.grid.rootNode, first);
+        assertEquals(1, posted.size());
+        assertTrue(posted.get(0).isSameType(ironIngot));
+        assertFalse(posted.get(0).isCraftable());
+        assertFalse(aeSystem.cgCache.getCraftingPatterns().containsKey(AEItemStack.create(ironIngot)));
+
+        // the network's item list is patched, not rebuilt
+        final IAEItemStack ingot = monitor.getStorageList().findPrecise(AEItemStack.create(ironIngot));
+        assertTrue(ingot == null || !ingot.isCraftable());
+        assertTrue(monitor.getStorageList().findPrecise(AEItemStack.create(goldBlock)).isCraftable());
+    }
+
     @Test
     void partialMissingAmount() {
         MockAESystem aeSystem = new MockAESystem(dummyWorld);
@@ -385,8 +650,7 @@ public class CraftingV2Tests {
                 AEItemStack.create(withSize(goldBlock, 0)).setCountRequestable(100));
     }
 
-    @Test
-    void complexRecipeChain() {
+    private CraftingJobV2 makeComplexRecipeChainJob() {
         MockAESystem aeSystem = new MockAESystem(dummyWorld);
         aeSystem.addStoredItem(withSize(ironDust, 2 * 64));
         aeSystem.addStoredItem(withSize(goldDust, 3 * 64));
@@ -405,7 +669,12 @@ public class CraftingV2Tests {
                 .addOutput(withSize(goldBlock, 1)) //
                 .buildAndAdd();
 
-        final CraftingJobV2 job = aeSystem.makeCraftingJob(new ItemStack(Blocks.gold_block, 100));
+        return aeSystem.makeCraftingJob(new ItemStack(Blocks.gold_block, 100));
+    }
+
+    @Test
+    void complexRecipeChain() {
+        final CraftingJobV2 job = makeComplexRecipeChainJob();
         simulateJobAndCheck(job, SIMPLE_SIMULATION_TIMEOUT_MS);
         assertEquals(true, job.isSimulation());
         assertJobPlanEquals(
@@ -417,4 +686,18 @@ public class CraftingV2Tests {
                 AEItemStack.create(withSize(goldIngot, 0)).setCountRequestable(900),
                 AEItemStack.create(withSize(goldBlock, 0)).setCountRequestable(100));
     }
+
+    @Test
+    void treeSerializationSharesRepeatedStacks() throws IOException {
+        final CraftingJobV2 job = makeComplexRecipeChainJob();
+        simulateJobAndCheck(job, SIMPLE_SIMULATION_TIMEOUT_MS);
+
+        final CraftingTreeSerializer serializer = serializeTree(job);
+        assertTrue(serializer.getStackTableSize() > 0);
+        assertTrue(
+                serializer.getStackTableSize() < serializer.getStackReferenceCount(),
+                () -> serializer.getStackTableSize() + " table entries for "
+                        + serializer.getStackReferenceCount()
+                        + " stack references");
+    }
 }
@@ -0,0 +1,108 @@
+package appeng.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import net.minecraftforge.common.util.ForgeDirection;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import appeng.api.exceptions.FailedConnection;
+import appeng.api.networking.IGridConnection;
+import appeng.api.networking.IGridConnectionVisitor;
+import appeng.api.networking.IGridNode;
+import appeng.me.GridConnection;
+import appeng.test.mockme.MockGridNode;
+
+public class GridTraversalTests {
+
+    private static final int NODES = 50_000;
+    private static final int BRANCHES = 6;
+    private static final int ROUNDS = 200;
+
+    /**
+     * Counts what it is shown, with a connection visitor the walk has to track both nodes and connections.
+     */
+    private static final class CountingVisitor implements IGridConnectionVisitor {
+
+        private int nodes;
+        private int connections;
+
+        @Override
+        public boolean visitNode(final IGridNode n) {
+            this.nodes++;
+            return true;
+        }
+
+        @Override
+        public void visitConnection(final IGridConnection gc) {
+            this.connections++;
+        }
+    }
+
+    private static MockGridNode buildTree() throws FailedConnection {
+        final List<MockGridNode> nodes = new ArrayList<>(NODES);
+        final MockGridNode root = new MockGridNode();
+        nodes.add(root);
+        for (int i = 1; i < NODES; i++) {
+            final MockGridNode node = new MockGridNode();
+            new GridConnection(nodes.get((i - 1) / BRANCHES), node, ForgeDirection.UNKNOWN);
+            nodes.add(node);
+        }
+        return root;
+    }
+
+    private static long allocatedBytes() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean) {
+            return bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    @Test
+    void everyNodeAndConnectionIsVisitedOnce() throws FailedConnection {
+        final MockGridNode root = buildTree();
+
+        for (int round = 0; round < 3; round++) {
+            final CountingVisitor visitor = new CountingVisitor();
+            root.beginVisit(visitor);
+            assertEquals(NODES, visitor.nodes);
+            assertEquals(NODES - 1, visitor.connections);
+        }
+    }
+
+    /**
+     * Not an assertion, walks a 50k node grid repeatedly and reports the time and memory it takes. Only runs with
+     * {@code -Dae2.benchmark=true}.
+     */
+    @Test
+    @Tag("benchmark")
+    @EnabledIfSystemProperty(named = "ae2.benchmark", matches = "true")
+    void traversalBenchmark() throws FailedConnection {
+        final MockGridNode root = buildTree();
+
+        // warm up, and let the queues grow to fit the grid
+        for (int round = 0; round < ROUNDS; round++) {
+            root.beginVisit(new CountingVisitor());
+        }
+
+        final long bytesBefore = allocatedBytes();
+        final long start = System.nanoTime();
+        for (int round = 0; round < ROUNDS; round++) {
+            root.beginVisit(new CountingVisitor());
+        }
+        final long nanos = System.nanoTime() - start;
+        final long bytes = allocatedBytes() - bytesBefore;
+
+        System.out.printf(
+                "%d node grid: %.2f ms per traversal, %d bytes allocated per traversal%n",
+                NODES,
+                nanos / 1e6 / ROUNDS,
+                bytesBefore < 0 ? -1 : bytes / ROUNDS);
+    }
+}
@@ -0,0 +1,326 @@
+package appeng.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.init.Blocks;
+import net.minecraft.inventory.IInventory;
+import net.minecraft.item.ItemStack;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import appeng.api.config.Actionable;
+import appeng.api.networking.security.BaseActionSource;
+import appeng.api.networking.storage.IBaseMonitor;
+import appeng.api.networking.ticking.TickRateModulation;
+import appeng.api.storage.IMEMonitorHandlerReceiver;
+import appeng.api.storage.data.IAEItemStack;
+import appeng.me.storage.MEMonitorIInventory;
+import appeng.util.IterationCounter;
+import appeng.util.inv.AdaptorIInventory;
+import appeng.util.item.AEItemStack;
+import appeng.util.item.ItemList;
+
+public class MEMonitorIInventoryTests {
+
+    private static final int SLOTS = 10_000;
+    // the monitor scans 1024 slots per tick
+    private static final int TICKS_PER_PASS = SLOTS / 1024 + 1;
+    // enough ticks for a few whole passes over the inventory
+    private static final int SETTLE_TICKS = 5 * TICKS_PER_PASS;
+    private static final int OPERATIONS = 2_000;
+
+    private final BaseActionSource src = new BaseActionSource();
+    private final List<IAEItemStack> types = new ArrayList<>();
+
+    public MEMonitorIInventoryTests() {
+        for (int meta = 0; meta < 16; meta++) {
+            this.types.add(AEItemStack.create(new ItemStack(Blocks.wool, 1, meta)));
+        }
+    }
+
+    /**
+     * A plain inventory the size of a large drawer or barrel setup.
+     */
+    private static final class LargeInventory implements IInventory {
+
+        private final ItemStack[] slots = new ItemStack[SLOTS];
+
+        @Override
+        public int getSizeInventory() {
+            return this.slots.length;
+        }
+
+        @Override
+        public ItemStack getStackInSlot(final int slot) {
+            return this.slots[slot];
+        }
+
+        @Override
+        public ItemStack decrStackSize(final int slot, final int amount) {
+            final ItemStack is = this.slots[slot];
+            if (is == null) {
+                return null;
+            }
+            if (is.stackSize <= amount) {
+                this.slots[slot] = null;
+                return is;
+            }
+            return is.splitStack(amount);
+        }
+
+        @Override
+        public ItemStack getStackInSlotOnClosing(final int slot) {
+            return null;
+        }
+
+        @Override
+        public void setInventorySlotContents(final int slot, final ItemStack is) {
+            this.slots[slot] = is;
+        }
+
+        @Override
+        public String getInventoryName() {
+            return "large";
+        }
+
+        @Override
+        public boolean hasCustomInventoryName() {
+            return false;
+        }
+
+        @Override
+        public int getInventoryStackLimit() {
+            return 64;
+        }
+
+        @Override
+        public void markDirty() {}
+
+        @Override
+        public boolean isUseableByPlayer(final EntityPlayer player) {
+            return true;
+        }
+
+        @Override
+        public void openInventory() {}
+
+        @Override
+        public void closeInventory() {}
+
+        @Override
+        public boolean isItemValidForSlot(final int slot, final ItemStack is) {
+            return true;
+        }
+    }
+
+    /**
+     * Adds up everything the monitor posts, like the network does.
+     */
+    private static final class Listener implements IMEMonitorHandlerReceiver<IAEItemStack> {
+
+        private final ItemList seen = new ItemList();
+        private int posts;
+
+        @Override
+        public boolean isValid(final Object verificationToken) {
+            return true;
+        }
+
+        @Override
+        public void postChange(final IBaseMonitor<IAEItemStack> monitor, final Iterable<IAEItemStack> change,
+                final BaseActionSource actionSource) {
+            for (final IAEItemStack stack : change) {
+                this.seen.add(stack);
+            }
+            this.posts++;
+        }
+
+        @Override
+        public void onListUpdate() {}
+    }
+
+    private LargeInventory fill(final Random random) {
+        final LargeInventory inv = new LargeInventory();
+        for (int slot = 0; slot < SLOTS; slot += 2) {
+            final ItemStack is = this.types.get(random.nextInt(this.types.size())).getItemStack();
+            is.stackSize = 1 + random.nextInt(64);
+            inv.slots[slot] = is;
+        }
+        return inv;
+    }
+
+    private static ItemList contents(final LargeInventory inv) {
+        final ItemList list = new ItemList();
+        for (final ItemStack is : inv.slots) {
+            list.add(AEItemStack.create(is));
+        }
+        return list;
+    }
+
+    private static void settle(final MEMonitorIInventory monitor) {
+        for (int i = 0; i < SETTLE_TICKS; i++) {
+            monitor.onTick();
+        }
+    }
+
+    private static void assertSameContents(final ItemList expected, final ItemList actual) {
+        for (final IAEItemStack stack : expected) {
+            final IAEItemStack matching = actual.findPrecise(stack);
+            assertNotNull(matching, stack::toString);
+            assertEquals(stack.getStackSize(), matching.getStackSize(), () -> "Stack size of " + stack);
+        }
+        for (final IAEItemStack stack : actual) {
+            assertNotNull(expected.findPrecise(stack), stack::toString);
+        }
+    }
+
+    private void randomOperation(final MEMonitorIInventory monitor, final Random random) {
+        final IAEItemStack type = this.types.get(random.nextInt(this.types.size()));
+        if (random.nextBoolean()) {
+            monitor.injectItems(type.copy().setStackSize(1 + random.nextInt(100)), Actionable.MODULATE, this.src);
+        } else {
+            monitor.extractItems(type.copy().setStackSize(1 + random.nextInt(100)), Actionable.MODULATE, this.src);
+        }
+    }
+
+    @Test
+    void ownChangesArePostedWithoutScanning() {
+        final LargeInventory inv = this.fill(new Random(1));
+        final MEMonitorIInventory monitor = new MEMonitorIInventory(new AdaptorIInventory(inv));
+        final Listener listener = new Listener();
+        monitor.addListener(listener, null);
+        settle(monitor);
+
+        final IAEItemStack type = this.types.get(3);
+        final long before = monitor.getAvailableItem(type, IterationCounter.fetchNewId()).getStackSize();
+        assertNull(monitor.injectItems(type.copy().setStackSize(100), Actionable.MODULATE, this.src));
+        assertEquals(before + 100, listener.seen.findPrecise(type).getStackSize());
+        assertEquals(before + 100, monitor.getAvailableItem(type, IterationCounter.fetchNewId()).getStackSize());
+
+        // the scan finds the change already posted
+        final int posts = listener.posts;
+        settle(monitor);
+        assertEquals(posts, listener.posts);
+        assertSameContents(contents(inv), listener.seen);
+    }
+
+    @Test
+    void externalChangesAreFoundByPartialScans() {
+        final LargeInventory inv = this.fill(new Random(2));
+        final MEMonitorIInventory monitor = new MEMonitorIInventory(new AdaptorIInventory(inv));
+        final Listener listener = new Listener();
+        monitor.addListener(listener, null);
+        settle(monitor);
+
+        inv.slots[SLOTS - 1] = new ItemStack(Blocks.stone, 5);
+        inv.slots[0] = null;
+        inv.slots[2].stackSize = 1;
+
+        monitor.onTick();
+        assertNull(listener.seen.findPrecise(AEItemStack.create(new ItemStack(Blocks.stone))));
+
+        settle(monitor);
+        assertSameContents(contents(inv), listener.seen);
+        assertSameContents(
+                contents(inv),
+                (ItemList) monitor.getAvailableItems(new ItemList(), IterationCounter.fetchNewId()));
+    }
+
+    @Test
+    void slowsDownOnlyAfterAQuietPass() {
+        final LargeInventory inv = this.fill(new Random(4));
+        final MEMonitorIInventory monitor = new MEMonitorIInventory(new AdaptorIInventory(inv));
+        settle(monitor);
+
+        inv.slots[0].stackSize = 1;
+        assertEquals(TickRateModulation.URGENT, monitor.onTick());
+        for (int i = 1; i < TICKS_PER_PASS - 1; i++) {
+            assertEquals(TickRateModulation.FASTER, monitor.onTick());
+        }
+        // the pass found a change in its first slice
+        assertEquals(TickRateModulation.SAME, monitor.onTick());
+
+        for (int i = 0; i < TICKS_PER_PASS - 1; i++) {
+            assertEquals(TickRateModulation.FASTER, monitor.onTick());
+        }
+        assertEquals(TickRateModulation.SLOWER, monitor.onTick());
+    }
+
+    @Test
+    void changesMadeAlongsideOthersAreCorrected() {
+        final Random random = new Random(3);
+        final LargeInventory inv = this.fill(random);
+        final MEMonitorIInventory monitor = new MEMonitorIInventory(new AdaptorIInventory(inv));
+        final Listener listener = new Listener();
+        monitor.addListener(listener, null);
+        settle(monitor);
+
+        for (int i = 0; i < OPERATIONS; i++) {
+            this.randomOperation(monitor, random);
+            if (random.nextInt(4) == 0) {
+                // something else moves items around behind the monitor's back
+                final int slot = random.nextInt(SLOTS);
+                inv.slots[slot] = random.nextBoolean() ? null
+                        : new ItemStack(Blocks.wool, 1 + random.nextInt(64), random.nextInt(16));
+            }
+            if (random.nextInt(8) == 0) {
+                monitor.onTick();
+            }
+        }
+
+        settle(monitor);
+        assertSameContents(contents(inv), listener.seen);
+    }
+
+    /**
+     * Not an assertion, reports the cost of inject and extract on a 10k slot inventory with the changes posted
+     * directly, against scanning the whole inventory after each one like the monitor used to, and the cost of a tick.
+     * Only runs with {@code -Dae2.benchmark=true}.
+     */
+    @Test
+    @Tag("benchmark")
+    @EnabledIfSystemProperty(named = "ae2.benchmark", matches = "true")
+    void largeInventoryBenchmark() {
+        final LargeInventory inv = this.fill(new Random(4));
+        final MEMonitorIInventory monitor = new MEMonitorIInventory(new AdaptorIInventory(inv));
+        monitor.addListener(new Listener(), null);
+        settle(monitor);
+
+        Random random = new Random(5);
+        long start = System.nanoTime();
+        for (int i = 0; i < OPERATIONS; i++) {
+            this.randomOperation(monitor, random);
+        }
+        final double directNanos = (System.nanoTime() - start) / (double) OPERATIONS;
+
+        random = new Random(5);
+        start = System.nanoTime();
+        for (int i = 0; i < OPERATIONS; i++) {
+            this.randomOperation(monitor, random);
+            for (int tick = 0; tick < TICKS_PER_PASS; tick++) {
+                monitor.onTick();
+            }
+        }
+        final double scanNanos = (System.nanoTime() - start) / (double) OPERATIONS;
+
+        start = System.nanoTime();
+        for (int i = 0; i < OPERATIONS; i++) {
+            monitor.onTick();
+        }
+        final double tickNanos = (System.nanoTime() - start) / (double) OPERATIONS;
+
+        System.out.printf(
+                "%d slot inventory: %.1f us per operation, %.1f us with a full scan after each, %.1f us per tick%n",
+                SLOTS,
+                directNanos / 1e3,
+                scanNanos / 1e3,
+                tickNanos / 1e3);
+    }
+}
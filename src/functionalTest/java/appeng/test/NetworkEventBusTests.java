@@ -0,0 +1,155 @@
+package appeng.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+import net.minecraftforge.common.util.ForgeDirection;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import appeng.api.exceptions.FailedConnection;
+import appeng.api.networking.IGrid;
+import appeng.api.networking.IGridHost;
+import appeng.api.networking.IGridNode;
+import appeng.api.networking.events.MENetworkEvent;
+import appeng.api.networking.events.MENetworkEventSubscribe;
+import appeng.api.networking.events.MENetworkPowerStatusChange;
+import appeng.api.util.AECableType;
+import appeng.me.GridConnection;
+import appeng.me.GridNode;
+import appeng.test.mockme.MockGridBlock;
+
+public class NetworkEventBusTests {
+
+    private static final int PARTS = 10_000;
+    private static final int BRANCHES = 6;
+    private static final int ROUNDS = 500;
+
+    public static class CancelingEvent extends MENetworkEvent {}
+
+    public static class Part implements IGridHost {
+
+        private int powerChanges;
+        private int cancelingEvents;
+
+        @MENetworkEventSubscribe
+        public void powerRender(final MENetworkPowerStatusChange c) {
+            this.powerChanges++;
+        }
+
+        @MENetworkEventSubscribe
+        public void cancel(final CancelingEvent c) {
+            this.cancelingEvents++;
+            c.cancel();
+        }
+
+        @Override
+        public IGridNode getGridNode(final ForgeDirection dir) {
+            return null;
+        }
+
+        @Override
+        public AECableType getCableConnectionType(final ForgeDirection dir) {
+            return AECableType.GLASS;
+        }
+
+        @Override
+        public void securityBreak() {}
+    }
+
+    private static final class PartBlock extends MockGridBlock {
+
+        private final Part part = new Part();
+
+        @Override
+        public IGridHost getMachine() {
+            return this.part;
+        }
+    }
+
+    private final List<Part> parts = new ArrayList<>(PARTS);
+
+    private IGrid buildGrid() throws FailedConnection {
+        final List<GridNode> nodes = new ArrayList<>(PARTS);
+        for (int i = 0; i < PARTS; i++) {
+            final PartBlock block = new PartBlock();
+            final GridNode node = new GridNode(block);
+            if (i > 0) {
+                new GridConnection(nodes.get((i - 1) / BRANCHES), node, ForgeDirection.UNKNOWN);
+            }
+            nodes.add(node);
+            this.parts.add(block.part);
+        }
+        return nodes.get(0).getGrid();
+    }
+
+    @Test
+    void everyPartReceivesTheEvent() throws FailedConnection {
+        final IGrid grid = this.buildGrid();
+
+        grid.postEvent(new MENetworkPowerStatusChange());
+        grid.postEvent(new MENetworkPowerStatusChange());
+
+        for (final Part part : this.parts) {
+            assertEquals(2, part.powerChanges);
+        }
+    }
+
+    @Test
+    void cancelingStopsTheEvent() throws FailedConnection {
+        final IGrid grid = this.buildGrid();
+
+        final MENetworkEvent event = grid.postEvent(new CancelingEvent());
+
+        assertEquals(1, event.getVisitedObjects());
+        assertEquals(1, this.parts.stream().mapToInt(p -> p.cancelingEvents).sum());
+    }
+
+    /**
+     * Not an assertion, compares posting a power change to 10k parts against calling the subscribers reflectively.
+     * Only runs with {@code -Dae2.benchmark=true}.
+     */
+    @Test
+    @Tag("benchmark")
+    @EnabledIfSystemProperty(named = "ae2.benchmark", matches = "true")
+    void powerStatusChangeBenchmark() throws Exception {
+        final IGrid grid = this.buildGrid();
+
+        for (int round = 0; round < ROUNDS; round++) {
+            grid.postEvent(new MENetworkPowerStatusChange());
+        }
+        long start = System.nanoTime();
+        for (int round = 0; round < ROUNDS; round++) {
+            grid.postEvent(new MENetworkPowerStatusChange());
+        }
+        final long busNanos = System.nanoTime() - start;
+
+        final Method method = Part.class.getMethod("powerRender", MENetworkPowerStatusChange.class);
+        for (int round = 0; round < ROUNDS; round++) {
+            postReflectively(grid, method);
+        }
+        start = System.nanoTime();
+        for (int round = 0; round < ROUNDS; round++) {
+            postReflectively(grid, method);
+        }
+        final long reflectionNanos = System.nanoTime() - start;
+
+        System.out.printf(
+                "power status change on %d parts: %.1f us per event, %.1f us calling each part reflectively%n",
+                PARTS,
+                busNanos / 1e3 / ROUNDS,
+                reflectionNanos / 1e3 / ROUNDS);
+    }
+
+    private static void postReflectively(final IGrid grid, final Method method) throws Exception {
+        final MENetworkPowerStatusChange event = new MENetworkPowerStatusChange();
+        for (final IGridNode node : grid.getMachines(Part.class)) {
+            method.invoke(node.getMachine(), event);
+        }
+    }
+}
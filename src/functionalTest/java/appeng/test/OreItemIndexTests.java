@@ -0,0 +1,85 @@
+package appeng.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import net.minecraft.init.Blocks;
+import net.minecraft.init.Items;
+import net.minecraft.item.ItemStack;
+import net.minecraft.nbt.NBTTagCompound;
+
+import org.junit.jupiter.api.Test;
+
+import appeng.api.storage.data.IAEItemStack;
+import appeng.util.item.AEItemStack;
+import appeng.util.item.ItemList;
+import appeng.util.item.OreItemIndex;
+import appeng.util.prioitylist.OreFilteredList;
+
+public class OreItemIndexTests {
+
+    private static final int TYPES = 40_000;
+    private static final String[] FILTERS = { "ingot*", "!ingot*", "*Iron", "gemDiamond|ingotGold", "log*&!ingot*",
+            "*" };
+
+    private final ItemList list = new ItemList();
+    private final OreItemIndex index = new OreItemIndex();
+
+    public OreItemIndexTests() {
+        final ItemStack[] bases = { new ItemStack(Items.iron_ingot), new ItemStack(Items.gold_ingot),
+                new ItemStack(Items.diamond), new ItemStack(Blocks.log), new ItemStack(Blocks.wool, 1, 4),
+                new ItemStack(Blocks.dirt) };
+        for (int i = 0; i < TYPES; i++) {
+            // mostly things without ore names, like a real network
+            final ItemStack is = (i % 10 == 0 ? bases[(i / 10) % 4] : bases[4 + i % 2]).copy();
+            final NBTTagCompound tag = new NBTTagCompound();
+            tag.setInteger("variant", i);
+            is.setTagCompound(tag);
+            is.stackSize = 1 + i % 64;
+            this.list.add(AEItemStack.create(is));
+        }
+        this.index.addAll(this.list);
+    }
+
+    private List<IAEItemStack> scan(final Predicate<IAEItemStack> filter) {
+        final List<IAEItemStack> out = new ArrayList<>();
+        for (final IAEItemStack stack : this.list) {
+            if (filter.test(stack)) {
+                out.add(stack);
+            }
+        }
+        return out;
+    }
+
+    @Test
+    void indexFindsWhatAScanFinds() {
+        for (final String f : FILTERS) {
+            final Predicate<IAEItemStack> filter = OreFilteredList.makeFilter(f);
+            final Set<IAEItemStack> expected = new HashSet<>(this.scan(filter));
+            final List<IAEItemStack> found = this.index.findMatching(filter, this.list);
+
+            assertEquals(expected.size(), found.size(), f);
+            assertEquals(expected, new HashSet<>(found), f);
+            for (final IAEItemStack stack : found) {
+                assertSame(this.list.findPrecise(stack), stack, f);
+            }
+        }
+    }
+
+    @Test
+    void removedTypesAreDropped() {
+        final Predicate<IAEItemStack> filter = stack -> true;
+        final int before = this.index.findMatching(filter, this.list).size();
+
+        // emptying an entry and iterating the list removes it, like the network list does
+        this.list.getFirstItem().setStackSize(0);
+        for (final IAEItemStack ignored : this.list) {}
+
+        assertEquals(before - 1, this.index.findMatching(filter, this.list).size());
+    }
+}
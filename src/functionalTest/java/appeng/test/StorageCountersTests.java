@@ -0,0 +1,135 @@
+package appeng.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import net.minecraft.init.Blocks;
+import net.minecraft.init.Items;
+import net.minecraft.item.ItemStack;
+
+import org.junit.jupiter.api.Test;
+
+import appeng.api.config.FuzzyMode;
+import appeng.api.storage.StorageChannel;
+import appeng.api.storage.data.IAEItemStack;
+import appeng.me.cache.helpers.IStorageCounterWatcher;
+import appeng.me.cache.helpers.StorageCounter;
+import appeng.me.cache.helpers.StorageCounters;
+import appeng.util.item.AEItemStack;
+import appeng.util.item.ItemList;
+
+public class StorageCountersTests {
+
+    private static final int OPERATIONS = 20_000;
+
+    private final List<IAEItemStack> types = new ArrayList<>();
+    private final ItemList storage = new ItemList();
+    private final StorageCounters<IAEItemStack> counters = new StorageCounters<>(StorageChannel.ITEMS);
+
+    public StorageCountersTests() {
+        for (int meta = 0; meta < 16; meta++) {
+            this.types.add(AEItemStack.create(new ItemStack(Blocks.wool, 1, meta)));
+        }
+        for (int damage = 0; damage < Items.diamond_pickaxe.getMaxDamage(); damage += 97) {
+            this.types.add(AEItemStack.create(new ItemStack(Items.diamond_pickaxe, 1, damage)));
+        }
+    }
+
+    private static final class Watcher implements IStorageCounterWatcher<IAEItemStack> {
+
+        private boolean valid = true;
+        private int changes;
+
+        @Override
+        public boolean isValid(final Object verificationToken) {
+            return this.valid;
+        }
+
+        @Override
+        public void onCounterChange(final StorageCounter<IAEItemStack> counter) {
+            this.changes++;
+        }
+    }
+
+    private StorageCounter<IAEItemStack> watch(final IAEItemStack filter, final FuzzyMode mode,
+            final Watcher watcher) {
+        return this.counters.watch(filter, mode, watcher, null, () -> this.storage);
+    }
+
+    private long sum(final IAEItemStack filter, final FuzzyMode mode) {
+        long value = 0;
+        for (final IAEItemStack stack : filter == null ? this.storage : this.storage.findFuzzy(filter, mode)) {
+            value += stack.getStackSize();
+        }
+        return value;
+    }
+
+    private void randomChange(final Random random) {
+        final IAEItemStack type = this.types.get(random.nextInt(this.types.size()));
+        final IAEItemStack stored = this.storage.findPrecise(type);
+        final boolean add = stored == null || stored.getStackSize() == 0 || random.nextBoolean();
+        final long amount = add ? 1 + random.nextInt(1000)
+                : 1 + random.nextInt((int) Math.min(stored.getStackSize(), Integer.MAX_VALUE));
+
+        final IAEItemStack change = type.copy().setStackSize(amount);
+        if (add) {
+            this.storage.add(change);
+        } else {
+            stored.decStackSize(amount);
+        }
+        this.counters.postChange(add, Collections.singletonList(change));
+    }
+
+    @Test
+    void countersFollowTheStorageList() {
+        final Random random = new Random(1);
+        for (int i = 0; i < 1000; i++) {
+            this.randomChange(random);
+        }
+
+        final IAEItemStack pickaxe = AEItemStack.create(new ItemStack(Items.diamond_pickaxe, 1, 1000));
+        final StorageCounter<IAEItemStack> total = this.watch(null, FuzzyMode.IGNORE_ALL, new Watcher());
+        final StorageCounter<IAEItemStack> half = this.watch(pickaxe, FuzzyMode.PERCENT_50, new Watcher());
+        final StorageCounter<IAEItemStack> all = this.watch(pickaxe, FuzzyMode.IGNORE_ALL, new Watcher());
+        final StorageCounter<IAEItemStack> wool = this.watch(this.types.get(3), FuzzyMode.IGNORE_ALL, new Watcher());
+
+        for (int i = 0; i < OPERATIONS; i++) {
+            this.randomChange(random);
+        }
+
+        assertEquals(this.sum(null, FuzzyMode.IGNORE_ALL), total.getValue());
+        assertEquals(this.sum(pickaxe, FuzzyMode.PERCENT_50), half.getValue());
+        assertEquals(this.sum(pickaxe, FuzzyMode.IGNORE_ALL), all.getValue());
+        assertEquals(this.sum(this.types.get(3), FuzzyMode.IGNORE_ALL), wool.getValue());
+        assertNotEquals(half.getValue(), all.getValue());
+    }
+
+    @Test
+    void watchersShareCounters() {
+        final Watcher first = new Watcher();
+        final Watcher second = new Watcher();
+        final StorageCounter<IAEItemStack> counter = this.watch(null, FuzzyMode.IGNORE_ALL, first);
+        assertSame(counter, this.watch(null, FuzzyMode.PERCENT_99, second));
+
+        this.randomChange(new Random(2));
+        assertEquals(1, first.changes);
+        assertEquals(1, second.changes);
+
+        // watching something else stops watching the old counter
+        this.watch(this.types.get(0), FuzzyMode.IGNORE_ALL, second);
+        second.changes = 0;
+        this.counters.postChange(true, Collections.singletonList(this.types.get(5).copy().setStackSize(3)));
+        assertEquals(2, first.changes);
+        assertEquals(0, second.changes);
+
+        // invalid watchers are dropped, and the counter with them
+        first.valid = false;
+        this.counters.postChange(true, Collections.singletonList(this.types.get(5).copy().setStackSize(3)));
+        this.counters.unwatch(second);
+        assertTrue(this.counters.isEmpty());
+    }
+}
@@ -114,6 +114,10 @@ public class MockAESystem implements ICellProvider {
         }
 
         public void buildAndAdd() {
+            cgCache.addCraftingOption(new MockCraftingMedium(), this.build());
+        }
+
+        public PatternHelper build() {
             final ItemStack encodedPattern = AEApi.instance().definitions().items().encodedPattern().maybeStack(1)
                     .get();
             final NBTTagCompound patternTags = new NBTTagCompound();
@@ -140,8 +144,7 @@ public class MockAESystem implements ICellProvider {
             }
             patternTags.setTag("out", outs);
             encodedPattern.setTagCompound(patternTags);
-            PatternHelper helper = new PatternHelper(encodedPattern, world);
-            cgCache.addCraftingOption(new MockCraftingMedium(), helper);
+            return new PatternHelper(encodedPattern, world);
         }
     }
 
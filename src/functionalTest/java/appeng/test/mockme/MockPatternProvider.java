@@ -0,0 +1,38 @@
+package appeng.test.mockme;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import net.minecraftforge.common.util.ForgeDirection;
+
+import appeng.api.networking.IGridHost;
+import appeng.api.networking.IGridNode;
+import appeng.api.networking.crafting.ICraftingPatternDetails;
+import appeng.api.networking.crafting.ICraftingProvider;
+import appeng.api.networking.crafting.ICraftingProviderHelper;
+import appeng.api.util.AECableType;
+
+public class MockPatternProvider extends MockCraftingMedium implements ICraftingProvider, IGridHost {
+
+    public final List<ICraftingPatternDetails> patterns = new ArrayList<>();
+
+    @Override
+    public void provideCrafting(ICraftingProviderHelper craftingTracker) {
+        for (ICraftingPatternDetails pattern : patterns) {
+            craftingTracker.addCraftingOption(this, pattern);
+        }
+    }
+
+    @Override
+    public IGridNode getGridNode(ForgeDirection dir) {
+        return null;
+    }
+
+    @Override
+    public AECableType getCableConnectionType(ForgeDirection dir) {
+        return AECableType.GLASS;
+    }
+
+    @Override
+    public void securityBreak() {}
+}
@@ -0,0 +1,27 @@
+package appeng.test.mockme;
+
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+
+/**
+ * A tool that is left in the crafting grid unchanged, unlike damageable tools or buckets.
+ */
+public class MockStencilItem extends Item {
+
+    public MockStencilItem() {
+        this.setUnlocalizedName("appeng-tests.stencil");
+        this.setMaxStackSize(1);
+    }
+
+    @Override
+    public boolean hasContainerItem(ItemStack stack) {
+        return true;
+    }
+
+    @Override
+    public ItemStack getContainerItem(ItemStack stack) {
+        final ItemStack container = stack.copy();
+        container.stackSize = 1;
+        return container;
+    }
+}
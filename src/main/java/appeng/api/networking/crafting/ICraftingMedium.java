@@ -38,6 +38,29 @@ public interface ICraftingMedium {
      */
     boolean isBusy();
 
+    /**
+     * @param patternDetails a processing pattern
+     * @return how many copies of the pattern this medium accepts in one {@link #pushPatternBatch} call, 1 if it only
+     *         accepts them one at a time.
+     */
+    default int getMaxBatchSize(ICraftingPatternDetails patternDetails) {
+        return 1;
+    }
+
+    /**
+     * instruct a medium to process several copies of a processing pattern at once, the table holds the inputs of all
+     * of them, so stacks may be larger than their maximum size. Only called with at most {@link #getMaxBatchSize}
+     * copies.
+     *
+     * @param patternDetails details
+     * @param table          the pattern's inputs, multiplied by copies
+     * @param copies         how many crafts the table holds
+     * @return if all copies were pushed, the medium must not keep any of the items otherwise.
+     */
+    default boolean pushPatternBatch(ICraftingPatternDetails patternDetails, InventoryCrafting table, int copies) {
+        return false;
+    }
+
     /**
      * @return An itemstack representing the machine that will craft the patterns pushed into this medium. Shown in the
      *         crafting simulation tree view.
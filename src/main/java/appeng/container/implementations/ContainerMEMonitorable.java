@@ -11,7 +11,6 @@
 package appeng.container.implementations;
 
 import java.io.IOException;
-import java.nio.BufferOverflowException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -51,16 +50,12 @@ import appeng.api.networking.crafting.ICraftingCPU;
 import appeng.api.networking.crafting.ICraftingGrid;
 import appeng.api.networking.energy.IEnergyGrid;
 import appeng.api.networking.energy.IEnergySource;
-import appeng.api.networking.security.BaseActionSource;
 import appeng.api.networking.security.PlayerSource;
-import appeng.api.networking.storage.IBaseMonitor;
 import appeng.api.parts.IPart;
 import appeng.api.storage.IMEMonitor;
-import appeng.api.storage.IMEMonitorHandlerReceiver;
 import appeng.api.storage.ITerminalHost;
 import appeng.api.storage.ITerminalPins;
 import appeng.api.storage.data.IAEItemStack;
-import appeng.api.storage.data.IItemList;
 import appeng.api.util.IConfigManager;
 import appeng.api.util.IConfigurableObject;
 import appeng.container.AEBaseContainer;
@@ -82,11 +77,11 @@ import appeng.util.Platform;
 import appeng.util.item.AEItemStack;
 
 public class ContainerMEMonitorable extends AEBaseContainer
-        implements IConfigManagerHost, IConfigurableObject, IMEMonitorHandlerReceiver<IAEItemStack>, IPinsHandler {
+        implements IConfigManagerHost, IConfigurableObject, IPinsHandler {
 
     private final SlotRestrictedInput[] cellView = new SlotRestrictedInput[5];
     private final IMEMonitor<IAEItemStack> monitor;
-    private final IItemList<IAEItemStack> items = AEApi.instance().storage().createItemList();
+    private TerminalUpdateBroadcaster updates;
     private final IConfigManager clientCM;
     private final ITerminalHost host;
 
@@ -133,7 +128,7 @@ public class ContainerMEMonitorable extends AEBaseContainer
 
             this.monitor = monitorable.getItemInventory();
             if (this.monitor != null) {
-                this.monitor.addListener(this, null);
+                this.updates = TerminalUpdateBroadcaster.subscribe(this.monitor, this);
 
                 this.setCellInventory(this.monitor);
 
@@ -226,33 +221,13 @@ public class ContainerMEMonitorable extends AEBaseContainer
                 }
             }
 
-            if (!this.items.isEmpty()) {
-                try {
-                    final IItemList<IAEItemStack> monitorCache = this.monitor.getStorageList();
-
-                    final PacketMEInventoryUpdate piu = new PacketMEInventoryUpdate();
-
-                    for (final IAEItemStack is : this.items) {
-                        final IAEItemStack send = monitorCache.findPrecise(is);
-                        if (send == null) {
-                            is.setStackSize(0);
-                            piu.appendItem(is);
-                        } else {
-                            piu.appendItem(send);
-                        }
-                    }
-
-                    if (!piu.isEmpty()) {
-                        this.items.resetStatus();
-
-                        for (final Object c : this.crafters) {
-                            if (c instanceof EntityPlayer) {
-                                NetworkHandler.instance.sendTo(piu, (EntityPlayerMP) c);
-                            }
+            if (this.updates != null) {
+                for (final PacketMEInventoryUpdate piu : this.updates.poll(this)) {
+                    for (final Object c : this.crafters) {
+                        if (c instanceof EntityPlayer) {
+                            NetworkHandler.instance.sendTo(piu, (EntityPlayerMP) c);
                         }
                     }
-                } catch (final IOException e) {
-                    AELog.debug(e);
                 }
             }
 
@@ -309,24 +284,8 @@ public class ContainerMEMonitorable extends AEBaseContainer
 
     private void queueInventory(final ICrafting c) {
         if (Platform.isServer() && c instanceof EntityPlayer && this.monitor != null) {
-            try {
-                PacketMEInventoryUpdate piu = new PacketMEInventoryUpdate();
-                final IItemList<IAEItemStack> monitorCache = this.monitor.getStorageList();
-
-                for (final IAEItemStack send : monitorCache) {
-                    try {
-                        piu.appendItem(send);
-                    } catch (final BufferOverflowException boe) {
-                        NetworkHandler.instance.sendTo(piu, (EntityPlayerMP) c);
-
-                        piu = new PacketMEInventoryUpdate();
-                        piu.appendItem(send);
-                    }
-                }
-
+            for (final PacketMEInventoryUpdate piu : TerminalUpdateBroadcaster.buildInventory(this.monitor)) {
                 NetworkHandler.instance.sendTo(piu, (EntityPlayerMP) c);
-            } catch (final IOException e) {
-                AELog.debug(e);
             }
         }
     }
@@ -335,38 +294,16 @@ public class ContainerMEMonitorable extends AEBaseContainer
     public void removeCraftingFromCrafters(final ICrafting c) {
         super.removeCraftingFromCrafters(c);
 
-        if (this.crafters.isEmpty() && this.monitor != null) {
-            this.monitor.removeListener(this);
+        if (this.crafters.isEmpty() && this.updates != null) {
+            this.updates.unsubscribe(this);
         }
     }
 
     @Override
     public void onContainerClosed(final EntityPlayer player) {
         super.onContainerClosed(player);
-        if (this.monitor != null) {
-            this.monitor.removeListener(this);
-        }
-    }
-
-    @Override
-    public boolean isValid(final Object verificationToken) {
-        return true;
-    }
-
-    @Override
-    public void postChange(final IBaseMonitor<IAEItemStack> monitor, final Iterable<IAEItemStack> change,
-            final BaseActionSource source) {
-        for (final IAEItemStack is : change) {
-            this.items.add(is);
-        }
-    }
-
-    @Override
-    public void onListUpdate() {
-        for (final Object c : this.crafters) {
-            if (c instanceof ICrafting cr) {
-                this.queueInventory(cr);
-            }
+        if (this.updates != null) {
+            this.updates.unsubscribe(this);
         }
     }
 
@@ -491,7 +428,12 @@ public class ContainerMEMonitorable extends AEBaseContainer
             pinsHandler.addItemsToPins(craftedItems);
         }
         pinsHandler.update(forceUpdate);
-        onListUpdate(); // notify the repo that the pins have changed
+        // notify the repo that the pins have changed
+        for (final Object c : this.crafters) {
+            if (c instanceof ICrafting cr) {
+                this.queueInventory(cr);
+            }
+        }
     }
 
     @Override
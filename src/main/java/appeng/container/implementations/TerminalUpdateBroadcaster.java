@@ -0,0 +1,207 @@
+/*
+ * This file is part of Applied Energistics 2. Copyright (c) 2013 - 2014, AlgorithmX2, All rights reserved. Applied
+ * Energistics 2 is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version. Applied Energistics 2 is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details. You should have received a copy of the GNU Lesser General Public License along with
+ * Applied Energistics 2. If not, see <http://www.gnu.org/licenses/lgpl>.
+ */
+
+package appeng.container.implementations;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import appeng.api.AEApi;
+import appeng.api.networking.security.BaseActionSource;
+import appeng.api.networking.storage.IBaseMonitor;
+import appeng.api.storage.IMEMonitor;
+import appeng.api.storage.IMEMonitorHandlerReceiver;
+import appeng.api.storage.data.IAEItemStack;
+import appeng.api.storage.data.IItemList;
+import appeng.core.AELog;
+import appeng.core.sync.packets.PacketMEInventoryUpdate;
+
+/**
+ * Collects the changes of one item monitor for every terminal open on it, and encodes them into inventory update
+ * packets once for all of them.
+ * <p>
+ * The first terminal to update after something changed builds a batch, the others send the same packets when their
+ * turn comes. Batches are kept until every terminal has sent them. The packets carry the current amounts rather than
+ * deltas, so a terminal that opens in between and also gets the full inventory is not confused by receiving some
+ * stacks twice.
+ */
+final class TerminalUpdateBroadcaster implements IMEMonitorHandlerReceiver<IAEItemStack> {
+
+    private static final Map<IMEMonitor<IAEItemStack>, TerminalUpdateBroadcaster> BROADCASTERS = new IdentityHashMap<>();
+
+    private final IMEMonitor<IAEItemStack> monitor;
+    private final IItemList<IAEItemStack> pending = AEApi.instance().storage().createItemList();
+    // the generation of the last batch each terminal sent
+    private final Map<Object, Long> subscribers = new IdentityHashMap<>();
+    private final ArrayDeque<Batch> batches = new ArrayDeque<>();
+    private long generation = 0;
+    private boolean inventoryPending = false;
+
+    private static final class Batch {
+
+        private final long generation;
+        private final List<PacketMEInventoryUpdate> packets;
+
+        private Batch(final long generation, final List<PacketMEInventoryUpdate> packets) {
+            this.generation = generation;
+            this.packets = packets;
+        }
+    }
+
+    private TerminalUpdateBroadcaster(final IMEMonitor<IAEItemStack> monitor) {
+        this.monitor = monitor;
+    }
+
+    static TerminalUpdateBroadcaster subscribe(final IMEMonitor<IAEItemStack> monitor, final Object subscriber) {
+        TerminalUpdateBroadcaster broadcaster = BROADCASTERS.get(monitor);
+        if (broadcaster == null) {
+            broadcaster = new TerminalUpdateBroadcaster(monitor);
+            BROADCASTERS.put(monitor, broadcaster);
+            monitor.addListener(broadcaster, null);
+        }
+
+        broadcaster.subscribers.put(subscriber, broadcaster.generation);
+        return broadcaster;
+    }
+
+    void unsubscribe(final Object subscriber) {
+        if (this.subscribers.remove(subscriber) == null) {
+            return;
+        }
+
+        if (this.subscribers.isEmpty()) {
+            this.monitor.removeListener(this);
+            BROADCASTERS.remove(this.monitor);
+        } else {
+            this.dropSentBatches();
+        }
+    }
+
+    /**
+     * @return the packets the subscriber has not sent yet, building them first if something changed since the last
+     *         batch
+     */
+    List<PacketMEInventoryUpdate> poll(final Object subscriber) {
+        final Long sent = this.subscribers.get(subscriber);
+        if (sent == null) {
+            return Collections.emptyList();
+        }
+
+        if (!this.pending.isEmpty()) {
+            this.buildChanges();
+        }
+
+        if (this.inventoryPending) {
+            this.inventoryPending = false;
+            this.batches.add(new Batch(++this.generation, buildInventory(this.monitor)));
+        }
+
+        if (sent == this.generation) {
+            return Collections.emptyList();
+        }
+
+        final List<PacketMEInventoryUpdate> out = new ArrayList<>();
+        for (final Batch batch : this.batches) {
+            if (batch.generation > sent) {
+                out.addAll(batch.packets);
+            }
+        }
+
+        this.subscribers.put(subscriber, this.generation);
+        this.dropSentBatches();
+        return out;
+    }
+
+    private void buildChanges() {
+        try {
+            final IItemList<IAEItemStack> monitorCache = this.monitor.getStorageList();
+            final PacketMEInventoryUpdate piu = new PacketMEInventoryUpdate();
+
+            for (final IAEItemStack is : this.pending) {
+                final IAEItemStack send = monitorCache.findPrecise(is);
+                if (send == null) {
+                    is.setStackSize(0);
+                    piu.appendItem(is);
+                } else {
+                    piu.appendItem(send);
+                }
+            }
+
+            if (!piu.isEmpty()) {
+                this.pending.resetStatus();
+                this.batches.add(new Batch(++this.generation, Collections.singletonList(piu)));
+            }
+        } catch (final IOException e) {
+            AELog.debug(e);
+        }
+    }
+
+    private void dropSentBatches() {
+        long oldest = this.generation;
+        for (final long sent : this.subscribers.values()) {
+            oldest = Math.min(oldest, sent);
+        }
+
+        while (!this.batches.isEmpty() && this.batches.peekFirst().generation <= oldest) {
+            this.batches.pollFirst();
+        }
+    }
+
+    /**
+     * @return the whole inventory of the monitor, split into as many packets as it takes
+     */
+    static List<PacketMEInventoryUpdate> buildInventory(final IMEMonitor<IAEItemStack> monitor) {
+        final List<PacketMEInventoryUpdate> packets = new ArrayList<>();
+        try {
+            PacketMEInventoryUpdate piu = new PacketMEInventoryUpdate();
+            final IItemList<IAEItemStack> monitorCache = monitor.getStorageList();
+
+            for (final IAEItemStack send : monitorCache) {
+                try {
+                    piu.appendItem(send);
+                } catch (final BufferOverflowException boe) {
+                    packets.add(piu);
+
+                    piu = new PacketMEInventoryUpdate();
+                    piu.appendItem(send);
+                }
+            }
+
+            packets.add(piu);
+        } catch (final IOException e) {
+            AELog.debug(e);
+        }
+        return packets;
+    }
+
+    @Override
+    public boolean isValid(final Object verificationToken) {
+        return true;
+    }
+
+    @Override
+    public void postChange(final IBaseMonitor<IAEItemStack> monitor, final Iterable<IAEItemStack> change,
+            final BaseActionSource source) {
+        for (final IAEItemStack is : change) {
+            this.pending.add(is);
+        }
+    }
+
+    @Override
+    public void onListUpdate() {
+        this.inventoryPending = true;
+    }
+}
@@ -63,7 +63,6 @@ public final class AEConfig extends Configuration implements IConfigurableObject
     public int storageBiomeID = -1;
     public int storageProviderID = -1;
     public int formationPlaneEntityLimit = 128;
-    public double networkBytesUpdateFrequency = 1.0d;
     public float spawnChargedChance = 0.92f;
     public int quartzOresPerCluster = 4;
     public int quartzOresClusterAmount = 15;
@@ -93,6 +92,7 @@ public final class AEConfig extends Configuration implements IConfigurableObject
     public boolean debugLogTiming = false;
     public boolean debugPathFinding = false;
     public boolean captureGAEStacks = false;
+    public boolean debugStorageListConsistency = false;
     public int wirelessTerminalBattery = 1600000;
     public int entropyManipulatorBattery = 200000;
     public int matterCannonBattery = 200000;
@@ -106,6 +106,7 @@ public final class AEConfig extends Configuration implements IConfigurableObject
     public String[] meteoriteValidBlocks = { "examplemod:example_block" };
     public String[] meteoriteInvalidBlocks = { "examplemod:example_block" };
     public int craftingCalculationTimePerTick = 5;
+    public int craftingCalculationThreads = 0;
     PowerUnits selectedPowerUnit = PowerUnits.AE;
     CellType selectedCellType = CellType.ITEM;
     private double WirelessBaseCost = 8;
@@ -214,16 +215,6 @@ public final class AEConfig extends Configuration implements IConfigurableObject
         this.formationPlaneEntityLimit = this
                 .get("automation", "formationPlaneEntityLimit", this.formationPlaneEntityLimit)
                 .getInt(this.formationPlaneEntityLimit);
-        this.networkBytesUpdateFrequency = this
-                .get("automation", "networkBytesUpdateFrequency", this.networkBytesUpdateFrequency)
-                .getDouble(this.networkBytesUpdateFrequency);
-        if (this.networkBytesUpdateFrequency == 0) {
-            throw new IllegalArgumentException("networkBytesUpdateFrequency can not be 0!");
-        }
-        this.get(
-                "automation",
-                "networkBytesUpdateFrequency",
-                this.networkBytesUpdateFrequency).comment = "#Network bytes information update Frequency(s) default:1.0";
 
         this.wirelessTerminalBattery = this.get("battery", "wirelessTerminal", this.wirelessTerminalBattery)
                 .getInt(this.wirelessTerminalBattery);
@@ -247,6 +238,9 @@ public final class AEConfig extends Configuration implements IConfigurableObject
                 .getInt(this.craftingCalculatorVersion);
         this.craftingCalculatorVersion = Math.max(1, Math.min(this.craftingCalculatorVersion, 2));
         this.captureGAEStacks = this.get("debug", "CaptureGridAccessExceptionStacks", false).getBoolean();
+        this.debugStorageListConsistency = this
+                .get("debug", "CheckStorageListConsistency", this.debugStorageListConsistency)
+                .getBoolean(this.debugStorageListConsistency);
         this.maxCraftingSteps = this.get("misc", "MaxCraftingSteps", this.maxCraftingSteps)
                 .getInt(this.maxCraftingSteps);
         this.maxCraftingTreeVisualizationSize = this
@@ -308,6 +302,9 @@ public final class AEConfig extends Configuration implements IConfigurableObject
             this.craftingCalculationTimePerTick = this
                     .get("craftingCPU", "craftingCalculationTimePerTick", this.craftingCalculationTimePerTick)
                     .getInt(this.craftingCalculationTimePerTick);
+            this.craftingCalculationThreads = this
+                    .get("craftingCPU", "craftingCalculationThreads", this.craftingCalculationThreads)
+                    .getInt(this.craftingCalculationThreads);
         }
 
         this.updatable = true;
@@ -0,0 +1,245 @@
+/*
+ * This file is part of Applied Energistics 2. Copyright (c) 2013 - 2015, AlgorithmX2, All rights reserved. Applied
+ * Energistics 2 is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version. Applied Energistics 2 is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details. You should have received a copy of the GNU Lesser General Public License along with
+ * Applied Energistics 2. If not, see <http://www.gnu.org/licenses/lgpl>.
+ */
+
+package appeng.core.worlddata;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.CRC32;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import com.google.common.base.Preconditions;
+
+import appeng.core.AELog;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+
+/**
+ * Append-only file holding the compressed NBT of every grid storage, keyed by storage id.
+ * <p>
+ * Every write appends a new record and only the offset of the latest one is kept in memory, reading a grid seeks
+ * straight to it. Only storages whose data changed are handed in. Superseded and deleted records are
+ * dropped by {@link #compactIfWasteful()}, which rewrites the live ones into a new file. Opening the file only reads
+ * the record headers, the payload checksum is verified when a record is read.
+ * <p>
+ * Layout: a header of {@link #MAGIC} and {@link #VERSION}, followed by records of storage id (long), payload length
+ * (int, {@link #DELETED} for a removed storage), CRC32 of the payload (int) and the payload itself.
+ */
+final class GridStorageFile implements Closeable {
+
+    private static final int MAGIC = 0x41453247; // AE2G
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 8;
+    private static final int RECORD_HEADER_SIZE = 16;
+    private static final int DELETED = -1;
+
+    // compact only once the dead records take more space than this and more than the live ones
+    private static final long MIN_WASTE_TO_COMPACT = 1 << 20;
+
+    @Nonnull
+    private final File file;
+
+    private final Long2ObjectMap<Record> records = new Long2ObjectOpenHashMap<>();
+    private final CRC32 crc = new CRC32();
+
+    private RandomAccessFile raf;
+    private long liveBytes;
+
+    public GridStorageFile(@Nonnull final File file) throws IOException {
+        Preconditions.checkNotNull(file);
+
+        this.file = file;
+        this.open();
+    }
+
+    /**
+     * @return compressed NBT last written for the storage, or null if there is none
+     */
+    @Nullable
+    public byte[] read(final long id) throws IOException {
+        final Record record = this.records.get(id);
+        if (record == null) {
+            return null;
+        }
+
+        final byte[] data = this.readPayload(record);
+        if (this.checksum(data) != record.checksum) {
+            throw new IOException("Corrupt grid storage record " + id + " in " + this.file.getAbsolutePath());
+        }
+        return data;
+    }
+
+    /**
+     * Appends the data for the storage, superseding the previous record.
+     */
+    public void write(final long id, @Nonnull final byte[] data) throws IOException {
+        final int checksum = this.checksum(data);
+
+        final long position = this.raf.length();
+        this.raf.seek(position);
+        this.raf.writeLong(id);
+        this.raf.writeInt(data.length);
+        this.raf.writeInt(checksum);
+        this.raf.write(data);
+
+        this.replace(id, new Record(position + RECORD_HEADER_SIZE, data.length, checksum));
+    }
+
+    public void delete(final long id) throws IOException {
+        if (!this.records.containsKey(id)) {
+            return;
+        }
+
+        final long position = this.raf.length();
+        this.raf.seek(position);
+        this.raf.writeLong(id);
+        this.raf.writeInt(DELETED);
+        this.raf.writeInt(0);
+
+        this.replace(id, null);
+    }
+
+    /**
+     * Forces appended records to disk.
+     */
+    public void sync() throws IOException {
+        this.raf.getChannel().force(false);
+    }
+
+    public void compactIfWasteful() throws IOException {
+        final long waste = this.raf.length() - HEADER_SIZE - this.liveBytes;
+        if (waste < MIN_WASTE_TO_COMPACT || waste < this.liveBytes) {
+            return;
+        }
+
+        final File compacted = new File(this.file.getPath() + ".tmp");
+        try (RandomAccessFile out = new RandomAccessFile(compacted, "rw")) {
+            out.setLength(0);
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+
+            for (final Long2ObjectMap.Entry<Record> entry : this.records.long2ObjectEntrySet()) {
+                final Record record = entry.getValue();
+                final byte[] data = this.readPayload(record);
+
+                out.writeLong(entry.getLongKey());
+                out.writeInt(data.length);
+                out.writeInt(record.checksum);
+                out.write(data);
+            }
+
+            out.getChannel().force(false);
+        }
+
+        this.raf.close();
+        Files.move(
+                compacted.toPath(),
+                this.file.toPath(),
+                StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        this.open();
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.raf.close();
+    }
+
+    private void open() throws IOException {
+        this.records.clear();
+        this.liveBytes = 0;
+        this.raf = new RandomAccessFile(this.file, "rw");
+
+        if (this.raf.length() < HEADER_SIZE) {
+            this.raf.setLength(0);
+            this.raf.writeInt(MAGIC);
+            this.raf.writeInt(VERSION);
+            return;
+        }
+
+        this.raf.seek(0);
+        final int magic = this.raf.readInt();
+        final int version = this.raf.readInt();
+        if (magic != MAGIC || version != VERSION) {
+            throw new IOException("Unknown grid storage file format in " + this.file.getAbsolutePath());
+        }
+
+        final long end = this.raf.length();
+        long position = HEADER_SIZE;
+        while (position + RECORD_HEADER_SIZE <= end) {
+            this.raf.seek(position);
+            final long id = this.raf.readLong();
+            final int length = this.raf.readInt();
+            final int checksum = this.raf.readInt();
+            final long next = position + RECORD_HEADER_SIZE + Math.max(length, 0);
+            if (length < DELETED || next > end) {
+                break;
+            }
+
+            if (length == DELETED) {
+                this.replace(id, null);
+            } else {
+                this.replace(id, new Record(position + RECORD_HEADER_SIZE, length, checksum));
+            }
+            position = next;
+        }
+
+        if (position != end) {
+            // the server went down in the middle of a write, that record never made it
+            AELog.warn(
+                    "Dropping %d bytes of incomplete grid storage data from %s",
+                    end - position,
+                    this.file.getAbsolutePath());
+            this.raf.setLength(position);
+        }
+    }
+
+    private byte[] readPayload(final Record record) throws IOException {
+        final byte[] data = new byte[record.length];
+        this.raf.seek(record.offset);
+        this.raf.readFully(data);
+        return data;
+    }
+
+    private int checksum(final byte[] data) {
+        this.crc.reset();
+        this.crc.update(data, 0, data.length);
+        return (int) this.crc.getValue();
+    }
+
+    private void replace(final long id, @Nullable final Record record) {
+        final Record previous = record == null ? this.records.remove(id) : this.records.put(id, record);
+        if (previous != null) {
+            this.liveBytes -= RECORD_HEADER_SIZE + previous.length;
+        }
+        if (record != null) {
+            this.liveBytes += RECORD_HEADER_SIZE + record.length;
+        }
+    }
+
+    private static final class Record {
+
+        private final long offset;
+        private final int length;
+        private final int checksum;
+
+        private Record(final long offset, final int length, final int checksum) {
+            this.offset = offset;
+            this.length = length;
+            this.checksum = checksum;
+        }
+    }
+}
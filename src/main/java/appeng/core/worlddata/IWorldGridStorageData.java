@@ -32,5 +32,10 @@ public interface IWorldGridStorageData {
 
     void destroyGridStorage(long id);
 
+    /**
+     * Writes the grid storage that changed since it was last saved.
+     */
+    void saveGridStorage();
+
     int getNextOrderedValue(String name);
 }
@@ -10,13 +10,17 @@
 
 package appeng.core.worlddata;
 
+import java.io.File;
+import java.io.IOException;
 import java.lang.ref.WeakReference;
 import java.util.Map;
 import java.util.WeakHashMap;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import javax.xml.bind.DatatypeConverter;
 
+import net.minecraftforge.common.config.ConfigCategory;
 import net.minecraftforge.common.config.Configuration;
 import net.minecraftforge.common.config.Property;
 
@@ -41,13 +45,19 @@ final class StorageData implements IWorldGridStorageData, IOnWorldStartable, IOn
 
     private final Map<GridStorageSearch, WeakReference<GridStorageSearch>> loadedStorage = new WeakHashMap<>(10);
     private final Configuration config;
+    private final File gridStorageFile;
 
+    // only open between world start and stop
+    @Nullable
+    private GridStorageFile gridStorage;
     private long lastGridStorage;
 
-    public StorageData(@Nonnull final Configuration settingsFile) {
+    public StorageData(@Nonnull final Configuration settingsFile, @Nonnull final File gridStorageFile) {
         Preconditions.checkNotNull(settingsFile);
+        Preconditions.checkNotNull(gridStorageFile);
 
         this.config = settingsFile;
+        this.gridStorageFile = gridStorageFile;
     }
 
     /**
@@ -63,8 +73,15 @@ final class StorageData implements IWorldGridStorageData, IOnWorldStartable, IOn
         final WeakReference<GridStorageSearch> result = this.loadedStorage.get(gss);
 
         if (result == null || result.get() == null) {
-            final String id = String.valueOf(storageID);
-            final String data = this.config.get("gridstorage", id, "").getString();
+            byte[] data = null;
+            try {
+                if (this.gridStorage != null) {
+                    data = this.gridStorage.read(storageID);
+                }
+            } catch (final IOException e) {
+                AELog.warn(e, "Failed to read grid storage " + storageID);
+            }
+
             final GridStorage thisStorage = new GridStorage(data, storageID, gss);
             gss.setGridStorage(new WeakReference<>(thisStorage));
             this.loadedStorage.put(gss, new WeakReference<>(gss));
@@ -99,8 +116,15 @@ final class StorageData implements IWorldGridStorageData, IOnWorldStartable, IOn
 
     @Override
     public void destroyGridStorage(final long id) {
-        final String stringID = String.valueOf(id);
-        this.config.getCategory("gridstorage").remove(stringID);
+        if (this.gridStorage == null) {
+            return;
+        }
+
+        try {
+            this.gridStorage.delete(id);
+        } catch (final IOException e) {
+            AELog.warn(e, "Failed to delete grid storage " + id);
+        }
     }
 
     @Override
@@ -123,19 +147,103 @@ final class StorageData implements IWorldGridStorageData, IOnWorldStartable, IOn
 
             this.lastGridStorage = 0;
         }
+
+        try {
+            this.gridStorage = new GridStorageFile(this.gridStorageFile);
+            this.migrateConfigStorage();
+        } catch (final IOException e) {
+            throw new IllegalStateException("Failed to open " + this.gridStorageFile.getAbsolutePath(), e);
+        }
     }
 
     @Override
-    public void onWorldStop() {
+    public void saveGridStorage() {
+        if (this.gridStorage == null) {
+            return;
+        }
+
+        // the storage counter has to be on disk before the grids using the new ids are
+        if (this.config.hasChanged()) {
+            this.config.save();
+        }
+
         // populate new data
+        boolean written = false;
         for (final GridStorageSearch gs : this.loadedStorage.keySet()) {
             final GridStorage thisStorage = gs.getGridStorage().get();
             if (thisStorage != null && thisStorage.getGrid() != null && !thisStorage.getGrid().isEmpty()) {
-                final String value = thisStorage.getValue();
-                this.config.get(GRID_STORAGE_CATEGORY, String.valueOf(thisStorage.getID()), value).set(value);
+                final byte[] value = thisStorage.getValueIfChanged();
+                if (value == null) {
+                    continue;
+                }
+
+                try {
+                    this.gridStorage.write(thisStorage.getID(), value);
+                    written = true;
+                } catch (final IOException e) {
+                    thisStorage.markDirty();
+                    AELog.warn(e, "Failed to save grid storage " + thisStorage.getID());
+                }
+            }
+        }
+
+        try {
+            if (written) {
+                this.gridStorage.sync();
             }
+        } catch (final IOException e) {
+            AELog.warn(e, "Failed to save grid storage");
+        }
+    }
+
+    @Override
+    public void onWorldStop() {
+        this.saveGridStorage();
+
+        if (this.gridStorage != null) {
+            try {
+                this.gridStorage.compactIfWasteful();
+                this.gridStorage.close();
+            } catch (final IOException e) {
+                AELog.warn(e, "Failed to close grid storage");
+            }
+            this.gridStorage = null;
         }
 
         this.config.save();
     }
+
+    /**
+     * Moves grid storage from the base64 entries older versions kept in the settings file to the grid storage file,
+     * the category is removed afterwards so this only happens once per world.
+     */
+    private void migrateConfigStorage() throws IOException {
+        if (!this.config.hasCategory(GRID_STORAGE_CATEGORY)) {
+            return;
+        }
+
+        final ConfigCategory category = this.config.getCategory(GRID_STORAGE_CATEGORY);
+        int migrated = 0;
+        for (final Map.Entry<String, Property> entry : category.entrySet()) {
+            final long id;
+            try {
+                id = Long.parseLong(entry.getKey());
+            } catch (final NumberFormatException err) {
+                AELog.warn("Skipping grid storage with an invalid id: %s", entry.getKey());
+                continue;
+            }
+
+            final byte[] data = DatatypeConverter.parseBase64Binary(entry.getValue().getString());
+            if (data.length > 0) {
+                this.gridStorage.write(id, data);
+                migrated++;
+            }
+        }
+
+        this.gridStorage.sync();
+        this.config.removeCategory(category);
+        this.config.save();
+
+        AELog.info("Migrated %d grid storages to %s", migrated, this.gridStorageFile.getName());
+    }
 }
@@ -4,12 +4,17 @@ import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.IdentityHashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
@@ -23,7 +28,6 @@ import net.minecraft.world.WorldServer;
 
 import com.google.common.collect.ClassToInstanceMap;
 import com.google.common.collect.ImmutableList;
-import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.MutableClassToInstanceMap;
 
 import appeng.api.AEApi;
@@ -42,10 +46,11 @@ import appeng.crafting.MECraftingInventory;
 import appeng.crafting.v2.resolvers.CraftingTask;
 import appeng.crafting.v2.resolvers.CraftingTask.State;
 import appeng.me.cache.CraftingGridCache;
+import appeng.me.cache.helpers.PatternAnalysisCache;
+import appeng.me.cache.helpers.PatternAnalysisCache.PatternSnapshot;
 import appeng.me.cluster.implementations.CraftingCPUCluster;
 import appeng.util.Platform;
 import appeng.util.item.AEItemStack;
-import appeng.util.item.OreListMultiMap;
 import cpw.mods.fml.common.FMLCommonHandler;
 import cpw.mods.fml.relauncher.Side;
 
@@ -104,12 +109,19 @@ public final class CraftingContext {
     private boolean doingWork = false;
     // State at the point when the last task executed.
     private CraftingTask.State finishedState = CraftingTask.State.FAILURE;
-    private final ImmutableMap<IAEItemStack, ImmutableList<ICraftingPatternDetails>> availablePatterns;
-    private final Map<IAEItemStack, List<ICraftingPatternDetails>> precisePatternCache = new HashMap<>();
-    private final Map<ICraftingPatternDetails, IAEItemStack> crafterIconCache = new HashMap<>();
-    private final OreListMultiMap<ICraftingPatternDetails> fuzzyPatternCache = new OreListMultiMap<>();
-    private final IdentityHashMap<ICraftingPatternDetails, Boolean> isPatternComplexCache = new IdentityHashMap<>();
+    /**
+     * Shared with the grid's other calculations, see {@link CraftingGridCache#getPatternAnalysis()}
+     */
+    private final PatternAnalysisCache patternAnalysis;
+    private final PatternSnapshot availablePatterns;
     private final ClassToInstanceMap<Object> userCaches = MutableClassToInstanceMap.create();
+    /**
+     * Calls a worker thread needs the server thread to make for it, null while calculating on the server thread.
+     */
+    private volatile BlockingQueue<Runnable> serverThreadCalls = null;
+
+    // how long the server thread waits for the worker to follow up on a call before going back to ticking
+    private static final long FOLLOW_UP_WAIT_MICROS = 200;
 
     public CraftingContext(@Nonnull World world, @Nonnull IGrid meGrid, @Nonnull BaseActionSource actionSource) {
         this.world = world;
@@ -120,7 +132,13 @@ public final class CraftingContext {
         this.itemModel = new MECraftingInventory(sg.getItemInventory(), this.actionSource, true, false, true);
         this.byproductsInventory = new MECraftingInventory();
         this.availableCache = new MECraftingInventory(sg.getItemInventory(), this.actionSource, false, false, false);
-        this.availablePatterns = craftingGrid.getCraftingPatterns();
+        if (craftingGrid instanceof CraftingGridCache cgc) {
+            this.patternAnalysis = cgc.getPatternAnalysis();
+            this.availablePatterns = cgc.getPatternSnapshot();
+        } else {
+            this.patternAnalysis = new PatternAnalysisCache();
+            this.availablePatterns = this.patternAnalysis.getSnapshot(craftingGrid::getCraftingPatterns);
+        }
     }
 
     /**
@@ -152,44 +170,37 @@ public final class CraftingContext {
     }
 
     public IAEItemStack getCrafterIconForPattern(@Nonnull ICraftingPatternDetails pattern) {
-        return crafterIconCache.computeIfAbsent(pattern, ignored -> {
+        final IAEItemStack cached = patternAnalysis.getCrafterIcon(pattern);
+        if (cached != null) {
+            return cached;
+        }
+        return onServerThread(() -> {
+            IAEItemStack icon = null;
             if (craftingGrid instanceof CraftingGridCache) {
                 final List<ICraftingMedium> mediums = ((CraftingGridCache) craftingGrid).getMediums(pattern);
                 for (ICraftingMedium medium : mediums) {
                     ItemStack stack = medium.getCrafterIcon();
                     if (stack != null) {
-                        return AEItemStack.create(stack);
+                        icon = AEItemStack.create(stack);
+                        break;
                     }
                 }
             }
-            return AEItemStack.create(AEApi.instance().definitions().blocks().iface().maybeStack(1).orNull());
+            if (icon == null) {
+                icon = AEItemStack.create(AEApi.instance().definitions().blocks().iface().maybeStack(1).orNull());
+            }
+            // stored on the server thread, so it can't outlive a change to the pattern's mediums
+            patternAnalysis.setCrafterIcon(pattern, icon);
+            return icon;
         });
     }
 
     public List<ICraftingPatternDetails> getPrecisePatternsFor(@Nonnull IAEItemStack stack) {
-        return precisePatternCache.compute(stack, (key, value) -> {
-            if (value == null) {
-                return availablePatterns.getOrDefault(stack, ImmutableList.of());
-            } else {
-                return value;
-            }
-        });
+        return availablePatterns.getPatterns().getOrDefault(stack, ImmutableList.of());
     }
 
     public List<ICraftingPatternDetails> getFuzzyPatternsFor(@Nonnull IAEItemStack stack) {
-        if (!fuzzyPatternCache.isPopulated()) {
-            for (final ImmutableList<ICraftingPatternDetails> patternSet : availablePatterns.values()) {
-                for (final ICraftingPatternDetails pattern : patternSet) {
-                    if (pattern.canBeSubstitute()) {
-                        for (final IAEItemStack output : pattern.getOutputs()) {
-                            fuzzyPatternCache.put(output.copy(), pattern);
-                        }
-                    }
-                }
-            }
-            fuzzyPatternCache.freeze();
-        }
-        return fuzzyPatternCache.get(stack);
+        return availablePatterns.getFuzzyPatternsFor(stack);
     }
 
     /**
@@ -200,17 +211,20 @@ public final class CraftingContext {
         if (!pattern.isCraftable()) {
             return false;
         }
-        final Boolean cached = isPatternComplexCache.get(pattern);
+        final Boolean cached = patternAnalysis.getComplexity(pattern);
         if (cached != null) {
             return cached;
         }
 
         final IAEItemStack[] inputs = pattern.getInputs();
-        final IAEItemStack[] mcOutputs = simulateComplexCrafting(inputs, pattern);
+        return onServerThread(() -> {
+            final IAEItemStack[] mcOutputs = simulateComplexCraftingOnServer(inputs, pattern);
 
-        final boolean isComplex = Arrays.stream(mcOutputs).anyMatch(Objects::nonNull);
-        isPatternComplexCache.put(pattern, isComplex);
-        return isComplex;
+            final boolean isComplex = Arrays.stream(mcOutputs).anyMatch(Objects::nonNull);
+            // stored on the server thread, so it can't outlive the pattern leaving the network
+            patternAnalysis.setComplexity(pattern, isComplex);
+            return isComplex;
+        });
     }
 
     /**
@@ -223,6 +237,12 @@ public final class CraftingContext {
         if (inputSlots.length > 9) {
             throw new IllegalArgumentException(inputSlots.length + " slots supplied to a simulated crafting task");
         }
+        // crafting events get a fake player and modded handlers expect the server thread
+        return onServerThread(() -> simulateComplexCraftingOnServer(inputSlots, pattern));
+    }
+
+    private IAEItemStack[] simulateComplexCraftingOnServer(IAEItemStack[] inputSlots,
+            ICraftingPatternDetails pattern) {
         final InventoryCrafting simulatedWorkbench = new InventoryCrafting(new ContainerNull(), 3, 3);
         for (int i = 0; i < inputSlots.length; i++) {
             simulatedWorkbench.setInventorySlotContents(i, inputSlots[i] == null ? null : inputSlots[i].getItemStack());
@@ -260,6 +280,70 @@ public final class CraftingContext {
         return output;
     }
 
+    /**
+     * Runs code that reads the live grid or world. Resolvers must use this for anything not covered by the item model
+     * and pattern snapshot taken when the context was created, as the calculation might run on a worker thread.
+     */
+    public <T> T onServerThread(@Nonnull Supplier<T> call) {
+        final BlockingQueue<Runnable> calls = this.serverThreadCalls;
+        if (calls == null) {
+            return call.get();
+        }
+
+        final FutureTask<T> task = new FutureTask<>(call::get);
+        calls.add(task);
+        while (true) {
+            try {
+                return task.get(50, TimeUnit.MILLISECONDS);
+            } catch (final TimeoutException e) {
+                if (this.serverThreadCalls != calls) {
+                    // the job was cancelled or its world unloaded, nobody is going to answer
+                    throw new CancellationException("Crafting calculation stopped");
+                }
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException("Crafting calculation interrupted");
+            } catch (final ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException re) {
+                    throw re;
+                }
+                throw new RuntimeException(e.getCause());
+            }
+        }
+    }
+
+    boolean isCalculatingOffThread() {
+        return this.serverThreadCalls != null;
+    }
+
+    void beginOffThreadWork() {
+        this.serverThreadCalls = new LinkedBlockingQueue<>();
+    }
+
+    void endOffThreadWork() {
+        this.serverThreadCalls = null;
+    }
+
+    /**
+     * Answers the calls queued by the worker until it stops asking or the time runs out, called on the server thread.
+     */
+    void runServerThreadCalls(final long finishTime) throws InterruptedException {
+        final BlockingQueue<Runnable> calls = this.serverThreadCalls;
+        if (calls == null) {
+            return;
+        }
+
+        Runnable call = calls.poll();
+        while (call != null) {
+            call.run();
+            if (System.currentTimeMillis() >= finishTime) {
+                return;
+            }
+            // the worker usually comes back right away, e.g. when simulating complex crafts one by one
+            call = calls.poll(FOLLOW_UP_WAIT_MICROS, TimeUnit.MICROSECONDS);
+        }
+    }
+
     /**
      * Does one unit of work towards solving the crafting problem.
      *
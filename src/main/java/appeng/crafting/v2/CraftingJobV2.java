@@ -3,6 +3,8 @@ package appeng.crafting.v2;
 import java.io.IOException;
 import java.util.List;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
@@ -11,6 +13,8 @@ import net.minecraft.world.World;
 
 import org.apache.logging.log4j.Level;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
 import appeng.api.config.CraftingMode;
 import appeng.api.networking.IGrid;
 import appeng.api.networking.crafting.ICraftingCPU;
@@ -19,6 +23,7 @@ import appeng.api.networking.crafting.ICraftingJob;
 import appeng.api.networking.security.BaseActionSource;
 import appeng.api.storage.data.IAEItemStack;
 import appeng.api.storage.data.IItemList;
+import appeng.core.AEConfig;
 import appeng.core.AELog;
 import appeng.crafting.MECraftingInventory;
 import appeng.crafting.v2.CraftingContext.RequestInProcessing;
@@ -53,7 +58,14 @@ public class CraftingJobV2 implements ICraftingJob, Future<ICraftingJob>, ITreeS
         CANCELLED
     }
 
-    protected State state = State.RUNNING;
+    protected volatile State state = State.RUNNING;
+
+    private static ExecutorService calculationWorkers;
+
+    // outcome of a calculation on a worker thread, published through workerFinished
+    private CraftingTask.State workerState;
+    private Throwable workerError;
+    private volatile boolean workerFinished = false;
 
     public CraftingJobV2(final World world, final IGrid meGrid, final BaseActionSource actionSource,
             final IAEItemStack what, final ICraftingCallback callback) {
@@ -202,6 +214,10 @@ public class CraftingJobV2 implements ICraftingJob, Future<ICraftingJob>, ITreeS
         }
         final long startTime = System.currentTimeMillis();
         final long finishTime = startTime + milli;
+        if (context.isCalculatingOffThread()) {
+            return this.serveWorker(finishTime);
+        }
+
         CraftingTask.State taskState = CraftingTask.State.NEEDS_MORE_WORK;
         try {
             do {
@@ -209,36 +225,100 @@ public class CraftingJobV2 implements ICraftingJob, Future<ICraftingJob>, ITreeS
                 totalByteCost = -1;
             } while (taskState.needsMoreWork && System.currentTimeMillis() < finishTime && (state == State.RUNNING));
         } catch (Exception e) {
-            AELog.error(e, "Error while simulating crafting for " + originalRequest);
-            errorMessage = e.toString();
-            this.state = State.CANCELLED;
-            if (callback != null) {
-                callback.calculationComplete(this);
-            }
+            this.fail(e);
             return false;
         }
 
         if (!taskState.needsMoreWork) {
-            getByteTotal();
-            this.state = State.FINISHED;
-            if (AELog.isCraftingDebugLogEnabled()) {
-                AELog.log(Level.INFO, "Crafting job for %s finished with resolved steps:", originalRequest.toString());
-                AELog.logSimple(Level.INFO, context.toString());
-            }
-            if (callback != null) {
-                callback.calculationComplete(this);
-            }
+            this.finish();
         }
 
         return taskState.needsMoreWork;
     }
 
+    /**
+     * Time-sliced part of a calculation running on a worker thread: answers what the worker needs from the server
+     * thread and completes the job once the worker is done.
+     */
+    private boolean serveWorker(final long finishTime) {
+        try {
+            context.runServerThreadCalls(finishTime);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return true;
+        }
+
+        if (!this.workerFinished) {
+            return true;
+        }
+
+        context.endOffThreadWork();
+        if (this.workerError != null) {
+            this.fail(this.workerError);
+        } else if (this.workerState.needsMoreWork) {
+            // the worker stopped because the job got cancelled
+            return false;
+        } else {
+            this.finish();
+        }
+        return false;
+    }
+
+    private void calculateOnWorker() {
+        try {
+            CraftingTask.State taskState;
+            do {
+                taskState = context.doWork();
+                totalByteCost = -1;
+            } while (taskState.needsMoreWork && state == State.RUNNING);
+            this.workerState = taskState;
+        } catch (Throwable e) {
+            this.workerError = e;
+        }
+        this.workerFinished = true;
+    }
+
+    private void fail(Throwable e) {
+        AELog.error(e, "Error while simulating crafting for " + originalRequest);
+        errorMessage = e.toString();
+        this.state = State.CANCELLED;
+        if (callback != null) {
+            callback.calculationComplete(this);
+        }
+    }
+
+    private void finish() {
+        getByteTotal();
+        this.state = State.FINISHED;
+        if (AELog.isCraftingDebugLogEnabled()) {
+            AELog.log(Level.INFO, "Crafting job for %s finished with resolved steps:", originalRequest.toString());
+            AELog.logSimple(Level.INFO, context.toString());
+        }
+        if (callback != null) {
+            callback.calculationComplete(this);
+        }
+    }
+
     @Override
     public Future<ICraftingJob> schedule() {
+        if (AEConfig.instance.craftingCalculationThreads > 0) {
+            // the job stays registered to hand the worker what it needs from the server thread and to finish up
+            context.beginOffThreadWork();
+            getCalculationWorkers().execute(this::calculateOnWorker);
+        }
         TickHandler.INSTANCE.registerCraftingSimulation(this.context.world, this);
         return this;
     }
 
+    private static synchronized ExecutorService getCalculationWorkers() {
+        if (calculationWorkers == null) {
+            calculationWorkers = Executors.newFixedThreadPool(
+                    AEConfig.instance.craftingCalculationThreads,
+                    new ThreadFactoryBuilder().setNameFormat("AE2 Crafting Calculation %d").setDaemon(true).build());
+        }
+        return calculationWorkers;
+    }
+
     @Override
     public boolean supportsCPUCluster(ICraftingCPU cluster) {
         return cluster instanceof CraftingCPUCluster;
@@ -264,6 +344,9 @@ public class CraftingJobV2 implements ICraftingJob, Future<ICraftingJob>, ITreeS
             return false;
         } else {
             this.state = State.CANCELLED;
+            if (context != null) {
+                context.endOffThreadWork();
+            }
             return true;
         }
     }
@@ -8,6 +8,7 @@ import java.nio.ByteOrder;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -34,6 +35,10 @@ import io.netty.buffer.Unpooled;
 /**
  * Walks down the tree of resolved crafting operations and (de)serializes them into a flat ByteBuf for network
  * transmission.
+ * <p>
+ * Big trees mention the same few stacks and patterns over and over, so each one is written in full only the first time
+ * and referred to by its varint index in the order of first appearance afterwards. The reader rebuilds the same tables
+ * as it goes, which works because both sides walk the tree in the same order.
  */
 public final class CraftingTreeSerializer {
 
@@ -45,6 +50,12 @@ public final class CraftingTreeSerializer {
 
     private ArrayList<JobFn> workStack = new ArrayList<>(32);
 
+    private final Map<IAEStack<?>, Integer> writtenStacks = new HashMap<>();
+    private final List<IAEStack<?>> readStacks = new ArrayList<>();
+    private final Map<ICraftingPatternDetails, Integer> writtenPatterns = new IdentityHashMap<>();
+    private final List<ICraftingPatternDetails> readPatterns = new ArrayList<>();
+    private int stackReferences = 0;
+
     /**
      * Registers a serializable type for the crafting tree.
      * 
@@ -181,54 +192,145 @@ public final class CraftingTreeSerializer {
         return type.getEnumConstants()[ordinal];
     }
 
-    private final byte ST_NULL = 0;
-    private final byte ST_ITEM = 1;
-    private final byte ST_FLUID = 2;
+    // stacks seen before are written as their table index + ST_FIRST_INDEX
+    private static final int ST_NULL = 0;
+    private static final int ST_ITEM = 1;
+    private static final int ST_FLUID = 2;
+    private static final int ST_FIRST_INDEX = 3;
 
     public void writeStack(IAEStack<?> stack) throws IOException {
         if (stack == null) {
-            buffer.writeByte(ST_NULL);
-        } else if (stack instanceof AEItemStack) {
-            buffer.writeByte(ST_ITEM);
+            ByteBufUtils.writeVarInt(buffer, ST_NULL, 5);
+            return;
+        }
+        stackReferences++;
+        final Integer index = writtenStacks.get(stack);
+        if (index != null) {
+            ByteBufUtils.writeVarInt(buffer, ST_FIRST_INDEX + index, 5);
+            writeVarLong(stack.getStackSize());
+            writeVarLong(stack.getCountRequestable());
+            writeVarLong(stack.getCountRequestableCrafts());
+            writeVarLong((long) (stack.getUsedPercent() * 10000));
+            buffer.writeBoolean(stack.isCraftable());
+            return;
+        }
+        if (stack instanceof AEItemStack) {
+            ByteBufUtils.writeVarInt(buffer, ST_ITEM, 5);
         } else if (stack instanceof AEFluidStack) {
-            buffer.writeByte(ST_FLUID);
+            ByteBufUtils.writeVarInt(buffer, ST_FLUID, 5);
         } else {
             throw new UnsupportedOperationException("Can't serialize a stack of type " + stack.getClass());
         }
         stack.writeToPacket(buffer);
+        writtenStacks.put(stack.copy(), writtenStacks.size());
     }
 
     public IAEStack<?> readStack() throws IOException {
-        final byte stackType = buffer.readByte();
-        return switch (stackType) {
-            case ST_NULL -> null;
-            case ST_ITEM -> AEItemStack.loadItemStackFromPacket(buffer);
-            case ST_FLUID -> AEFluidStack.loadFluidStackFromPacket(buffer);
-            default -> throw new UnsupportedOperationException("Unknown stack type " + stackType);
-        };
+        final int stackType = ByteBufUtils.readVarInt(buffer, 5);
+        final IAEStack<?> stack;
+        switch (stackType) {
+            case ST_NULL -> {
+                return null;
+            }
+            case ST_ITEM -> stack = AEItemStack.loadItemStackFromPacket(buffer);
+            case ST_FLUID -> stack = AEFluidStack.loadFluidStackFromPacket(buffer);
+            default -> {
+                final int index = stackType - ST_FIRST_INDEX;
+                if (index >= readStacks.size()) {
+                    throw new UnsupportedOperationException("Unknown stack type " + stackType);
+                }
+                stack = readStacks.get(index).copy();
+                stack.setStackSize(readVarLong());
+                stack.setCountRequestable(readVarLong());
+                stack.setCountRequestableCrafts(readVarLong());
+                stack.setUsedPercent(readVarLong() / 10000f);
+                stack.setCraftable(buffer.readBoolean());
+                return stack;
+            }
+        }
+        if (stack == null) {
+            throw new IOException("Could not load a stack of type " + stackType);
+        }
+        readStacks.add(stack.copy());
+        return stack;
     }
 
     public void writeItemStack(IAEItemStack stack) throws IOException {
-        stack.writeToPacket(buffer);
+        writeStack(stack);
     }
 
     public IAEItemStack readItemStack() throws IOException {
-        return AEItemStack.loadItemStackFromPacket(buffer);
+        final IAEStack<?> stack = readStack();
+        if (stack != null && !(stack instanceof IAEItemStack)) {
+            throw new UnsupportedOperationException("Expected an item stack, got " + stack);
+        }
+        return (IAEItemStack) stack;
     }
 
     public void writePattern(ICraftingPatternDetails pattern) throws IOException {
+        final Integer index = writtenPatterns.get(pattern);
+        if (index != null) {
+            ByteBufUtils.writeVarInt(buffer, index + 1, 5);
+            return;
+        }
+        ByteBufUtils.writeVarInt(buffer, 0, 5);
         writeItemStack(AEItemStack.create(pattern.getPattern()));
+        writtenPatterns.put(pattern, writtenPatterns.size());
     }
 
     @SuppressWarnings("unchecked")
     public ICraftingPatternDetails readPattern() throws IOException {
+        final int index = ByteBufUtils.readVarInt(buffer, 5);
+        if (index > 0) {
+            if (index > readPatterns.size()) {
+                throw new UnsupportedOperationException("Unknown pattern index " + index);
+            }
+            return readPatterns.get(index - 1);
+        }
         IAEItemStack stack = readItemStack();
         if (stack != null && stack.getItem() instanceof ICraftingPatternItem) {
-            return ((ICraftingPatternItem) stack.getItem()).getPatternForItem(stack.getItemStack(), world);
+            final ICraftingPatternDetails pattern = ((ICraftingPatternItem) stack.getItem())
+                    .getPatternForItem(stack.getItemStack(), world);
+            readPatterns.add(pattern);
+            return pattern;
         }
         throw new UnsupportedOperationException("Illegal pattern type " + stack);
     }
 
+    private void writeVarLong(long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer.writeByte((int) value);
+    }
+
+    private long readVarLong() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            final byte b = buffer.readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("VarLong too long");
+    }
+
+    /**
+     * @return how many stacks were written in full, the rest of the references were written as table indices
+     */
+    public int getStackTableSize() {
+        return reading ? readStacks.size() : writtenStacks.size();
+    }
+
+    /**
+     * @return how many non-null stacks were written, including the ones written in full
+     */
+    public int getStackReferenceCount() {
+        return stackReferences;
+    }
+
     @FunctionalInterface
     public interface JobFn {
 
@@ -77,6 +77,30 @@ public class CraftableItemResolver implements CraftingRequestResolver<IAEItemSta
         }
     }
 
+    /**
+     * A run of identical crafts of a complex pattern: the same items in every slot, with the container items left in
+     * the grid coming back unchanged. A craft whose leftovers differ from what was put in (a damaged tool, an emptied
+     * bucket) is a batch of its own, as the next craft has to use whatever it left behind.
+     */
+    protected static final class ComplexCraftBatch {
+
+        // Index of the first of this batch's requests in CraftFromPatternTask.childRequests
+        final int firstRequest;
+        // The crafting grid slots, as resolved for one craft
+        final IAEItemStack[] inputs = new IAEItemStack[9];
+        // What one craft leaves in the crafting grid, requested and returned once for the whole batch if repeated
+        final IAEItemStack[] leftovers = new IAEItemStack[9];
+        // Per slot requests of a single craft whose inputs aren't known yet, null once resolved
+        CraftingRequest<IAEItemStack>[] slotRequests;
+        long crafts;
+        boolean repeatable = false;
+
+        ComplexCraftBatch(int firstRequest, long crafts) {
+            this.firstRequest = firstRequest;
+            this.crafts = crafts;
+        }
+    }
+
     public static class CraftFromPatternTask extends CraftingTask<IAEItemStack> {
 
         public final ICraftingPatternDetails pattern;
@@ -91,7 +115,9 @@ public class CraftableItemResolver implements CraftingRequestResolver<IAEItemSta
         protected final IAEItemStack matchingOutput;
         public IAEItemStack craftingMachine;
         protected final ArrayList<RequestAndPerCraftAmount> childRequests = new ArrayList<>();
-        protected final ArrayList<CraftingRequest> complexRequestPerSlot = new ArrayList<>();
+        // Crafts of a complex pattern done so far, in order, their requests are consecutive in childRequests
+        protected final ArrayList<ComplexCraftBatch> complexBatches = new ArrayList<>();
+        protected ComplexCraftBatch pendingComplexBatch = null;
         protected final Map<IAEItemStack, CraftingRequest<IAEItemStack>> childRecursionRequests = new HashMap<>();
         // byproduct injected -> amount per craft
         protected final IdentityHashMap<IAEItemStack, Long> byproducts = new IdentityHashMap<>();
@@ -305,11 +331,13 @@ public class CraftableItemResolver implements CraftingRequestResolver<IAEItemSta
                 state = State.SUCCESS;
                 return new StepOutput(Collections.emptyList());
             }
+            if (isComplex) {
+                return calculateComplexStep(context);
+            }
             final boolean canUseSubstitutes = pattern.canSubstitute();
             final SubstitutionMode childMode = canUseSubstitutes ? SubstitutionMode.ACCEPT_FUZZY
                     : SubstitutionMode.PRECISE;
-            final long toCraft = Platform
-                    .ceilDiv(isComplex ? 1 : request.remainingToProcess, matchingOutput.getStackSize());
+            final long toCraft = Platform.ceilDiv(request.remainingToProcess, matchingOutput.getStackSize());
 
             if (requestedInputs) {
                 // Calculate how many full recipes we could fulfill
@@ -342,30 +370,6 @@ public class CraftableItemResolver implements CraftingRequestResolver<IAEItemSta
                             Actionable.MODULATE,
                             context.actionSource);
                 }
-                // Add byproducts of complex recipes
-                if (isComplex && fulfilledAmount > 0) {
-                    if (maxCraftable > 1) {
-                        throw new IllegalStateException(
-                                "Complex recipe got calculated with more than 1 set of inputs at a time");
-                    }
-                    final IAEItemStack[] inputs = new IAEItemStack[9];
-                    for (int slot = 0; slot < complexRequestPerSlot.size(); slot++) {
-                        final CraftingRequest<IAEItemStack> slotRequest = complexRequestPerSlot.get(slot);
-                        if (slotRequest != null) {
-                            final IAEItemStack resolvedItem = (IAEItemStack) slotRequest.getOneResolvedType();
-                            inputs[slot] = resolvedItem.copy();
-                        }
-                    }
-                    final IAEItemStack[] leftovers = context.simulateComplexCrafting(inputs, pattern);
-
-                    for (IAEItemStack leftover : leftovers) {
-                        if (leftover == null || leftover.getStackSize() <= 0) {
-                            continue;
-                        }
-                        context.byproductsInventory.injectItems(leftover, Actionable.MODULATE, context.actionSource);
-                        this.byproducts.put(leftover.copy(), leftover.getStackSize());
-                    }
-                }
                 for (IAEItemStack output : patternOutputs) {
                     // add byproducts to the system
                     if (output != matchingOutput) {
@@ -415,75 +419,278 @@ public class CraftableItemResolver implements CraftingRequestResolver<IAEItemSta
                 request.patternParents.add(this.pattern);
                 ArrayList<CraftingRequest<IAEItemStack>> newChildren = new ArrayList<>(
                         patternRecursionInputs.length + patternInputs.length);
-                if (isComplex) {
-                    if (toCraft > 1) {
-                        throw new IllegalStateException();
-                    }
-                    final IAEItemStack[] slotInputs = pattern.getInputs();
-                    for (int slot = 0; slot < slotInputs.length; slot++) {
-                        final IAEItemStack input = slotInputs[slot];
-                        if (input == null) {
-                            complexRequestPerSlot.add(null);
-                            continue;
-                        }
-                        final long amount = Math.multiplyExact(input.getStackSize(), toCraft);
-                        final int finalSlot = slot; // for lambda capture
+                if (patternRecursionInputs.length > 0) {
+                    for (IAEItemStack recInput : patternRecursionInputs) {
                         CraftingRequest<IAEItemStack> req = new CraftingRequest<>(
-                                input.copy().setStackSize(amount),
+                                recInput.copy(),
                                 childMode,
                                 IAEItemStack.class,
                                 allowSimulation,
                                 request.craftingMode,
-                                stack -> this.isValidSubstitute(input, stack, context.world, finalSlot));
-                        complexRequestPerSlot.add(req);
+                                stack -> this.isValidSubstitute(recInput, stack, context.world));
                         newChildren.add(req);
-                        childRequests.add(new RequestAndPerCraftAmount(req, input.getStackSize()));
-                    }
-                    // Try to fulfill container items (like GT tools) last to prevent them being frozen while other
-                    // ingredients are resolved
-                    newChildren.sort(
-                            Comparator
-                                    .<CraftingRequest<IAEItemStack>>comparingInt(
-                                            r -> r.stack.getItem().hasContainerItem(r.stack.getItemStack()) ? 1 : 0)
-                                    .thenComparingInt(
-                                            r -> r.stack.getItem().getItemStackLimit(r.stack.getItemStack()) == 1 ? 1
-                                                    : 0));
-                } else {
-                    if (patternRecursionInputs.length > 0) {
-                        for (IAEItemStack recInput : patternRecursionInputs) {
-                            CraftingRequest<IAEItemStack> req = new CraftingRequest<>(
-                                    recInput.copy(),
-                                    childMode,
-                                    IAEItemStack.class,
-                                    allowSimulation,
-                                    request.craftingMode,
-                                    stack -> this.isValidSubstitute(recInput, stack, context.world));
-                            newChildren.add(req);
-                            childRecursionRequests.put(recInput, req);
-                        }
-                        state = State.NEEDS_MORE_WORK;
-                    }
-                    for (IAEItemStack input : patternInputs) {
-                        final long amount = Math.multiplyExact(input.getStackSize(), toCraft);
-                        CraftingRequest<IAEItemStack> req = new CraftingRequest<>(
-                                input.copy().setStackSize(amount),
-                                childMode,
-                                IAEItemStack.class,
-                                allowSimulation,
-                                request.craftingMode,
-                                stack -> this.isValidSubstitute(input, stack, context.world));
-                        newChildren.add(req);
-                        childRequests.add(new RequestAndPerCraftAmount(req, input.getStackSize()));
+                        childRecursionRequests.put(recInput, req);
                     }
+                    state = State.NEEDS_MORE_WORK;
+                }
+                for (IAEItemStack input : patternInputs) {
+                    final long amount = Math.multiplyExact(input.getStackSize(), toCraft);
+                    CraftingRequest<IAEItemStack> req = new CraftingRequest<>(
+                            input.copy().setStackSize(amount),
+                            childMode,
+                            IAEItemStack.class,
+                            allowSimulation,
+                            request.craftingMode,
+                            stack -> this.isValidSubstitute(input, stack, context.world));
+                    newChildren.add(req);
+                    childRequests.add(new RequestAndPerCraftAmount(req, input.getStackSize()));
                 }
                 childRequests.trimToSize();
-                complexRequestPerSlot.trimToSize();
                 requestedInputs = true;
                 state = State.NEEDS_MORE_WORK;
                 return new StepOutput(Collections.unmodifiableList(newChildren));
             }
         }
 
+        /**
+         * Complex patterns are simulated one craft at a time, but once a craft turns out to give back its container
+         * items unchanged, all the remaining crafts are requested at once with exactly the same inputs.
+         */
+        protected StepOutput calculateComplexStep(CraftingContext context) {
+            if (requestedInputs) {
+                final boolean wasRepeat = pendingComplexBatch.slotRequests == null;
+                final long crafted = finishComplexBatch(context);
+                if (crafted == 0 && wasRepeat) {
+                    // The exact inputs ran out, let a single craft look for substitutes
+                    complexBatches.get(complexBatches.size() - 1).repeatable = false;
+                } else if (crafted == 0 || request.remainingToProcess <= 0) {
+                    // Determine an icon for the crafting plan
+                    this.craftingMachine = context.getCrafterIconForPattern(this.pattern);
+                    state = State.SUCCESS;
+                    return new StepOutput(Collections.emptyList());
+                }
+            } else {
+                request.patternParents.add(this.pattern);
+                requestedInputs = true;
+            }
+            state = State.NEEDS_MORE_WORK;
+            return new StepOutput(Collections.unmodifiableList(startComplexBatch(context)));
+        }
+
+        private List<CraftingRequest<IAEItemStack>> startComplexBatch(CraftingContext context) {
+            final ComplexCraftBatch last = complexBatches.isEmpty() ? null
+                    : complexBatches.get(complexBatches.size() - 1);
+            final ArrayList<CraftingRequest<IAEItemStack>> newChildren = new ArrayList<>(9);
+            if (last != null && last.repeatable) {
+                final long crafts = Platform.ceilDiv(request.remainingToProcess, matchingOutput.getStackSize());
+                final ComplexCraftBatch batch = new ComplexCraftBatch(childRequests.size(), crafts);
+                for (int slot = 0; slot < last.inputs.length; slot++) {
+                    final IAEItemStack input = last.inputs[slot];
+                    if (input == null) {
+                        continue;
+                    }
+                    batch.inputs[slot] = input;
+                    batch.leftovers[slot] = last.leftovers[slot];
+                    // Container items are put back after every craft, so one is enough for the whole batch
+                    final boolean reused = last.leftovers[slot] != null;
+                    final long amount = reused ? input.getStackSize()
+                            : Math.multiplyExact(input.getStackSize(), crafts);
+                    CraftingRequest<IAEItemStack> req = new CraftingRequest<>(
+                            input.copy().setStackSize(amount),
+                            SubstitutionMode.PRECISE,
+                            IAEItemStack.class,
+                            allowSimulation,
+                            request.craftingMode);
+                    newChildren.add(req);
+                    childRequests.add(new RequestAndPerCraftAmount(req, reused ? 0 : input.getStackSize()));
+                }
+                pendingComplexBatch = batch;
+            } else {
+                final SubstitutionMode childMode = pattern.canSubstitute() ? SubstitutionMode.ACCEPT_FUZZY
+                        : SubstitutionMode.PRECISE;
+                final ComplexCraftBatch batch = new ComplexCraftBatch(childRequests.size(), 1);
+                final IAEItemStack[] slotInputs = pattern.getInputs();
+                batch.slotRequests = new CraftingRequest[slotInputs.length];
+                for (int slot = 0; slot < slotInputs.length; slot++) {
+                    final IAEItemStack input = slotInputs[slot];
+                    if (input == null) {
+                        continue;
+                    }
+                    final int finalSlot = slot; // for lambda capture
+                    CraftingRequest<IAEItemStack> req = new CraftingRequest<>(
+                            input.copy(),
+                            childMode,
+                            IAEItemStack.class,
+                            allowSimulation,
+                            request.craftingMode,
+                            stack -> this.isValidSubstitute(input, stack, context.world, finalSlot));
+                    batch.slotRequests[slot] = req;
+                    newChildren.add(req);
+                    childRequests.add(new RequestAndPerCraftAmount(req, input.getStackSize()));
+                }
+                pendingComplexBatch = batch;
+            }
+            // Try to fulfill container items (like GT tools) last to prevent them being frozen while other
+            // ingredients are resolved
+            newChildren.sort(
+                    Comparator
+                            .<CraftingRequest<IAEItemStack>>comparingInt(
+                                    r -> r.stack.getItem().hasContainerItem(r.stack.getItemStack()) ? 1 : 0)
+                            .thenComparingInt(
+                                    r -> r.stack.getItem().getItemStackLimit(r.stack.getItemStack()) == 1 ? 1 : 0));
+            return newChildren;
+        }
+
+        /**
+         * @return How many crafts of the pending batch could be done
+         */
+        private long finishComplexBatch(CraftingContext context) {
+            final ComplexCraftBatch batch = pendingComplexBatch;
+            pendingComplexBatch = null;
+            final List<RequestAndPerCraftAmount> batchRequests = childRequests
+                    .subList(batch.firstRequest, childRequests.size());
+
+            long crafts = batch.crafts;
+            for (RequestAndPerCraftAmount inputChildPair : batchRequests) {
+                final CraftingRequest<IAEItemStack> inputChild = inputChildPair.request;
+                if (inputChildPair.perCraftAmount == 0) {
+                    if (inputChild.remainingToProcess > 0) {
+                        crafts = 0;
+                    }
+                } else {
+                    final long available = inputChild.stack.getStackSize() - inputChild.remainingToProcess;
+                    crafts = Math.min(crafts, available / inputChildPair.perCraftAmount);
+                }
+            }
+            if (crafts == 0) {
+                batchRequests.forEach(req -> req.request.fullRefund(context));
+                batchRequests.clear();
+                return 0;
+            }
+            if (crafts != batch.crafts) {
+                // Need to refund some items as not everything could be crafted.
+                for (RequestAndPerCraftAmount inputChildPair : batchRequests) {
+                    final CraftingRequest<IAEItemStack> inputChild = inputChildPair.request;
+                    final long actuallyNeeded = Math.multiplyExact(inputChildPair.perCraftAmount, crafts);
+                    final long produced = inputChild.stack.getStackSize() - Math.max(inputChild.remainingToProcess, 0);
+                    if (inputChildPair.perCraftAmount > 0 && produced > actuallyNeeded) {
+                        inputChild.partialRefund(context, produced - actuallyNeeded);
+                    }
+                }
+                batch.crafts = crafts;
+            }
+
+            if (batch.slotRequests != null) {
+                for (int slot = 0; slot < batch.slotRequests.length; slot++) {
+                    final CraftingRequest<IAEItemStack> slotRequest = batch.slotRequests[slot];
+                    if (slotRequest != null) {
+                        batch.inputs[slot] = (IAEItemStack) slotRequest.getOneResolvedType();
+                    }
+                }
+                batch.slotRequests = null;
+                final IAEItemStack[] leftovers = context.simulateComplexCrafting(batch.inputs, pattern);
+                boolean repeatable = true;
+                for (int slot = 0; slot < leftovers.length; slot++) {
+                    final IAEItemStack leftover = leftovers[slot];
+                    if (leftover == null || leftover.getStackSize() <= 0) {
+                        continue;
+                    }
+                    batch.leftovers[slot] = leftover;
+                    final IAEItemStack input = batch.inputs[slot];
+                    if (input == null || !input.isSameType(leftover)
+                            || input.getStackSize() != leftover.getStackSize()) {
+                        repeatable = false;
+                    }
+                }
+                batch.repeatable = repeatable;
+            }
+            for (IAEItemStack leftover : batch.leftovers) {
+                if (leftover != null) {
+                    context.byproductsInventory.injectItems(leftover.copy(), Actionable.MODULATE, context.actionSource);
+                }
+            }
+            for (IAEItemStack output : patternOutputs) {
+                // add byproducts to the system
+                if (output != matchingOutput) {
+                    context.byproductsInventory.injectItems(
+                            output.copy().setStackSize(Math.multiplyExact(crafts, output.getStackSize())),
+                            Actionable.MODULATE,
+                            context.actionSource);
+                }
+            }
+
+            final long producedMatchingOutput = Math.multiplyExact(crafts, matchingOutput.getStackSize());
+            final long remainder = (producedMatchingOutput > this.request.remainingToProcess)
+                    ? (producedMatchingOutput - this.request.remainingToProcess)
+                    : 0;
+            request.fulfill(this, matchingOutput.copy().setStackSize(producedMatchingOutput - remainder), context);
+            if (remainder > 0) {
+                context.byproductsInventory.injectItems(
+                        matchingOutput.copy().setStackSize(remainder),
+                        Actionable.MODULATE,
+                        context.actionSource);
+            }
+            this.matchingOutputRemainderItems += remainder;
+            this.fulfilledAmount += producedMatchingOutput - remainder;
+            this.totalCraftsDone += crafts;
+            for (RequestAndPerCraftAmount inputChildPair : batchRequests) {
+                if (inputChildPair.request.wasSimulated) {
+                    this.request.wasSimulated = true;
+                    break;
+                }
+            }
+            complexBatches.add(batch);
+            return crafts;
+        }
+
+        /**
+         * Takes back the last {@code crafts} crafts of a complex pattern, latest batches first.
+         */
+        private void refundComplexCrafts(CraftingContext context, long crafts) {
+            for (int i = complexBatches.size() - 1; i >= 0 && crafts > 0; i--) {
+                final ComplexCraftBatch batch = complexBatches.get(i);
+                final List<RequestAndPerCraftAmount> batchRequests = childRequests
+                        .subList(batch.firstRequest, childRequests.size());
+                if (crafts >= batch.crafts) {
+                    crafts -= batch.crafts;
+                    extractComplexByproducts(context, batch, batch.crafts, true);
+                    batchRequests.forEach(req -> req.request.fullRefund(context));
+                    batchRequests.clear();
+                    complexBatches.remove(i);
+                } else {
+                    extractComplexByproducts(context, batch, crafts, false);
+                    for (RequestAndPerCraftAmount subrequest : batchRequests) {
+                        // container items are still needed by the crafts left in the batch
+                        if (subrequest.perCraftAmount > 0) {
+                            subrequest.request.partialRefund(context, subrequest.perCraftAmount * crafts);
+                        }
+                    }
+                    batch.crafts -= crafts;
+                    crafts = 0;
+                }
+            }
+        }
+
+        private void extractComplexByproducts(CraftingContext context, ComplexCraftBatch batch, long crafts,
+                boolean withLeftovers) {
+            if (withLeftovers) {
+                for (IAEItemStack leftover : batch.leftovers) {
+                    if (leftover != null) {
+                        context.byproductsInventory
+                                .extractItems(leftover.copy(), Actionable.MODULATE, context.actionSource);
+                    }
+                }
+            }
+            for (IAEItemStack output : patternOutputs) {
+                if (output != matchingOutput) {
+                    context.byproductsInventory.extractItems(
+                            output.copy().setStackSize(crafts * output.getStackSize()),
+                            Actionable.MODULATE,
+                            context.actionSource);
+                }
+            }
+        }
+
         @Override
         public long partialRefund(CraftingContext context, long amount) {
             final long oldTotalCrafts = this.totalCraftsDone;
@@ -522,8 +729,12 @@ public class CraftableItemResolver implements CraftingRequestResolver<IAEItemSta
                 }
                 this.totalCraftsDone = newTotalCrafts;
                 final long craftsRefunded = oldTotalCrafts - newTotalCrafts;
-                for (RequestAndPerCraftAmount subrequest : childRequests) {
-                    subrequest.request.partialRefund(context, subrequest.perCraftAmount * craftsRefunded);
+                if (isComplex) {
+                    refundComplexCrafts(context, craftsRefunded);
+                } else {
+                    for (RequestAndPerCraftAmount subrequest : childRequests) {
+                        subrequest.request.partialRefund(context, subrequest.perCraftAmount * craftsRefunded);
+                    }
                 }
                 for (Entry<IAEItemStack, Long> entry : byproducts.entrySet()) {
                     final IAEItemStack byproductStack = entry.getKey();
@@ -544,6 +755,11 @@ public class CraftableItemResolver implements CraftingRequestResolver<IAEItemSta
             request.patternParents.remove(this.pattern);
             totalCraftsDone = 0;
             fulfilledAmount = 0;
+            for (ComplexCraftBatch batch : complexBatches) {
+                extractComplexByproducts(context, batch, batch.crafts, true);
+            }
+            complexBatches.clear();
+            pendingComplexBatch = null;
             childRequests.forEach(req -> req.request.fullRefund(context));
             childRequests.clear();
             childRecursionRequests.values().forEach(req -> req.fullRefund(context));
@@ -657,52 +873,33 @@ public class CraftableItemResolver implements CraftingRequestResolver<IAEItemSta
 
         tasks.ensureCapacity(patterns.size() + 1);
         for (ICraftingPatternDetails pattern : patterns) {
-            if (context.isPatternComplex(pattern)) {
+            final boolean isComplex = context.isPatternComplex(pattern);
+            if (isComplex) {
                 logComplexPattrn(pattern, request.remainingToProcess);
-                for (int i = 0; i < request.remainingToProcess; i++) {
-                    CraftFromPatternTask task = new CraftFromPatternTask(
-                            request,
-                            pattern,
-                            priority,
-                            request.craftingMode == CraftingMode.IGNORE_MISSING,
-                            true);
-                    if (task.getState() != State.FAILURE) {
-                        tasks.add(task);
-                    }
-                }
-            } else {
-                CraftFromPatternTask task = new CraftFromPatternTask(
-                        request,
-                        pattern,
-                        priority,
-                        request.craftingMode == CraftingMode.IGNORE_MISSING,
-                        false);
-                if (task.getState() != State.FAILURE) {
-                    tasks.add(task);
-                }
+            }
+            CraftFromPatternTask task = new CraftFromPatternTask(
+                    request,
+                    pattern,
+                    priority,
+                    request.craftingMode == CraftingMode.IGNORE_MISSING,
+                    isComplex);
+            if (task.getState() != State.FAILURE) {
+                tasks.add(task);
             }
             priority--;
         }
         // Fallback: use highest priority pattern to simulate if nothing else works
         if (!patterns.isEmpty()) {
             ICraftingPatternDetails pattern = patterns.get(0);
-            if (context.isPatternComplex(pattern)) {
-                for (int i = 0; i < request.remainingToProcess; i++) {
-                    CraftFromPatternTask task = new CraftFromPatternTask(request, pattern, priority, true, true);
-                    if (task.getState() != State.FAILURE) {
-                        tasks.add(task);
-                    }
-                }
-            } else {
-                CraftFromPatternTask task = new CraftFromPatternTask(
-                        request,
-                        pattern,
-                        CraftingTask.PRIORITY_SIMULATE_CRAFT,
-                        true,
-                        false);
-                if (task.getState() != State.FAILURE) {
-                    tasks.add(task);
-                }
+            final boolean isComplex = context.isPatternComplex(pattern);
+            CraftFromPatternTask task = new CraftFromPatternTask(
+                    request,
+                    pattern,
+                    isComplex ? priority : CraftingTask.PRIORITY_SIMULATE_CRAFT,
+                    true,
+                    isComplex);
+            if (task.getState() != State.FAILURE) {
+                tasks.add(task);
             }
         }
 
@@ -17,6 +17,7 @@ import java.util.LinkedList;
 import java.util.Queue;
 import java.util.WeakHashMap;
 import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingDeque;
 import java.util.concurrent.TimeUnit;
 
@@ -38,6 +39,7 @@ import appeng.core.AEConfig;
 import appeng.core.AELog;
 import appeng.core.CommonHelper;
 import appeng.core.sync.packets.PacketPaintedEntity;
+import appeng.core.worlddata.WorldData;
 import appeng.entity.EntityFloatingItem;
 import appeng.me.Grid;
 import appeng.me.NetworkList;
@@ -138,6 +140,22 @@ public class TickHandler {
             for (final IGridNode n : toDestroy) {
                 n.destroy();
             }
+
+            synchronized (this.craftingJobs) {
+                for (final ICraftingJob job : this.craftingJobs.removeAll(ev.world)) {
+                    if (job instanceof Future<?> future) {
+                        future.cancel(true);
+                    }
+                }
+            }
+        }
+    }
+
+    @SubscribeEvent
+    public void saveWorld(final WorldEvent.Save ev) {
+        // grids are not bound to a dimension, save them together with the overworld
+        if (Platform.isServer() && ev.world.provider.dimensionId == 0 && WorldData.instance() != null) {
+            WorldData.instance().storageData().saveGridStorage();
         }
     }
 
@@ -40,10 +40,7 @@ public class Grid implements IGrid {
     private GridNode pivot;
     private int priority; // how import is this network?
     private GridStorage myStorage;
-    private int[] timeStatistics = null;
-    private static final int PROFILING_SAMPLE_COUNT = 200;
-    private int timeStatisticsIndex = 0;
-    private boolean profilingPassedFullCycle = false;
+    private GridProfiler profiler = null;
 
     public Grid(final GridNode center) {
         this.pivot = center;
@@ -97,8 +94,8 @@ public class Grid implements IGrid {
 
         final Class<? extends IGridHost> machineClass = gridNode.getMachineClass();
         final Set<IGridNode> nodes = this.machines.get(machineClass);
-        if (nodes != null) {
-            nodes.remove(gridNode);
+        if (nodes != null && nodes.remove(gridNode)) {
+            this.eventBus.machinesChanged(machineClass);
         }
 
         gridNode.setGridStorage(null);
@@ -166,6 +163,7 @@ public class Grid implements IGrid {
 
         // track node.
         nodes.add(gridNode);
+        this.eventBus.machinesChanged(mClass);
 
         for (final IGridCache cache : this.caches.values()) {
             final IGridHost machine = gridNode.getMachine();
@@ -184,15 +182,30 @@ public class Grid implements IGrid {
 
     @Override
     public MENetworkEvent postEvent(final MENetworkEvent ev) {
+        final GridProfiler profiler = this.profiler;
+        final long start = profiler != null ? System.nanoTime() : 0;
+
         CraftingGridCache.pauseRebuilds();
         final MENetworkEvent ret = this.eventBus.postEvent(this, ev);
         CraftingGridCache.unpauseRebuilds();
+
+        if (profiler != null) {
+            profiler.recordEvent(ev.getClass(), System.nanoTime() - start);
+        }
         return ret;
     }
 
     @Override
     public MENetworkEvent postEventTo(final IGridNode node, final MENetworkEvent ev) {
-        return this.eventBus.postEventTo(this, (GridNode) node, ev);
+        final GridProfiler profiler = this.profiler;
+        if (profiler == null) {
+            return this.eventBus.postEventTo(this, (GridNode) node, ev);
+        }
+
+        final long start = System.nanoTime();
+        final MENetworkEvent ret = this.eventBus.postEventTo(this, (GridNode) node, ev);
+        profiler.recordEvent(ev.getClass(), System.nanoTime() - start);
+        return ret;
     }
 
     @Override
@@ -231,40 +244,44 @@ public class Grid implements IGrid {
     }
 
     public void startProfiling() {
-        timeStatistics = new int[PROFILING_SAMPLE_COUNT];
-        profilingPassedFullCycle = false;
+        this.profiler = new GridProfiler();
     }
 
-    public int stopProfiling() {
-        if (timeStatistics == null) return 0;
-        long sum = 0;
-        int N = profilingPassedFullCycle ? PROFILING_SAMPLE_COUNT : timeStatisticsIndex;
-        for (int i = 0; i < N; ++i) sum += timeStatistics[i];
-        timeStatistics = null;
-        return (int) (sum / N);
+    /**
+     * @return the timings collected since {@link #startProfiling()}, or null if the grid was not being profiled
+     */
+    public GridProfiler stopProfiling() {
+        final GridProfiler finished = this.profiler;
+        this.profiler = null;
+        return finished;
     }
 
     public boolean isProfiling() {
-        return timeStatistics != null;
+        return this.profiler != null;
     }
 
     public void update() {
-        long time = 0;
-        if (isProfiling()) time = System.nanoTime();
+        final GridProfiler profiler = this.profiler;
+        if (profiler == null) {
+            for (final IGridCache gc : this.caches.values()) {
+                // are there any nodes left?
+                if (this.pivot != null) {
+                    gc.onUpdateTick();
+                }
+            }
+            return;
+        }
+
+        final long tickStart = System.nanoTime();
         for (final IGridCache gc : this.caches.values()) {
             // are there any nodes left?
             if (this.pivot != null) {
+                final long cacheStart = System.nanoTime();
                 gc.onUpdateTick();
+                profiler.recordCache(gc.getClass(), System.nanoTime() - cacheStart);
             }
         }
-        if (isProfiling()) {
-            ++timeStatisticsIndex;
-            if (timeStatisticsIndex == PROFILING_SAMPLE_COUNT) {
-                profilingPassedFullCycle = true;
-                timeStatisticsIndex = 0;
-            }
-            timeStatistics[timeStatisticsIndex] = (int) (System.nanoTime() - time);
-        }
+        profiler.recordTick(System.nanoTime() - tickStart);
     }
 
     void saveState() {
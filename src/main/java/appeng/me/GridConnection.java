@@ -31,6 +31,7 @@ import appeng.api.util.IReadOnlyCollection;
 import appeng.core.AEConfig;
 import appeng.core.AELog;
 import appeng.core.features.AEFeature;
+import appeng.me.cache.PathGridCache;
 import appeng.me.pathfinding.IPathItem;
 import appeng.util.Platform;
 import appeng.util.ReadOnlyCollection;
@@ -41,7 +42,7 @@ public class GridConnection implements IGridConnection, IPathItem {
 
     private static final MENetworkChannelsChanged EVENT = new MENetworkChannelsChanged();
     private int channelData = 0;
-    private Object visitorIterationNumber = null;
+    private int visitorIterationNumber = 0;
     private GridNode sideA;
     private ForgeDirection fromAtoB;
     private GridNode sideB;
@@ -120,7 +121,11 @@ public class GridConnection implements IGridConnection, IPathItem {
             AELog.info("Repath is triggered by adding connection from [%s] to [%s]", aCoordinates, bCoordinates);
             AELog.printStackTrace(Level.INFO);
         }
-        p.repath();
+        if (p instanceof PathGridCache) {
+            ((PathGridCache) p).onConnectionAdded(this);
+        } else {
+            p.repath();
+        }
 
         this.sideA.addConnection(this);
         this.sideB.addConnection(this);
@@ -166,7 +171,11 @@ public class GridConnection implements IGridConnection, IPathItem {
 
         // a connection was destroyed RE-PATH!!
         final IPathingGrid p = this.sideA.getInternalGrid().getCache(IPathingGrid.class);
-        p.repath();
+        if (p instanceof PathGridCache) {
+            ((PathGridCache) p).onConnectionRemoved(this);
+        } else {
+            p.repath();
+        }
 
         this.sideA.removeConnection(this);
         this.sideB.removeConnection(this);
@@ -257,11 +266,11 @@ public class GridConnection implements IGridConnection, IPathItem {
         return this.channelData & 0xff;
     }
 
-    Object getVisitorIterationNumber() {
+    int getVisitorIterationNumber() {
         return this.visitorIterationNumber;
     }
 
-    void setVisitorIterationNumber(final Object visitorIterationNumber) {
+    void setVisitorIterationNumber(final int visitorIterationNumber) {
         this.visitorIterationNumber = visitorIterationNumber;
     }
 }
@@ -10,10 +10,9 @@
 
 package appeng.me;
 
+import java.util.ArrayList;
 import java.util.Comparator;
-import java.util.Deque;
 import java.util.EnumSet;
-import java.util.LinkedList;
 import java.util.List;
 
 import net.minecraft.nbt.NBTTagCompound;
@@ -28,7 +27,6 @@ import appeng.api.networking.IGrid;
 import appeng.api.networking.IGridBlock;
 import appeng.api.networking.IGridCache;
 import appeng.api.networking.IGridConnection;
-import appeng.api.networking.IGridConnectionVisitor;
 import appeng.api.networking.IGridHost;
 import appeng.api.networking.IGridNode;
 import appeng.api.networking.IGridVisitor;
@@ -52,7 +50,7 @@ public class GridNode implements IGridNode, IPathItem {
     private static final MENetworkChannelsChanged EVENT = new MENetworkChannelsChanged();
     private static final int[] CHANNEL_COUNT = { 0, 8, 32, 128 };
 
-    private final List<IGridConnection> connections = new LinkedList<>();
+    private final List<IGridConnection> connections = new ArrayList<>(2);
     private final IGridBlock gridProxy;
     // old power draw, used to diff
     private double previousDraw = 0.0;
@@ -60,7 +58,7 @@ public class GridNode implements IGridNode, IPathItem {
     private int playerID = -1;
     private GridStorage myStorage = null;
     private Grid myGrid;
-    private Object visitorIterationNumber = null;
+    private int visitorIterationNumber = 0;
     // connection criteria
     private int compressedData = 0;
     private int usedChannels = 0;
@@ -70,6 +68,18 @@ public class GridNode implements IGridNode, IPathItem {
         this.gridProxy = what;
     }
 
+    List<IGridConnection> getConnectionList() {
+        return this.connections;
+    }
+
+    int getVisitorIterationNumber() {
+        return this.visitorIterationNumber;
+    }
+
+    void setVisitorIterationNumber(final int visitorIterationNumber) {
+        this.visitorIterationNumber = visitorIterationNumber;
+    }
+
     IGridBlock getGridProxy() {
         return this.gridProxy;
     }
@@ -132,42 +142,12 @@ public class GridNode implements IGridNode, IPathItem {
 
     @Override
     public void beginVisit(final IGridVisitor g) {
-        final Object tracker = new Object();
-
         CraftingGridCache.pauseRebuilds();
-
-        LinkedList<GridNode> nextRun = new LinkedList<>();
-        nextRun.add(this);
-
-        this.visitorIterationNumber = tracker;
-
-        if (g instanceof IGridConnectionVisitor gcv) {
-            final LinkedList<IGridConnection> nextConn = new LinkedList<>();
-
-            while (!nextRun.isEmpty()) {
-                while (!nextConn.isEmpty()) {
-                    gcv.visitConnection(nextConn.poll());
-                }
-
-                final Iterable<GridNode> thisRun = nextRun;
-                nextRun = new LinkedList<>();
-
-                for (final GridNode n : thisRun) {
-                    n.visitorConnection(tracker, g, nextRun, nextConn);
-                }
-            }
-        } else {
-            while (!nextRun.isEmpty()) {
-                final Iterable<GridNode> thisRun = nextRun;
-                nextRun = new LinkedList<>();
-
-                for (final GridNode n : thisRun) {
-                    n.visitorNode(tracker, g, nextRun);
-                }
-            }
+        try {
+            GridTraversal.visit(this, g);
+        } finally {
+            CraftingGridCache.unpauseRebuilds();
         }
-
-        CraftingGridCache.unpauseRebuilds();
     }
 
     @Override
@@ -437,45 +417,6 @@ public class GridNode implements IGridNode, IPathItem {
         return AEColor.values()[(this.compressedData >> 3) & 0x1F];
     }
 
-    private void visitorConnection(final Object tracker, final IGridVisitor g, final Deque<GridNode> nextRun,
-            final Deque<IGridConnection> nextConnections) {
-        if (g.visitNode(this)) {
-            for (final IGridConnection gc : this.getConnections()) {
-                final GridNode gn = (GridNode) gc.getOtherSide(this);
-                final GridConnection gcc = (GridConnection) gc;
-
-                if (gcc.getVisitorIterationNumber() != tracker) {
-                    gcc.setVisitorIterationNumber(tracker);
-                    nextConnections.add(gc);
-                }
-
-                if (tracker == gn.visitorIterationNumber) {
-                    continue;
-                }
-
-                gn.visitorIterationNumber = tracker;
-
-                nextRun.add(gn);
-            }
-        }
-    }
-
-    private void visitorNode(final Object tracker, final IGridVisitor g, final Deque<GridNode> nextRun) {
-        if (g.visitNode(this)) {
-            for (final IGridConnection gc : this.getConnections()) {
-                final GridNode gn = (GridNode) gc.getOtherSide(this);
-
-                if (tracker == gn.visitorIterationNumber) {
-                    continue;
-                }
-
-                gn.visitorIterationNumber = tracker;
-
-                nextRun.add(gn);
-            }
-        }
-    }
-
     GridStorage getGridStorage() {
         return this.myStorage;
     }
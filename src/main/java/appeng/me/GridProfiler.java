@@ -0,0 +1,84 @@
+/*
+ * This file is part of Applied Energistics 2. Copyright (c) 2013 - 2014, AlgorithmX2, All rights reserved. Applied
+ * Energistics 2 is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version. Applied Energistics 2 is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details. You should have received a copy of the GNU Lesser General Public License along with
+ * Applied Energistics 2. If not, see <http://www.gnu.org/licenses/lgpl>.
+ */
+
+package appeng.me;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import appeng.api.networking.IGridCache;
+import appeng.api.networking.events.MENetworkEvent;
+import appeng.util.TimingHistogram;
+
+/**
+ * Timings collected while a grid is being profiled: the whole grid update, each cache's share of it and the time
+ * spent dispatching each kind of network event (including the handlers of nested events).
+ */
+public class GridProfiler {
+
+    private final TimingHistogram tickTimes = new TimingHistogram();
+    private final Map<Class<? extends IGridCache>, TimingHistogram> cacheTimes = new LinkedHashMap<>();
+    private final Map<Class<? extends MENetworkEvent>, TimingHistogram> eventTimes = new LinkedHashMap<>();
+
+    void recordTick(final long nanos) {
+        this.tickTimes.record(nanos);
+    }
+
+    void recordCache(final Class<? extends IGridCache> cache, final long nanos) {
+        this.cacheTimes.computeIfAbsent(cache, c -> new TimingHistogram()).record(nanos);
+    }
+
+    void recordEvent(final Class<? extends MENetworkEvent> event, final long nanos) {
+        this.eventTimes.computeIfAbsent(event, c -> new TimingHistogram()).record(nanos);
+    }
+
+    public TimingHistogram getTickTimes() {
+        return this.tickTimes;
+    }
+
+    public Map<Class<? extends IGridCache>, TimingHistogram> getCacheTimes() {
+        return this.cacheTimes;
+    }
+
+    public Map<Class<? extends MENetworkEvent>, TimingHistogram> getEventTimes() {
+        return this.eventTimes;
+    }
+
+    public void writeCsv(final File file) throws IOException {
+        try (PrintWriter out = new PrintWriter(file, StandardCharsets.UTF_8.name())) {
+            out.println("category,name,samples,mean_ns,p50_ns,p99_ns,max_ns");
+            writeCsvLine(out, "grid", "total", this.tickTimes);
+            for (final Map.Entry<Class<? extends IGridCache>, TimingHistogram> entry : this.cacheTimes.entrySet()) {
+                writeCsvLine(out, "cache", entry.getKey().getName(), entry.getValue());
+            }
+            for (final Map.Entry<Class<? extends MENetworkEvent>, TimingHistogram> entry : this.eventTimes
+                    .entrySet()) {
+                writeCsvLine(out, "event", entry.getKey().getName(), entry.getValue());
+            }
+        }
+    }
+
+    private static void writeCsvLine(final PrintWriter out, final String category, final String name,
+            final TimingHistogram h) {
+        out.printf(
+                "%s,%s,%d,%d,%d,%d,%d%n",
+                category,
+                name,
+                h.getCount(),
+                h.getMean(),
+                h.getPercentile(0.5),
+                h.getPercentile(0.99),
+                h.getMax());
+    }
+}
@@ -31,6 +31,8 @@ public class GridStorage implements IGridStorage {
     private final GridStorageSearch mySearchEntry; // keep myself in the list until I'm
     private final WeakHashMap<GridStorage, Boolean> divided = new WeakHashMap<>();
     private WeakReference<IGrid> internalGrid = null;
+    // whether the data changed since it was last handed out to be saved
+    private boolean dirty;
 
     // lost...
 
@@ -44,23 +46,24 @@ public class GridStorage implements IGridStorage {
         this.myID = id;
         this.mySearchEntry = gss;
         this.data = new NBTTagCompound();
+        this.dirty = true;
     }
 
     /**
      * for use with world settings
      *
-     * @param input array of bytes string
+     * @param input compressed NBT as stored in the world, or null for an empty storage
      * @param id    ID of grid storage
      * @param gss   grid storage search
      */
-    public GridStorage(final String input, final long id, final GridStorageSearch gss) {
+    public GridStorage(final byte[] input, final long id, final GridStorageSearch gss) {
         this.myID = id;
         this.mySearchEntry = gss;
         NBTTagCompound myTag = null;
 
         try {
-            final byte[] byteData = javax.xml.bind.DatatypeConverter.parseBase64Binary(input);
-            myTag = CompressedStreamTools.readCompressed(new ByteArrayInputStream(byteData));
+            myTag = input == null ? new NBTTagCompound()
+                    : CompressedStreamTools.readCompressed(new ByteArrayInputStream(input));
         } catch (final Throwable t) {
             myTag = new NBTTagCompound();
         }
@@ -77,21 +80,41 @@ public class GridStorage implements IGridStorage {
         this.data = new NBTTagCompound();
     }
 
-    public String getValue() {
+    /**
+     * @return compressed NBT of the current grid state, or null if it did not change since the last call or could not
+     *         be written
+     */
+    public byte[] getValueIfChanged() {
         final Grid currentGrid = (Grid) this.getGrid();
         if (currentGrid != null) {
+            final NBTTagCompound before = (NBTTagCompound) this.data.copy();
             currentGrid.saveState();
+            if (!before.equals(this.data)) {
+                this.dirty = true;
+            }
+        }
+
+        if (!this.dirty) {
+            return null;
         }
 
         try {
             final ByteArrayOutputStream out = new ByteArrayOutputStream();
             CompressedStreamTools.writeCompressed(this.data, out);
-            return javax.xml.bind.DatatypeConverter.printBase64Binary(out.toByteArray());
+            this.dirty = false;
+            return out.toByteArray();
         } catch (final IOException e) {
             AELog.debug(e);
         }
 
-        return "";
+        return null;
+    }
+
+    /**
+     * Hands the data out again on the next save, for when the last one did not make it to disk.
+     */
+    public void markDirty() {
+        this.dirty = true;
     }
 
     public IGrid getGrid() {
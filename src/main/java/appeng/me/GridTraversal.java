@@ -0,0 +1,121 @@
+/*
+ * This file is part of Applied Energistics 2. Copyright (c) 2013 - 2014, AlgorithmX2, All rights reserved. Applied
+ * Energistics 2 is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version. Applied Energistics 2 is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details. You should have received a copy of the GNU Lesser General Public License along with
+ * Applied Energistics 2. If not, see <http://www.gnu.org/licenses/lgpl>.
+ */
+
+package appeng.me;
+
+import java.util.Arrays;
+import java.util.List;
+
+import appeng.api.networking.IGridConnection;
+import appeng.api.networking.IGridConnectionVisitor;
+import appeng.api.networking.IGridVisitor;
+
+/**
+ * Breadth first walk over the grid for {@link GridNode#beginVisit}, layer by layer, visiting the connections found in
+ * one layer before the nodes of the next.
+ * <p>
+ * Nodes and connections are marked as seen by stamping them with the number of the current walk instead of keeping a
+ * set, and the queues are arrays kept by each thread between walks, so walking a grid allocates nothing once the arrays
+ * have grown to fit it. A walk started from inside a visitor gets its own queues.
+ */
+final class GridTraversal {
+
+    private static final ThreadLocal<GridTraversal> TRAVERSALS = ThreadLocal.withInitial(GridTraversal::new);
+
+    // 0 is what new nodes and connections start with, it is never used for a walk
+    private static int lastIterationNumber = 0;
+
+    private GridNode[] nodes = new GridNode[64];
+    private IGridConnection[] connections = new IGridConnection[64];
+    private int connectionCount;
+    private boolean busy;
+
+    static void visit(final GridNode start, final IGridVisitor visitor) {
+        GridTraversal traversal = TRAVERSALS.get();
+        if (traversal.busy) {
+            traversal = new GridTraversal();
+        }
+
+        traversal.busy = true;
+        try {
+            traversal.run(start, visitor);
+        } finally {
+            traversal.busy = false;
+        }
+    }
+
+    private static int nextIterationNumber() {
+        if (++lastIterationNumber == 0) {
+            lastIterationNumber = 1;
+        }
+        return lastIterationNumber;
+    }
+
+    private void run(final GridNode start, final IGridVisitor visitor) {
+        final int iteration = nextIterationNumber();
+        final IGridConnectionVisitor connectionVisitor = visitor instanceof IGridConnectionVisitor gcv ? gcv : null;
+
+        int head = 0;
+        int tail = 0;
+        this.nodes[tail++] = start;
+        start.setVisitorIterationNumber(iteration);
+
+        try {
+            while (head < tail) {
+                if (connectionVisitor != null) {
+                    for (int i = 0; i < this.connectionCount; i++) {
+                        connectionVisitor.visitConnection(this.connections[i]);
+                    }
+                    Arrays.fill(this.connections, 0, this.connectionCount, null);
+                    this.connectionCount = 0;
+                }
+
+                final int layerEnd = tail;
+                for (; head < layerEnd; head++) {
+                    final GridNode node = this.nodes[head];
+                    if (!visitor.visitNode(node)) {
+                        continue;
+                    }
+
+                    final List<IGridConnection> nodeConnections = node.getConnectionList();
+                    for (int i = 0, size = nodeConnections.size(); i < size; i++) {
+                        final GridConnection gc = (GridConnection) nodeConnections.get(i);
+
+                        if (connectionVisitor != null && gc.getVisitorIterationNumber() != iteration) {
+                            gc.setVisitorIterationNumber(iteration);
+                            this.addConnection(gc);
+                        }
+
+                        final GridNode other = (GridNode) gc.getOtherSide(node);
+                        if (other.getVisitorIterationNumber() != iteration) {
+                            other.setVisitorIterationNumber(iteration);
+                            if (tail == this.nodes.length) {
+                                this.nodes = Arrays.copyOf(this.nodes, tail * 2);
+                            }
+                            this.nodes[tail++] = other;
+                        }
+                    }
+                }
+            }
+        } finally {
+            // don't keep the grid alive through the queues
+            Arrays.fill(this.nodes, 0, tail, null);
+            Arrays.fill(this.connections, 0, this.connectionCount, null);
+            this.connectionCount = 0;
+        }
+    }
+
+    private void addConnection(final IGridConnection gc) {
+        if (this.connectionCount == this.connections.length) {
+            this.connections = Arrays.copyOf(this.connections, this.connectionCount * 2);
+        }
+        this.connections[this.connectionCount++] = gc;
+    }
+}
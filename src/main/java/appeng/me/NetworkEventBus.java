@@ -10,7 +10,13 @@
 
 package appeng.me;
 
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
@@ -18,6 +24,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 
 import appeng.api.networking.IGridCache;
 import appeng.api.networking.IGridNode;
@@ -29,6 +36,11 @@ public class NetworkEventBus {
 
     private static final Collection<Class> READ_CLASSES = new HashSet<>();
     private static final Map<Class<? extends MENetworkEvent>, Map<Class, MENetworkEventInfo>> EVENTS = new HashMap<>();
+    private static final Map<Class, Set<Class<? extends MENetworkEvent>>> SUBSCRIPTIONS = new HashMap<>();
+    private static final MethodType INVOKER_TYPE = MethodType.methodType(void.class, Object.class, MENetworkEvent.class);
+
+    // the caches and machines of this grid that receive each event, dropped when machines join or leave
+    private final Map<Class<? extends MENetworkEvent>, Subscribers> subscribers = new HashMap<>();
 
     void readClass(final Class listAs, final Class c) {
         if (READ_CLASSES.contains(c)) {
@@ -55,6 +67,7 @@ public class NetworkEventBus {
                             thisEvent.Add(types[0], c, m);
 
                             classEvents.put(listAs, thisEvent);
+                            SUBSCRIPTIONS.computeIfAbsent(listAs, k -> new HashSet<>()).add(types[0]);
                         } else {
                             throw new IllegalStateException(
                                     "Invalid ME Network Event Subscriber, " + m.getName()
@@ -72,28 +85,27 @@ public class NetworkEventBus {
         }
     }
 
+    /**
+     * Called when a machine of the given class joined or left the grid.
+     */
+    void machinesChanged(final Class machineClass) {
+        final Set<Class<? extends MENetworkEvent>> events = SUBSCRIPTIONS.get(machineClass);
+        if (events != null) {
+            for (final Class<? extends MENetworkEvent> event : events) {
+                this.subscribers.remove(event);
+            }
+        }
+    }
+
     MENetworkEvent postEvent(final Grid g, final MENetworkEvent e) {
-        final Map<Class, MENetworkEventInfo> subscribers = EVENTS.get(e.getClass());
+        final Subscribers subscribers = this.getSubscribers(g, e.getClass());
         int x = 0;
 
-        try {
-            if (subscribers != null) {
-                for (final Entry<Class, MENetworkEventInfo> subscriber : subscribers.entrySet()) {
-                    final MENetworkEventInfo target = subscriber.getValue();
-                    final IGridCache cache = g.getCaches().get(subscriber.getKey());
-                    if (cache != null) {
-                        x++;
-                        target.invoke(cache, e);
-                    }
-
-                    for (final IGridNode obj : g.getMachines(subscriber.getKey())) {
-                        x++;
-                        target.invoke(obj.getMachine(), e);
-                    }
-                }
+        for (int i = 0; i < subscribers.targets.length; i++) {
+            x++;
+            if (subscribers.infos[i].invoke(subscribers.targets[i], e)) {
+                break;
             }
-        } catch (final NetworkEventDone done) {
-            // Early out.
         }
 
         e.setVisitedObjects(x);
@@ -104,42 +116,122 @@ public class NetworkEventBus {
         final Map<Class, MENetworkEventInfo> subscribers = EVENTS.get(e.getClass());
         int x = 0;
 
-        try {
-            if (subscribers != null) {
-                final MENetworkEventInfo target = subscribers.get(node.getMachineClass());
-                if (target != null) {
-                    x++;
-                    target.invoke(node.getMachine(), e);
-                }
+        if (subscribers != null) {
+            final MENetworkEventInfo target = subscribers.get(node.getMachineClass());
+            if (target != null) {
+                x++;
+                target.invoke(node.getMachine(), e);
             }
-        } catch (final NetworkEventDone done) {
-            // Early out.
         }
 
         e.setVisitedObjects(x);
         return e;
     }
 
-    private static class NetworkEventDone extends Throwable {
+    private Subscribers getSubscribers(final Grid g, final Class<? extends MENetworkEvent> event) {
+        Subscribers cached = this.subscribers.get(event);
+        if (cached != null) {
+            return cached;
+        }
+
+        final List<Object> targets = new ArrayList<>();
+        final List<MENetworkEventInfo> infos = new ArrayList<>();
+        final Map<Class, MENetworkEventInfo> subscribers = EVENTS.get(event);
+        if (subscribers != null) {
+            for (final Entry<Class, MENetworkEventInfo> subscriber : subscribers.entrySet()) {
+                final MENetworkEventInfo target = subscriber.getValue();
+                final IGridCache cache = g.getCaches().get(subscriber.getKey());
+                if (cache != null) {
+                    targets.add(cache);
+                    infos.add(target);
+                }
+
+                for (final IGridNode obj : g.getMachines(subscriber.getKey())) {
+                    targets.add(obj.getMachine());
+                    infos.add(target);
+                }
+            }
+        }
 
-        private static final long serialVersionUID = -3079021487019171205L;
+        cached = new Subscribers(targets.toArray(), infos.toArray(new MENetworkEventInfo[0]));
+        this.subscribers.put(event, cached);
+        return cached;
     }
 
-    private class EventMethod {
+    /**
+     * A subscriber method compiled to a direct call.
+     */
+    interface EventInvoker {
+
+        void invoke(Object obj, MENetworkEvent e) throws Throwable;
+    }
+
+    private static final class Subscribers {
+
+        private final Object[] targets;
+        private final MENetworkEventInfo[] infos;
+
+        private Subscribers(final Object[] targets, final MENetworkEventInfo[] infos) {
+            this.targets = targets;
+            this.infos = infos;
+        }
+    }
+
+    private static class EventMethod {
 
         private final Class objClass;
         private final Method objMethod;
         private final Class objEvent;
+        private final EventInvoker invoker;
 
-        public EventMethod(final Class Event, final Class ObjClass, final Method ObjMethod) {
+        public EventMethod(final Class Event, final Class ObjClass, final Method ObjMethod) throws Throwable {
             this.objClass = ObjClass;
             this.objMethod = ObjMethod;
             this.objEvent = Event;
+            this.invoker = createInvoker(ObjMethod, Event);
+        }
+
+        private static EventInvoker createInvoker(final Method method, final Class event) throws Throwable {
+            final MethodHandles.Lookup lookup = MethodHandles.lookup();
+            method.setAccessible(true);
+            final MethodHandle handle = lookup.unreflect(method);
+
+            // the generated class calls the method directly, which it can only do if it is able to see it
+            final Class owner = method.getDeclaringClass();
+            if (Modifier.isPublic(owner.getModifiers()) && Modifier.isPublic(event.getModifiers())
+                    && isVisible(owner)
+                    && isVisible(event)) {
+                try {
+                    final CallSite site = LambdaMetafactory.metafactory(
+                            lookup,
+                            "invoke",
+                            MethodType.methodType(EventInvoker.class),
+                            INVOKER_TYPE,
+                            handle,
+                            handle.type().changeReturnType(void.class));
+                    return (EventInvoker) site.getTarget().invoke();
+                } catch (final Throwable t) {
+                    AELog.debug(t);
+                }
+            }
+
+            final MethodHandle generic = handle.asType(INVOKER_TYPE);
+            return (obj, e) -> {
+                generic.invokeExact(obj, e);
+            };
+        }
+
+        private static boolean isVisible(final Class c) {
+            try {
+                return Class.forName(c.getName(), false, NetworkEventBus.class.getClassLoader()) == c;
+            } catch (final ClassNotFoundException e) {
+                return false;
+            }
         }
 
-        private void invoke(final Object obj, final MENetworkEvent e) throws NetworkEventDone {
+        private void invoke(final Object obj, final MENetworkEvent e) {
             try {
-                this.objMethod.invoke(obj, e);
+                this.invoker.invoke(obj, e);
             } catch (final Throwable e1) {
                 AELog.error("[AppEng] Network Event caused exception:");
                 AELog.error("Offending Class: " + obj.getClass().getName());
@@ -147,25 +239,28 @@ public class NetworkEventBus {
                 AELog.debug(e1);
                 throw new IllegalStateException(e1);
             }
-
-            if (e.isCanceled()) {
-                throw new NetworkEventDone();
-            }
         }
     }
 
-    private class MENetworkEventInfo {
+    private static class MENetworkEventInfo {
 
         private final List<EventMethod> methods = new ArrayList<>();
 
-        private void Add(final Class Event, final Class ObjClass, final Method ObjMethod) {
+        private void Add(final Class Event, final Class ObjClass, final Method ObjMethod) throws Throwable {
             this.methods.add(new EventMethod(Event, ObjClass, ObjMethod));
         }
 
-        private void invoke(final Object obj, final MENetworkEvent e) throws NetworkEventDone {
-            for (final EventMethod em : this.methods) {
-                em.invoke(obj, e);
+        /**
+         * @return true if the event was canceled
+         */
+        private boolean invoke(final Object obj, final MENetworkEvent e) {
+            for (int i = 0, size = this.methods.size(); i < size; i++) {
+                this.methods.get(i).invoke(obj, e);
+                if (e.isCanceled()) {
+                    return true;
+                }
             }
+            return false;
         }
     }
 }
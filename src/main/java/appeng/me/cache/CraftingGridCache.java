@@ -78,11 +78,12 @@ import appeng.crafting.CraftingLinkNexus;
 import appeng.crafting.CraftingWatcher;
 import appeng.crafting.v2.CraftingJobV2;
 import appeng.me.cluster.implementations.CraftingCPUCluster;
+import appeng.me.cache.helpers.PatternAnalysisCache;
+import appeng.me.cache.helpers.PatternAnalysisCache.PatternSnapshot;
 import appeng.me.helpers.GenericInterestManager;
 import appeng.tile.crafting.TileCraftingStorageTile;
 import appeng.tile.crafting.TileCraftingTile;
 import appeng.util.ItemSorters;
-import appeng.util.item.OreListMultiMap;
 
 public class CraftingGridCache
         implements ICraftingGrid, ICraftingProviderHelper, ICellProvider, IMEInventoryHandler<IAEStack> {
@@ -102,10 +103,19 @@ public class CraftingGridCache
     private final Map<IGridNode, ICraftingWatcher> craftingWatchers = new HashMap<>();
     private final IGrid grid;
     private final Map<ICraftingPatternDetails, List<ICraftingMedium>> craftingMethods = new HashMap<>();
-    // Used for fuzzy lookups
-    private final OreListMultiMap<ICraftingPatternDetails> craftableItemSubstitutes = new OreListMultiMap<>();
+    // every medium offering each pattern, the first one's pattern is the key of craftingMethods
+    private final Map<ICraftingPatternDetails, List<PatternOption>> patternOptions = new HashMap<>();
+    private final Map<IAEItemStack, Set<ICraftingPatternDetails>> patternsByOutput = new HashMap<>();
     private final Map<IAEItemStack, ImmutableList<ICraftingPatternDetails>> craftableItems = new HashMap<>();
-    private final Set<IAEItemStack> emitableItems = new HashSet<>();
+    // how many providers can emit each item
+    private final Map<IAEItemStack, Integer> emitableItems = new HashMap<>();
+    // what each provider offered when it was last asked, the mock patterns of the unit tests have no provider
+    private final Map<ICraftingProvider, ProviderPatterns> providerPatterns = new HashMap<>();
+    private final Set<ICraftingProvider> dirtyProviders = new HashSet<>();
+    private boolean allProvidersDirty = false;
+    private ProviderPatterns collecting = null;
+    private final ProviderPatterns unownedPatterns = new ProviderPatterns();
+    private final PatternAnalysisCache patternAnalysis = new PatternAnalysisCache();
     private final Map<String, CraftingLinkNexus> craftingLinks = new HashMap<>();
     private final Multimap<IAEStack, CraftingWatcher> interests = HashMultimap.create();
     private final GenericInterestManager<CraftingWatcher> interestManager = new GenericInterestManager<>(
@@ -165,9 +175,9 @@ public class CraftingGridCache
             this.updateList = true;
         }
 
-        if (machine instanceof ICraftingProvider) {
-            this.craftingProviders.remove(machine);
-            this.updatePatterns();
+        if (machine instanceof ICraftingProvider provider) {
+            this.craftingProviders.remove(provider);
+            this.updatePatterns(provider);
         }
     }
 
@@ -191,9 +201,9 @@ public class CraftingGridCache
             this.updateList = true;
         }
 
-        if (machine instanceof ICraftingProvider) {
-            this.craftingProviders.add((ICraftingProvider) machine);
-            this.updatePatterns();
+        if (machine instanceof ICraftingProvider provider) {
+            this.craftingProviders.add(provider);
+            this.updatePatterns(provider);
         }
     }
 
@@ -226,71 +236,207 @@ public class CraftingGridCache
         }
     }
 
-    private void updatePatterns() {
-        // coalesce change events during a grid traversal to a single rebuild
+    /**
+     * Asks one provider for its patterns again and applies the difference to what it offered before.
+     *
+     * @param provider The provider that changed, null if it isn't known which one did
+     */
+    private void updatePatterns(final ICraftingProvider provider) {
+        if (provider == null) {
+            this.allProvidersDirty = true;
+        } else {
+            this.dirtyProviders.add(provider);
+        }
+
+        // coalesce change events during a grid traversal to a single update per provider
         if (pauseRebuilds != 0) {
             rebuildNeeded.add(this);
             return;
         }
 
-        final Map<IAEItemStack, ImmutableList<ICraftingPatternDetails>> oldItems = this.craftableItems;
+        this.updatePatterns();
+    }
 
-        // erase list.
-        this.craftingMethods.clear();
-        this.craftableItems.clear();
-        this.craftableItemSubstitutes.clear();
-        this.emitableItems.clear();
+    private void updatePatterns() {
+        final Set<ICraftingProvider> dirty = new HashSet<>(this.dirtyProviders);
+        if (this.allProvidersDirty) {
+            dirty.addAll(this.providerPatterns.keySet());
+            dirty.addAll(this.craftingProviders);
+            // the mock patterns aren't provided by anyone
+            dirty.remove(null);
+        }
+        this.dirtyProviders.clear();
+        this.allProvidersDirty = false;
+
+        final Set<IAEItemStack> changedItems = new HashSet<>();
+        for (final ICraftingProvider provider : dirty) {
+            final ProviderPatterns before = this.providerPatterns.remove(provider);
+            ProviderPatterns after = null;
+
+            if (this.craftingProviders.contains(provider)) {
+                after = new ProviderPatterns();
+                this.collecting = after;
+                try {
+                    provider.provideCrafting(this);
+                } finally {
+                    this.collecting = null;
+                }
+                this.providerPatterns.put(provider, after);
+            }
 
-        // update the stuff that was in the list...
-        this.storageGrid.postAlterationOfStoredItems(StorageChannel.ITEMS, oldItems.keySet(), new BaseActionSource());
+            this.applyPatternChange(before, after, changedItems);
+        }
 
-        // re-create list..
-        for (final ICraftingProvider provider : this.craftingProviders) {
-            provider.provideCrafting(this);
+        if (changedItems.isEmpty()) {
+            return;
         }
 
-        setPatternsFromCraftingMethods();
+        final List<IAEItemStack> changes = new ArrayList<>(changedItems.size());
+        for (final IAEItemStack item : changedItems) {
+            final IAEItemStack change = item.copy();
+            change.setCraftable(this.isCraftable(item));
+            changes.add(change);
+        }
 
-        this.storageGrid.postAlterationOfStoredItems(
-                StorageChannel.ITEMS,
-                this.craftableItems.keySet(),
-                new BaseActionSource());
+        if (this.storageGrid instanceof GridStorageCache gridStorage) {
+            gridStorage.postCraftableStateChanges(changes, new BaseActionSource());
+        } else {
+            this.storageGrid.postAlterationOfStoredItems(StorageChannel.ITEMS, changes, new BaseActionSource());
+        }
     }
 
     /** Only for unit test usage */
     public void setMockPatternsFromMethods() {
-        this.craftableItems.clear();
-        this.craftableItemSubstitutes.clear();
-        this.emitableItems.clear();
-        setPatternsFromCraftingMethods();
+        final ProviderPatterns mock = new ProviderPatterns();
+        mock.options.addAll(this.unownedPatterns.options);
+        mock.emitables.addAll(this.unownedPatterns.emitables);
+
+        this.applyPatternChange(this.providerPatterns.put(null, mock), mock, new HashSet<>());
     }
 
-    private void setPatternsFromCraftingMethods() {
-        final Map<IAEItemStack, Set<ICraftingPatternDetails>> tmpCraft = new HashMap<>();
+    /**
+     * Replaces what one provider offered with what it offers now.
+     *
+     * @param changedItems Receives the items that became craftable or stopped being craftable
+     */
+    private void applyPatternChange(final ProviderPatterns before, final ProviderPatterns after,
+            final Set<IAEItemStack> changedItems) {
+        final Map<ICraftingPatternDetails, List<ICraftingMedium>> previousMediums = new HashMap<>();
+        final Set<IAEItemStack> affectedItems = new HashSet<>();
+        collectAffected(before, previousMediums, affectedItems);
+        collectAffected(after, previousMediums, affectedItems);
+
+        final Set<IAEItemStack> wasCraftable = new HashSet<>();
+        for (final IAEItemStack item : affectedItems) {
+            if (this.isCraftable(item)) {
+                wasCraftable.add(item);
+            }
+        }
 
-        // new craftables!
-        for (final ICraftingPatternDetails details : this.craftingMethods.keySet()) {
-            for (IAEItemStack out : details.getOutputs()) {
-                out = out.copy();
-                out.reset();
-                out.setCraftable(true);
+        if (before != null) {
+            for (final PatternOption option : before.options) {
+                final List<PatternOption> options = this.patternOptions.get(option.pattern);
+                if (options != null) {
+                    options.remove(option);
+                    if (options.isEmpty()) {
+                        this.patternOptions.remove(option.pattern);
+                    }
+                }
+            }
+            for (final IAEItemStack emitable : before.emitables) {
+                this.emitableItems.computeIfPresent(emitable, (k, providers) -> providers > 1 ? providers - 1 : null);
+            }
+        }
 
-                if (details.canBeSubstitute()) {
-                    craftableItemSubstitutes.put(out, details);
+        if (after != null) {
+            for (final PatternOption option : after.options) {
+                this.patternOptions.computeIfAbsent(option.pattern, k -> new ArrayList<>()).add(option);
+            }
+            for (final IAEItemStack emitable : after.emitables) {
+                this.emitableItems.merge(emitable, 1, Integer::sum);
+            }
+        }
+
+        final Set<IAEItemStack> affectedOutputs = new HashSet<>();
+        for (final Entry<ICraftingPatternDetails, List<ICraftingMedium>> e : previousMediums.entrySet()) {
+            final ICraftingPatternDetails pattern = e.getKey();
+            final Set<IAEItemStack> outputs = getCraftableOutputs(pattern);
+            affectedOutputs.addAll(outputs);
+
+            this.craftingMethods.remove(pattern);
+            for (final IAEItemStack out : outputs) {
+                final Set<ICraftingPatternDetails> patterns = this.patternsByOutput.get(out);
+                if (patterns != null) {
+                    patterns.remove(pattern);
+                }
+            }
+
+            final List<PatternOption> options = this.patternOptions.get(pattern);
+            List<ICraftingMedium> mediums = null;
+            if (options != null) {
+                // keep a pattern that is still offered, not the one that might have just left
+                final ICraftingPatternDetails current = options.get(0).pattern;
+                mediums = new ArrayList<>(options.size());
+                for (final PatternOption option : options) {
+                    mediums.add(option.medium);
+                }
+                this.craftingMethods.put(current, mediums);
+                for (final IAEItemStack out : outputs) {
+                    this.patternsByOutput.computeIfAbsent(out, k -> new HashSet<>()).add(current);
                 }
+            }
+
+            this.patternAnalysis.onPatternChanged(pattern, e.getValue(), mediums);
+        }
+
+        for (final IAEItemStack out : affectedOutputs) {
+            final Set<ICraftingPatternDetails> patterns = this.patternsByOutput.get(out);
+            if (patterns == null || patterns.isEmpty()) {
+                this.patternsByOutput.remove(out);
+                this.craftableItems.remove(out);
+            } else {
+                final Set<ICraftingPatternDetails> methods = new TreeSet<>(COMPARATOR);
+                methods.addAll(patterns);
+                this.craftableItems.put(out, ImmutableList.copyOf(methods));
+            }
+        }
+
+        for (final IAEItemStack item : affectedItems) {
+            if (wasCraftable.contains(item) != this.isCraftable(item)) {
+                changedItems.add(item);
+            }
+        }
+    }
 
-                Set<ICraftingPatternDetails> methods = tmpCraft.computeIfAbsent(out, k -> new TreeSet<>(COMPARATOR));
+    private void collectAffected(final ProviderPatterns patterns,
+            final Map<ICraftingPatternDetails, List<ICraftingMedium>> previousMediums,
+            final Set<IAEItemStack> affectedItems) {
+        if (patterns == null) {
+            return;
+        }
 
-                methods.add(details);
+        for (final PatternOption option : patterns.options) {
+            if (!previousMediums.containsKey(option.pattern)) {
+                previousMediums.put(option.pattern, this.craftingMethods.get(option.pattern));
+                affectedItems.addAll(getCraftableOutputs(option.pattern));
             }
         }
+        affectedItems.addAll(patterns.emitables);
+    }
 
-        craftableItemSubstitutes.freeze();
+    private boolean isCraftable(final IAEItemStack item) {
+        return this.craftableItems.containsKey(item) || this.emitableItems.containsKey(item);
+    }
 
-        // make them immutable
-        for (final Entry<IAEItemStack, Set<ICraftingPatternDetails>> e : tmpCraft.entrySet()) {
-            this.craftableItems.put(e.getKey(), ImmutableList.copyOf(e.getValue()));
+    private static Set<IAEItemStack> getCraftableOutputs(final ICraftingPatternDetails pattern) {
+        final Set<IAEItemStack> outputs = new HashSet<>();
+        for (IAEItemStack out : pattern.getOutputs()) {
+            out = out.copy();
+            out.reset();
+            out.setCraftable(true);
+            outputs.add(out);
         }
+        return outputs;
     }
 
     private void updateCPUClusters() {
@@ -332,24 +478,30 @@ public class CraftingGridCache
 
     @MENetworkEventSubscribe
     public void updateCPUClusters(final MENetworkCraftingPatternChange c) {
-        this.updatePatterns();
+        // the event names the duality for interfaces, while the grid knows the interface itself
+        if (c.node != null && c.node.getMachine() instanceof ICraftingProvider provider
+                && this.craftingProviders.contains(provider)) {
+            this.updatePatterns(provider);
+        } else if (this.craftingProviders.contains(c.provider)) {
+            this.updatePatterns(c.provider);
+        } else {
+            this.updatePatterns(null);
+        }
     }
 
     @Override
     public void addCraftingOption(final ICraftingMedium medium, final ICraftingPatternDetails api) {
-        List<ICraftingMedium> details = this.craftingMethods.get(api);
-        if (details == null) {
-            details = new ArrayList<>();
-            details.add(medium);
-            this.craftingMethods.put(api, details);
-        } else {
-            details.add(medium);
-        }
+        final ProviderPatterns target = this.collecting != null ? this.collecting : this.unownedPatterns;
+        target.options.add(new PatternOption(medium, api));
     }
 
     @Override
     public void setEmitable(final IAEItemStack someItem) {
-        this.emitableItems.add(someItem.copy());
+        final ProviderPatterns target = this.collecting != null ? this.collecting : this.unownedPatterns;
+        final IAEItemStack emitable = someItem.copy();
+        emitable.reset();
+        emitable.setCraftable(true);
+        target.emitables.add(emitable);
     }
 
     @Override
@@ -425,7 +577,7 @@ public class CraftingGridCache
             out.addCrafting(stack);
         }
 
-        for (final IAEItemStack st : this.emitableItems) {
+        for (final IAEItemStack st : this.emitableItems.keySet()) {
             out.addCrafting(st);
         }
 
@@ -444,7 +596,18 @@ public class CraftingGridCache
 
     @Override
     public ImmutableMap<IAEItemStack, ImmutableList<ICraftingPatternDetails>> getCraftingPatterns() {
-        return ImmutableMap.copyOf(this.craftableItems);
+        return this.getPatternSnapshot().getPatterns();
+    }
+
+    /**
+     * @return The network's patterns as of now, shared until they change
+     */
+    public PatternSnapshot getPatternSnapshot() {
+        return this.patternAnalysis.getSnapshot(() -> ImmutableMap.copyOf(this.craftableItems));
+    }
+
+    public PatternAnalysisCache getPatternAnalysis() {
+        return this.patternAnalysis;
     }
 
     @Override
@@ -574,7 +737,7 @@ public class CraftingGridCache
 
     @Override
     public boolean canEmitFor(final IAEItemStack someItem) {
-        return this.emitableItems.contains(someItem);
+        return this.emitableItems.containsKey(someItem);
     }
 
     @Override
@@ -606,6 +769,26 @@ public class CraftingGridCache
         return this.interestManager;
     }
 
+    /**
+     * A pattern as offered by one medium. Equal patterns from different mediums are different options.
+     */
+    private static final class PatternOption {
+
+        private final ICraftingMedium medium;
+        private final ICraftingPatternDetails pattern;
+
+        private PatternOption(final ICraftingMedium medium, final ICraftingPatternDetails pattern) {
+            this.medium = medium;
+            this.pattern = pattern;
+        }
+    }
+
+    private static final class ProviderPatterns {
+
+        private final List<PatternOption> options = new ArrayList<>();
+        private final List<IAEItemStack> emitables = new ArrayList<>();
+    }
+
     private static class ActiveCpuIterator implements Iterator<ICraftingCPU> {
 
         private final Iterator<CraftingCPUCluster> iterator;
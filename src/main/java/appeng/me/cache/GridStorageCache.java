@@ -10,6 +10,7 @@
 
 package appeng.me.cache;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
@@ -37,7 +38,9 @@ import appeng.api.networking.storage.IStackWatcherHost;
 import appeng.api.networking.storage.IStorageGrid;
 import appeng.api.storage.ICellCacheRegistry;
 import appeng.api.storage.ICellContainer;
+import appeng.api.storage.ICellInventoryHandler;
 import appeng.api.storage.ICellProvider;
+import appeng.api.storage.IMEInventory;
 import appeng.api.storage.IMEInventoryHandler;
 import appeng.api.storage.IMEMonitor;
 import appeng.api.storage.StorageChannel;
@@ -45,7 +48,6 @@ import appeng.api.storage.data.IAEFluidStack;
 import appeng.api.storage.data.IAEItemStack;
 import appeng.api.storage.data.IAEStack;
 import appeng.api.storage.data.IItemList;
-import appeng.core.AEConfig;
 import appeng.me.helpers.GenericInterestManager;
 import appeng.me.storage.ItemWatcher;
 import appeng.me.storage.MEInventoryHandler;
@@ -93,9 +95,10 @@ public class GridStorageCache implements IStorageGrid {
     private long essentiaCellO;
     private long essentiaCellR;
     private long essentiaCellCount;
-    private int ticksCount;
-    private int networkBytesUpdateFrequency;
 
+    private final HashMap<ICellProvider, List<CellRecord>> trackedCells = new HashMap<>();
+    private final HashSet<ICellProvider> changedCellProviders = new HashSet<>();
+    private final HashSet<CellRecord> changedCells = new HashSet<>();
     private final ItemStackMap<Integer> itemCells = new ItemStackMap<>();
     private final ItemStackMap<Integer> fluidCells = new ItemStackMap<>();
     private final ItemStackMap<Integer> essentiaCells = new ItemStackMap<>();
@@ -107,8 +110,6 @@ public class GridStorageCache implements IStorageGrid {
 
     public GridStorageCache(final IGrid g) {
         this.myGrid = g;
-        this.networkBytesUpdateFrequency = (int) (AEConfig.instance.networkBytesUpdateFrequency * 20);
-        this.ticksCount = this.networkBytesUpdateFrequency;
     }
 
     @Override
@@ -116,12 +117,24 @@ public class GridStorageCache implements IStorageGrid {
         this.itemMonitor.onTick();
         this.fluidMonitor.onTick();
 
-        // update every 1s by default
-        if (this.ticksCount < this.networkBytesUpdateFrequency) {
-            this.ticksCount++;
-        } else {
-            this.ticksCount = 0;
-            this.updateBytesInfo();
+        if (!this.changedCellProviders.isEmpty()) {
+            // reading a cell can make its provider rebuild its handlers, don't let that touch the set while in use
+            final ICellProvider[] changed = this.changedCellProviders.toArray(new ICellProvider[0]);
+            this.changedCellProviders.clear();
+            for (final ICellProvider provider : changed) {
+                if (this.activeCellProviders.contains(provider)) {
+                    this.trackCells(provider);
+                }
+            }
+        }
+
+        if (!this.changedCells.isEmpty()) {
+            for (final CellRecord cell : this.changedCells) {
+                this.countCell(cell, -1);
+                cell.read();
+                this.countCell(cell, 1);
+            }
+            this.changedCells.clear();
         }
     }
 
@@ -195,6 +208,8 @@ public class GridStorageCache implements IStorageGrid {
             for (final IMEInventoryHandler<IAEFluidStack> h : cc.getCellArray(StorageChannel.FLUIDS)) {
                 tracker.postChanges(StorageChannel.FLUIDS, 1, h, actionSrc);
             }
+
+            this.trackCells(cc);
         }
 
         return tracker;
@@ -218,6 +233,9 @@ public class GridStorageCache implements IStorageGrid {
             for (final IMEInventoryHandler<IAEFluidStack> h : cc.getCellArray(StorageChannel.FLUIDS)) {
                 tracker.postChanges(StorageChannel.FLUIDS, -1, h, actionSrc);
             }
+
+            this.untrackCells(cc);
+            this.changedCellProviders.remove(cc);
         }
 
         return tracker;
@@ -249,11 +267,12 @@ public class GridStorageCache implements IStorageGrid {
             }
         }
 
-        this.itemMonitor.forceUpdate();
-        this.fluidMonitor.forceUpdate();
-
+        // post the cells' contents before the rebuild, a list rebuilt first already holds them and would count them
+        // twice
         tracker.applyChanges();
 
+        this.itemMonitor.forceUpdate();
+        this.fluidMonitor.forceUpdate();
     }
 
     private void postChangesToNetwork(final StorageChannel chan, final int upOrDown, final IItemList availableItems,
@@ -307,12 +326,26 @@ public class GridStorageCache implements IStorageGrid {
     public void postAlterationOfStoredItems(final StorageChannel chan, final Iterable<? extends IAEStack> input,
             final BaseActionSource src) {
         if (chan == StorageChannel.ITEMS) {
+            if (this.myItemNetwork != null) {
+                this.myItemNetwork.invalidateItemLocations(input);
+            }
             this.itemMonitor.postChange(true, (Iterable<IAEItemStack>) input, src);
         } else if (chan == StorageChannel.FLUIDS) {
+            if (this.myFluidNetwork != null) {
+                this.myFluidNetwork.invalidateItemLocations(input);
+            }
             this.fluidMonitor.postChange(true, (Iterable<IAEFluidStack>) input, src);
         }
     }
 
+    /**
+     * Like {@link #postAlterationOfStoredItems} for items that only became craftable or stopped being craftable, each
+     * stack's craftable flag giving its new state.
+     */
+    public void postCraftableStateChanges(final Iterable<IAEItemStack> input, final BaseActionSource src) {
+        this.itemMonitor.postCraftableStateChanges(input, src);
+    }
+
     @Override
     public void registerCellProvider(final ICellProvider provider) {
         this.inactiveCellProviders.add(provider);
@@ -388,159 +421,175 @@ public class GridStorageCache implements IStorageGrid {
         }
     }
 
-    private void updateItemCellStatus(final double bytesTotalToAdd, final double bytesUsedToAdd, final int cellStatus,
-            final double typesTotalToAdd, final double typesUsedToAdd) {
-        this.itemBytesTotal += bytesTotalToAdd;
-        this.itemBytesUsed += bytesUsedToAdd;
-        switch (cellStatus) {
-            case CELL_GREEN -> itemCellG++;
-            case CELL_BLUE -> itemCellB++;
-            case CELL_ORANGE -> itemCellO++;
-            case CELL_RED -> itemCellR++;
-        }
-        this.itemTypesTotal += typesTotalToAdd;
-        this.itemTypesUsed += typesUsedToAdd;
-        this.itemCellCount++;
-    }
-
-    private void updateFluidCellStatus(final double bytesTotalToAdd, final double bytesUsedToAdd, final int cellStatus,
-            final double typesTotalToAdd, final double typesUsedToAdd) {
-        this.fluidBytesTotal += bytesTotalToAdd;
-        this.fluidBytesUsed += bytesUsedToAdd;
-        switch (cellStatus) {
-            case CELL_GREEN -> fluidCellG++;
-            case CELL_BLUE -> fluidCellB++;
-            case CELL_ORANGE -> fluidCellO++;
-            case CELL_RED -> fluidCellR++;
-        }
-        this.fluidTypesTotal += typesTotalToAdd;
-        this.fluidTypesUsed += typesUsedToAdd;
-        this.fluidCellCount++;
-    }
-
-    private void updateEssentiaCellStatus(final double bytesTotalToAdd, final double bytesUsedToAdd,
-            final int cellStatus, final double typesTotalToAdd, final double typesUsedToAdd) {
-        this.essentiaBytesTotal += bytesTotalToAdd;
-        this.essentiaBytesUsed += bytesUsedToAdd;
-        switch (cellStatus) {
-            case CELL_GREEN -> essentiaCellG++;
-            case CELL_BLUE -> essentiaCellB++;
-            case CELL_ORANGE -> essentiaCellO++;
-            case CELL_RED -> essentiaCellR++;
-        }
-        this.essentiaTypesTotal += typesTotalToAdd;
-        this.essentiaTypesUsed += typesUsedToAdd;
-        this.essentiaCellCount++;
-    }
-
-    private void updateCellsStatusFromRegistry(final ICellCacheRegistry iccr, final ItemStack newCellStack) {
-        switch (iccr.getCellType()) {
+    /**
+     * Adds (sign 1) or removes (sign -1) what one cell contributes to the totals shown in the network status.
+     */
+    private void countCell(final CellRecord cell, final int sign) {
+        switch (cell.type) {
             case ITEM -> {
-                this.updateItemCellStatus(
-                        iccr.getTotalBytes(),
-                        iccr.getUsedBytes(),
-                        iccr.getCellStatus(),
-                        iccr.getTotalTypes(),
-                        iccr.getUsedTypes());
-                this.putItemStackIntoMap(itemCells, newCellStack, iccr.getCellStatus());
+                this.itemBytesTotal += sign * cell.bytesTotal;
+                this.itemBytesUsed += sign * cell.bytesUsed;
+                switch (cell.status) {
+                    case CELL_GREEN -> this.itemCellG += sign;
+                    case CELL_BLUE -> this.itemCellB += sign;
+                    case CELL_ORANGE -> this.itemCellO += sign;
+                    case CELL_RED -> this.itemCellR += sign;
+                }
+                this.itemTypesTotal += sign * cell.typesTotal;
+                this.itemTypesUsed += sign * cell.typesUsed;
+                this.itemCellCount += sign;
+                countCellStack(this.itemCells, cell.stack, sign);
             }
             case FLUID -> {
-                this.updateFluidCellStatus(
-                        iccr.getTotalBytes(),
-                        iccr.getUsedBytes(),
-                        iccr.getCellStatus(),
-                        iccr.getTotalTypes(),
-                        iccr.getUsedTypes());
-                this.putItemStackIntoMap(fluidCells, newCellStack, iccr.getCellStatus());
+                this.fluidBytesTotal += sign * cell.bytesTotal;
+                this.fluidBytesUsed += sign * cell.bytesUsed;
+                switch (cell.status) {
+                    case CELL_GREEN -> this.fluidCellG += sign;
+                    case CELL_BLUE -> this.fluidCellB += sign;
+                    case CELL_ORANGE -> this.fluidCellO += sign;
+                    case CELL_RED -> this.fluidCellR += sign;
+                }
+                this.fluidTypesTotal += sign * cell.typesTotal;
+                this.fluidTypesUsed += sign * cell.typesUsed;
+                this.fluidCellCount += sign;
+                countCellStack(this.fluidCells, cell.stack, sign);
             }
             case ESSENTIA -> {
-                this.updateEssentiaCellStatus(
-                        iccr.getTotalBytes(),
-                        iccr.getUsedBytes(),
-                        iccr.getCellStatus(),
-                        iccr.getTotalTypes(),
-                        iccr.getUsedTypes());
-                this.putItemStackIntoMap(essentiaCells, newCellStack, iccr.getCellStatus());
+                this.essentiaBytesTotal += sign * cell.bytesTotal;
+                this.essentiaBytesUsed += sign * cell.bytesUsed;
+                switch (cell.status) {
+                    case CELL_GREEN -> this.essentiaCellG += sign;
+                    case CELL_BLUE -> this.essentiaCellB += sign;
+                    case CELL_ORANGE -> this.essentiaCellO += sign;
+                    case CELL_RED -> this.essentiaCellR += sign;
+                }
+                this.essentiaTypesTotal += sign * cell.typesTotal;
+                this.essentiaTypesUsed += sign * cell.typesUsed;
+                this.essentiaCellCount += sign;
+                countCellStack(this.essentiaCells, cell.stack, sign);
             }
         }
     }
 
-    private void updateBytesInfo() {
-        this.resetCellInfo();
-        try {
-            for (ICellProvider icp : this.activeCellProviders) {
-                if (icp instanceof TileDrive td) {
-                    for (int index = 0; index < td.getCellCount(); index++) {
-                        MEInventoryHandler<IAEItemStack> cellInv = td.getCellInvBySlot(index);
+    private static void countCellStack(final ItemStackMap<Integer> map, final ItemStack stack, final int sign) {
+        final Integer count = map.get(stack);
+        final int newCount = (count == null ? 0 : count) + sign;
+        if (newCount > 0) {
+            map.put(stack, newCount);
+        } else {
+            map.remove(stack);
+        }
+    }
 
-                        if (cellInv != null && cellInv.getInternal() instanceof ICellCacheRegistry iccr
-                                && iccr.canGetInv()) {
-                            ItemStack stack = td.getStackInSlot(index);
-                            this.updateCellsStatusFromRegistry(iccr, stack);
-                        }
+    /**
+     * Replaces what a provider's cells contribute to the totals with what they hold now.
+     */
+    private void trackCells(final ICellProvider provider) {
+        this.untrackCells(provider);
 
-                    }
+        final List<CellRecord> cells = new ArrayList<>();
+        if (provider instanceof TileDrive td) {
+            for (int index = 0; index < td.getCellCount(); index++) {
+                final MEInventoryHandler<IAEItemStack> cellInv = td.getCellInvBySlot(index);
+                if (cellInv != null && cellInv.getInternal() instanceof ICellCacheRegistry iccr && iccr.canGetInv()) {
+                    cells.add(new CellRecord(iccr, td.getStackInSlot(index)));
+                }
+            }
+        } else if (provider instanceof TileChest tc) {
+            final ItemStack stack = tc.getStackInSlot(1);
+            if (stack != null) {
+                IMEInventoryHandler<?> handler = tc.getInternalHandler(StorageChannel.ITEMS);
+                if (handler == null) {
+                    handler = tc.getInternalHandler(StorageChannel.FLUIDS);
+                }
+                if (handler instanceof ICellCacheRegistry iccr && iccr.canGetInv()) {
+                    cells.add(new CellRecord(iccr, stack));
+                }
+            }
+        }
 
-                } else if (icp instanceof TileChest tc) {
+        if (!cells.isEmpty()) {
+            for (final CellRecord cell : cells) {
+                this.countCell(cell, 1);
+            }
+            this.trackedCells.put(provider, cells);
+        }
+    }
 
-                    // Check if chest is empty
-                    ItemStack stack = tc.getStackInSlot(1);
-                    if (stack == null) continue;
+    private void untrackCells(final ICellProvider provider) {
+        final List<CellRecord> cells = this.trackedCells.remove(provider);
+        if (cells != null) {
+            for (final CellRecord cell : cells) {
+                this.countCell(cell, -1);
+                this.changedCells.remove(cell);
+            }
+        }
+    }
 
-                    IMEInventoryHandler handler = tc.getInternalHandler(StorageChannel.ITEMS);
-                    if (handler == null) {
-                        handler = tc.getInternalHandler(StorageChannel.FLUIDS);
-                    }
+    /**
+     * Called by drives and chests when a cell was inserted or removed, all cells of the provider are read again on the
+     * next tick.
+     */
+    public void onCellsChanged(final ICellProvider provider) {
+        this.changedCellProviders.add(provider);
+    }
 
-                    if (handler instanceof ICellCacheRegistry iccr && iccr.canGetInv()) {
-                        this.updateCellsStatusFromRegistry(iccr, stack);
-                    }
+    /**
+     * Called by drives and chests when the contents of one of their cells changed, only that cell is read again on the
+     * next tick.
+     */
+    public void onCellChanged(final ICellProvider provider, final IMEInventory<?> cellInventory) {
+        if (this.changedCellProviders.contains(provider)) {
+            return;
+        }
+
+        final List<CellRecord> cells = this.trackedCells.get(provider);
+        if (cells != null) {
+            for (final CellRecord cell : cells) {
+                if (cell.holds(cellInventory)) {
+                    this.changedCells.add(cell);
+                    return;
                 }
             }
-        } catch (Exception e) {
-            // XD Normally won't be here, just normally..
         }
-    }
 
-    private void putItemStackIntoMap(final ItemStackMap<Integer> map, final ItemStack stack, final int cellStatus) {
-        ItemStack newStack = new ItemStack(stack.getItem(), 1, stack.getItemDamage());
-        if (map.computeIfPresent(newStack, (currentStack, stackCount) -> stackCount + 1) == null) {
-            map.put(newStack, 1);
+        // not a cell we know of, like one whose handler was rebuilt since it was tracked
+        this.changedCellProviders.add(provider);
+    }
+
+    /**
+     * What a single cell contributed to the totals when it was last looked at.
+     */
+    private static class CellRecord {
+
+        private final ICellCacheRegistry cell;
+        private final ICellCacheRegistry.TYPE type;
+        private final ItemStack stack;
+        private long bytesTotal;
+        private long bytesUsed;
+        private long typesTotal;
+        private long typesUsed;
+        private int status;
+
+        private CellRecord(final ICellCacheRegistry iccr, final ItemStack cell) {
+            this.cell = iccr;
+            this.type = iccr.getCellType();
+            this.stack = new ItemStack(cell.getItem(), 1, cell.getItemDamage());
+            this.read();
         }
-    }
 
-    private void resetCellInfo() {
-        this.itemBytesTotal = 0;
-        this.itemBytesUsed = 0;
-        this.itemTypesTotal = 0;
-        this.itemTypesUsed = 0;
-        this.itemCellG = 0;
-        this.itemCellB = 0;
-        this.itemCellO = 0;
-        this.itemCellR = 0;
-        this.itemCellCount = 0;
-        this.fluidBytesTotal = 0;
-        this.fluidBytesUsed = 0;
-        this.fluidTypesTotal = 0;
-        this.fluidTypesUsed = 0;
-        this.fluidCellG = 0;
-        this.fluidCellB = 0;
-        this.fluidCellO = 0;
-        this.fluidCellR = 0;
-        this.fluidCellCount = 0;
-        this.essentiaBytesTotal = 0;
-        this.essentiaBytesUsed = 0;
-        this.essentiaTypesTotal = 0;
-        this.essentiaTypesUsed = 0;
-        this.essentiaCellG = 0;
-        this.essentiaCellB = 0;
-        this.essentiaCellO = 0;
-        this.essentiaCellR = 0;
-        this.essentiaCellCount = 0;
-
-        this.itemCells.clear();
-        this.fluidCells.clear();
-        this.essentiaCells.clear();
+        private void read() {
+            this.bytesTotal = this.cell.getTotalBytes();
+            this.bytesUsed = this.cell.getUsedBytes();
+            this.typesTotal = this.cell.getTotalTypes();
+            this.typesUsed = this.cell.getUsedTypes();
+            this.status = this.cell.getCellStatus();
+        }
+
+        private boolean holds(final IMEInventory<?> cellInventory) {
+            return this.cell == cellInventory
+                    || this.cell instanceof ICellInventoryHandler handler && handler.getCellInv() == cellInventory;
+        }
     }
 
     public ItemStackMap<Integer> getItemCells() {
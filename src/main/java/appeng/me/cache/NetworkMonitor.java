@@ -14,8 +14,10 @@ import java.util.Collection;
 import java.util.Deque;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.function.Predicate;
 
 import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
@@ -26,17 +28,25 @@ import com.google.common.collect.Lists;
 
 import appeng.api.config.AccessRestriction;
 import appeng.api.config.Actionable;
+import appeng.api.config.FuzzyMode;
 import appeng.api.networking.events.MENetworkStorageEvent;
 import appeng.api.networking.security.BaseActionSource;
 import appeng.api.storage.IMEInventoryHandler;
 import appeng.api.storage.IMEMonitor;
 import appeng.api.storage.IMEMonitorHandlerReceiver;
 import appeng.api.storage.StorageChannel;
+import appeng.api.storage.data.IAEItemStack;
 import appeng.api.storage.data.IAEStack;
 import appeng.api.storage.data.IItemList;
+import appeng.core.AEConfig;
+import appeng.core.AELog;
+import appeng.me.cache.helpers.IStorageCounterWatcher;
+import appeng.me.cache.helpers.StorageCounter;
+import appeng.me.cache.helpers.StorageCounters;
 import appeng.me.storage.ItemWatcher;
 import appeng.util.IterationCounter;
 import appeng.util.item.LazyItemList;
+import appeng.util.item.OreItemIndex;
 
 public class NetworkMonitor<T extends IAEStack<T>> implements IMEMonitor<T> {
 
@@ -55,8 +65,27 @@ public class NetworkMonitor<T extends IAEStack<T>> implements IMEMonitor<T> {
     @Nonnull
     private final Map<IMEMonitorHandlerReceiver<T>, Object> listeners;
 
+    @Nonnull
+    private final StorageCounters<T> counters;
+
+    /**
+     * The types of {@link #cachedList} by ore dictionary IDs, only kept on the item channel once something searched it.
+     */
+    @Nullable
+    private OreItemIndex oreIndex;
+
     private boolean sendEvent = false;
-    private boolean hasChanged = false;
+
+    /**
+     * Set when {@link #cachedList} can no longer be patched from the diff stream and has to be rebuilt from every cell
+     * on the next {@link #getStorageList()}.
+     */
+    private boolean needsRebuild = true;
+
+    /**
+     * Set while posting {@link #postCraftableStateChanges}, whose entries carry no amount.
+     */
+    private boolean postingCraftableStates = false;
 
     @Nonnegative
     private int localDepthSemaphore = 0;
@@ -66,6 +95,7 @@ public class NetworkMonitor<T extends IAEStack<T>> implements IMEMonitor<T> {
         this.myChannel = chan;
         this.cachedList = (IItemList<T>) chan.createList();
         this.listeners = new HashMap<>();
+        this.counters = new StorageCounters<>(chan);
     }
 
     @Override
@@ -123,15 +153,162 @@ public class NetworkMonitor<T extends IAEStack<T>> implements IMEMonitor<T> {
     @Nonnull
     @Override
     public IItemList<T> getStorageList() {
-        if (this.hasChanged) {
-            this.hasChanged = false;
-            this.cachedList.resetStatus();
-            return this.getAvailableItems(this.cachedList, IterationCounter.fetchNewId());
+        if (this.needsRebuild) {
+            this.rebuildCachedList();
+        } else if (AEConfig.instance != null && AEConfig.instance.debugStorageListConsistency) {
+            this.verifyCachedList();
         }
 
         return this.cachedList;
     }
 
+    private void rebuildCachedList() {
+        this.needsRebuild = false;
+        this.cachedList.resetStatus();
+        this.getAvailableItems(this.cachedList, IterationCounter.fetchNewId());
+
+        if (this.oreIndex != null) {
+            this.oreIndex.addAll((IItemList<IAEItemStack>) this.cachedList);
+        }
+    }
+
+    /**
+     * Everything in the storage list an ore filter matches, without testing every type in the list.
+     *
+     * @param filter a filter made by {@link appeng.util.prioitylist.OreFilteredList#makeFilter}, or anything else that
+     *               only looks at the ore names of a stack
+     */
+    @SuppressWarnings("unchecked")
+    public List<IAEItemStack> findOreFiltered(final Predicate<IAEItemStack> filter) {
+        if (this.myChannel != StorageChannel.ITEMS) {
+            throw new IllegalStateException("Ore filters only apply to items.");
+        }
+
+        final IItemList<IAEItemStack> list = (IItemList<IAEItemStack>) this.getStorageList();
+        if (this.oreIndex == null) {
+            this.oreIndex = new OreItemIndex();
+            this.oreIndex.addAll(list);
+        }
+
+        return this.oreIndex.findMatching(filter, list);
+    }
+
+    /**
+     * Debug mode: compares the incrementally maintained list against a full rebuild, logs every mismatch and falls back
+     * to the rebuilt list.
+     */
+    private void verifyCachedList() {
+        final IItemList<T> expected = (IItemList<T>) this.myChannel.createList();
+        this.getAvailableItems(expected, IterationCounter.fetchNewId());
+
+        int mismatches = 0;
+        int expectedSize = 0;
+        for (final T stack : expected) {
+            expectedSize++;
+            final T cached = this.cachedList.findPrecise(stack);
+            if (cached == null || !cached.isMeaningful()
+                    || cached.getStackSize() != stack.getStackSize()
+                    || cached.isCraftable() != stack.isCraftable()) {
+                mismatches++;
+                AELog.warn(
+                        "Storage list mismatch on %s channel for %s: cached %s, expected %s",
+                        this.myChannel,
+                        stack,
+                        cached == null ? 0 : cached.getStackSize(),
+                        stack.getStackSize());
+            }
+        }
+
+        int cachedSize = 0;
+        for (final T ignored : this.cachedList) {
+            cachedSize++;
+        }
+
+        if (mismatches > 0 || cachedSize != expectedSize) {
+            AELog.warn(
+                    "Storage list on %s channel diverged (%d mismatched, %d cached / %d expected types), rebuilding",
+                    this.myChannel,
+                    mismatches,
+                    cachedSize,
+                    expectedSize);
+            this.rebuildCachedList();
+        }
+    }
+
+    /**
+     * Patches {@link #cachedList} in place with a batch of changes. Entries without an amount, unless they come from
+     * {@link #postCraftableStateChanges}, or changes that would leave the list inconsistent schedule a full rebuild
+     * instead.
+     */
+    private void applyChangesToCachedList(final boolean add, final Iterable<T> changes) {
+        if (this.needsRebuild) {
+            return;
+        }
+
+        for (final T changedItem : changes) {
+            if (changedItem == null) {
+                continue;
+            }
+
+            final long delta = add ? changedItem.getStackSize() : -changedItem.getStackSize();
+            if (delta == 0) {
+                if (!this.postingCraftableStates) {
+                    this.needsRebuild = true;
+                    return;
+                }
+                this.applyCraftableState(changedItem);
+                continue;
+            }
+
+            final T cached = this.cachedList.findPrecise(changedItem);
+            if (cached != null) {
+                cached.incStackSize(delta);
+                if (cached.getStackSize() < 0) {
+                    this.needsRebuild = true;
+                    return;
+                }
+            } else if (delta > 0) {
+                final T stored = changedItem.copy();
+                stored.reset();
+                stored.setStackSize(delta);
+                this.cachedList.addStorage(stored);
+
+                if (this.oreIndex != null) {
+                    this.oreIndex.add((IAEItemStack) stored);
+                }
+            } else {
+                this.needsRebuild = true;
+                return;
+            }
+        }
+    }
+
+    private void applyCraftableState(final T changedItem) {
+        final T cached = this.cachedList.findPrecise(changedItem);
+        if (cached != null) {
+            cached.setCraftable(changedItem.isCraftable());
+        } else if (changedItem.isCraftable()) {
+            this.cachedList.addCrafting(changedItem);
+
+            if (this.oreIndex != null) {
+                this.oreIndex.add((IAEItemStack) this.cachedList.findPrecise(changedItem));
+            }
+        }
+    }
+
+    /**
+     * Posts items that became craftable or stopped being craftable, each stack's craftable flag giving its new state,
+     * so they can be patched into the storage list instead of rebuilding it.
+     */
+    void postCraftableStateChanges(final Iterable<T> changes, final BaseActionSource src) {
+        this.postingCraftableStates = true;
+        try {
+            this.postChange(true, changes, src);
+        } finally {
+            this.postingCraftableStates = false;
+        }
+    }
+
     @Override
     public T injectItems(final T input, final Actionable mode, final BaseActionSource src) {
         if (mode == Actionable.SIMULATE) {
@@ -159,6 +336,21 @@ public class NetworkMonitor<T extends IAEStack<T>> implements IMEMonitor<T> {
         this.listeners.remove(l);
     }
 
+    /**
+     * Watches the running total of everything on the network, or of everything a fuzzy filter matches, instead of
+     * listening to every change and summing the storage list again.
+     *
+     * @param filter the stack to sum fuzzy matches of, or null to count everything
+     */
+    public StorageCounter<T> watchCounter(@Nullable final T filter, final FuzzyMode mode,
+            final IStorageCounterWatcher<T> watcher, final Object verificationToken) {
+        return this.counters.watch(filter, mode, watcher, verificationToken, this::getStorageList);
+    }
+
+    public void unwatchCounter(final IStorageCounterWatcher<T> watcher) {
+        this.counters.unwatch(watcher);
+    }
+
     @Override
     public boolean validForPass(final int i) {
         return this.getHandler().validForPass(i);
@@ -200,8 +392,9 @@ public class NetworkMonitor<T extends IAEStack<T>> implements IMEMonitor<T> {
         return leftOvers;
     }
 
-    private void notifyListenersOfChange(final Iterable<T> diff, final BaseActionSource src) {
-        this.hasChanged = true;
+    private void notifyListenersOfChange(final boolean add, final Iterable<T> diff, final BaseActionSource src) {
+        this.applyChangesToCachedList(add, diff);
+        this.updateCounters(add, diff);
         final Iterator<Entry<IMEMonitorHandlerReceiver<T>, Object>> i = this.getListeners();
 
         while (i.hasNext()) {
@@ -215,12 +408,27 @@ public class NetworkMonitor<T extends IAEStack<T>> implements IMEMonitor<T> {
         }
     }
 
+    private void updateCounters(final boolean add, final Iterable<T> diff) {
+        if (this.counters.isEmpty()) {
+            return;
+        }
+
+        if (this.needsRebuild) {
+            // the counters follow the list, when it can't be patched they are seeded from the rebuilt one
+            this.counters.recalculate(this.getStorageList());
+        } else {
+            this.counters.postChange(add, diff);
+        }
+    }
+
     private void postChangesToListeners(final Iterable<T> changes, final BaseActionSource src) {
         this.postChange(true, changes, src);
     }
 
     protected void postChange(final boolean add, final Iterable<T> changes, final BaseActionSource src) {
         if (localDepthSemaphore > 0 || GLOBAL_DEPTH.contains(this)) {
+            // the change is dropped, the patched list would miss it for good
+            this.needsRebuild = true;
             return;
         }
 
@@ -229,7 +437,7 @@ public class NetworkMonitor<T extends IAEStack<T>> implements IMEMonitor<T> {
 
         this.sendEvent = true;
 
-        this.notifyListenersOfChange(changes, src);
+        this.notifyListenersOfChange(add, changes, src);
 
         for (final T changedItem : changes) {
             if (changedItem == null) {
@@ -276,7 +484,7 @@ public class NetworkMonitor<T extends IAEStack<T>> implements IMEMonitor<T> {
     }
 
     void forceUpdate() {
-        this.hasChanged = true;
+        this.needsRebuild = true;
 
         final Iterator<Entry<IMEMonitorHandlerReceiver<T>, Object>> i = this.getListeners();
         while (i.hasNext()) {
@@ -289,6 +497,10 @@ public class NetworkMonitor<T extends IAEStack<T>> implements IMEMonitor<T> {
                 i.remove();
             }
         }
+
+        if (!this.counters.isEmpty()) {
+            this.counters.recalculate(this.getStorageList());
+        }
     }
 
     void onTick() {
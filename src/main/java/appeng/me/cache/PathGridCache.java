@@ -46,6 +46,7 @@ import appeng.me.pathfinding.AdHocChannelUpdater;
 import appeng.me.pathfinding.ControllerChannelUpdater;
 import appeng.me.pathfinding.ControllerValidator;
 import appeng.me.pathfinding.IPathItem;
+import appeng.me.pathfinding.IncrementalPathUpdate;
 import appeng.me.pathfinding.PathSegment;
 import appeng.tile.networking.TileController;
 import appeng.tile.networking.TileCreativeEnergyController;
@@ -57,13 +58,16 @@ public class PathGridCache implements IPathingGrid {
     private final Set<TileController> controllers = new HashSet<>();
     private final Set<IGridNode> requireChannels = new HashSet<>();
     private final Set<IGridNode> blockDense = new HashSet<>();
+    private final IncrementalPathUpdate changes = new IncrementalPathUpdate();
     private final IGrid myGrid;
     private int channelsInUse = 0;
     private int channelsByBlocks = 0;
+    private int channelsDenied = 0;
     private double channelPowerUsage = 0.0;
     private boolean recalculateControllerNextTick = true;
     private boolean updateNetwork = true;
     private boolean booting = false;
+    private boolean routesValid = false;
     private ControllerState controllerState = ControllerState.NO_CONTROLLER;
     private int ticksUntilReady = 20;
     private int lastChannels = 0;
@@ -79,6 +83,16 @@ public class PathGridCache implements IPathingGrid {
             this.recalcController();
         }
 
+        if (!this.changes.isEmpty()) {
+            if (this.updateNetwork || !this.canUpdateIncrementally() || !this.changes.apply(this)) {
+                this.repath();
+            } else {
+                this.achievementPost();
+                this.setChannelPowerUsage(this.getChannelsByBlocks() / 128.0);
+            }
+            this.changes.clear();
+        }
+
         if (this.updateNetwork) {
             if (!this.booting) {
                 this.myGrid.postEvent(new MENetworkBootingStatusChange(true));
@@ -87,6 +101,7 @@ public class PathGridCache implements IPathingGrid {
             this.booting = true;
             this.updateNetwork = false;
             this.setChannelsInUse(0);
+            this.setChannelsDenied(0);
 
             if (this.controllerState == ControllerState.NO_CONTROLLER) {
                 final int requiredChannels = this.calculateRequiredChannels();
@@ -161,6 +176,7 @@ public class PathGridCache implements IPathingGrid {
                         final TileController controller = controllerIterator.next();
                         controller.getGridNode(ForgeDirection.UNKNOWN).beginVisit(new ControllerChannelUpdater());
                     }
+                    this.routesValid = true;
                 }
 
                 // check for achievements
@@ -196,7 +212,11 @@ public class PathGridCache implements IPathingGrid {
             this.blockDense.remove(gridNode);
         }
 
-        this.repath();
+        if (this.recalculateControllerNextTick) {
+            this.repath();
+        } else {
+            this.changes.onNodeRemoved((IPathItem) gridNode);
+        }
     }
 
     @Override
@@ -222,7 +242,25 @@ public class PathGridCache implements IPathingGrid {
             this.blockDense.add(gridNode);
         }
 
-        this.repath();
+        if (this.recalculateControllerNextTick) {
+            this.repath();
+        } else {
+            this.changes.onNodeAdded((IPathItem) gridNode);
+        }
+    }
+
+    /**
+     * Called before the connection is added to its sides.
+     */
+    public void onConnectionAdded(final GridConnection connection) {
+        this.changes.onConnectionAdded(connection);
+    }
+
+    /**
+     * Called before the connection is removed from its sides.
+     */
+    public void onConnectionRemoved(final GridConnection connection) {
+        this.changes.onConnectionRemoved(connection);
     }
 
     @Override
@@ -361,6 +399,17 @@ public class PathGridCache implements IPathingGrid {
         this.active.clear();
         this.setChannelsByBlocks(0);
         this.updateNetwork = true;
+        this.routesValid = false;
+    }
+
+    /**
+     * Only routes assigned from an online controller, and not being reassigned, can be updated in place.
+     */
+    private boolean canUpdateIncrementally() {
+        return this.routesValid && !this.recalculateControllerNextTick
+                && this.controllerState == ControllerState.CONTROLLER_ONLINE
+                && this.active.isEmpty()
+                && this.ticksUntilReady <= 0;
     }
 
     double getChannelPowerUsage() {
@@ -386,4 +435,12 @@ public class PathGridCache implements IPathingGrid {
     public void setChannelsInUse(final int channelsInUse) {
         this.channelsInUse = channelsInUse;
     }
+
+    public int getChannelsDenied() {
+        return this.channelsDenied;
+    }
+
+    public void setChannelsDenied(final int channelsDenied) {
+        this.channelsDenied = channelsDenied;
+    }
 }
@@ -10,8 +10,10 @@
 
 package appeng.me.cache;
 
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
-import java.util.PriorityQueue;
+import java.util.List;
 
 import net.minecraft.crash.CrashReport;
 import net.minecraft.crash.CrashReportCategory;
@@ -29,6 +31,7 @@ import appeng.api.util.DimensionalCoord;
 import appeng.core.AEConfig;
 import appeng.core.AELog;
 import appeng.me.cache.helpers.TickTracker;
+import appeng.me.cache.helpers.TickWheel;
 
 public class TickManagerCache implements ITickManager {
 
@@ -36,8 +39,8 @@ public class TickManagerCache implements ITickManager {
     private final HashMap<IGridNode, TickTracker> alertable = new HashMap<>();
     private final HashMap<IGridNode, TickTracker> sleeping = new HashMap<>();
     private final HashMap<IGridNode, TickTracker> awake = new HashMap<>();
-    private final PriorityQueue<TickTracker> upcomingTicks = new PriorityQueue<>();
     private long currentTick = 0;
+    private final TickWheel upcomingTicks = new TickWheel(this.currentTick);
 
     public TickManagerCache(final IGrid g) {
         this.myGrid = g;
@@ -61,57 +64,72 @@ public class TickManagerCache implements ITickManager {
         return tt.getAvgNanos();
     }
 
+    /**
+     * @return the trackers of all awake and sleeping devices, ordered by their average tick time, most expensive first
+     */
+    public List<TickTracker> getTrackersByCost() {
+        final List<TickTracker> trackers = new ArrayList<>(this.awake.size() + this.sleeping.size());
+        trackers.addAll(this.awake.values());
+        trackers.addAll(this.sleeping.values());
+        trackers.sort(Comparator.comparingLong(TickTracker::getAvgNanos).reversed());
+        return trackers;
+    }
+
+    public void resetTickTimes() {
+        for (final TickTracker tt : this.awake.values()) {
+            tt.resetTickTimes();
+        }
+        for (final TickTracker tt : this.sleeping.values()) {
+            tt.resetTickTimes();
+        }
+    }
+
     @Override
     public void onUpdateTick() {
         TickTracker tt = null;
         try {
             this.currentTick++;
-            while (!this.upcomingTicks.isEmpty()) {
-                tt = this.upcomingTicks.peek();
+            this.upcomingTicks.beginTick(this.currentTick);
+            while ((tt = this.upcomingTicks.poll()) != null) {
                 final int diff = (int) (this.currentTick - tt.getLastTick());
-                if (diff >= tt.getCurrentRate()) {
-                    // remove tt..
-                    this.upcomingTicks.poll();
-                    long tickStartTime = 0;
-                    if (AEConfig.instance.debugLogTiming) tickStartTime = System.nanoTime();
-                    final TickRateModulation mod = tt.getGridTickable().tickingRequest(tt.getNode(), diff);
-                    if (AEConfig.instance.debugLogTiming) {
-                        DimensionalCoord c = tt.getNode().getGridBlock().getLocation();
-                        AELog.debug(
-                                "Timing: machine tick at (%d %d %d) took %d ns, new state is %s",
-                                c.x,
-                                c.y,
-                                c.z,
-                                System.nanoTime() - tickStartTime,
-                                mod.toString());
-                    }
-                    switch (mod) {
-                        case FASTER:
-                            tt.setRate(tt.getCurrentRate() - 2);
-                            break;
-                        case IDLE:
-                            tt.setRate(tt.getRequest().maxTickRate);
-                            break;
-                        case SAME:
-                            break;
-                        case SLEEP:
-                            this.sleepDevice(tt.getNode());
-                            break;
-                        case SLOWER:
-                            tt.setRate(tt.getCurrentRate() + 1);
-                            break;
-                        case URGENT:
-                            tt.setRate(0);
-                            break;
-                        default:
-                            break;
-                    }
-
-                    if (this.awake.containsKey(tt.getNode())) {
-                        this.addToQueue(tt);
-                    }
-                } else {
-                    return; // done!
+                final long tickStartTime = System.nanoTime();
+                final TickRateModulation mod = tt.getGridTickable().tickingRequest(tt.getNode(), diff);
+                final long tickTime = System.nanoTime() - tickStartTime;
+                tt.recordTickTime(tickTime);
+                if (AEConfig.instance.debugLogTiming) {
+                    DimensionalCoord c = tt.getNode().getGridBlock().getLocation();
+                    AELog.debug(
+                            "Timing: machine tick at (%d %d %d) took %d ns, new state is %s",
+                            c.x,
+                            c.y,
+                            c.z,
+                            tickTime,
+                            mod.toString());
+                }
+                switch (mod) {
+                    case FASTER:
+                        tt.setRate(tt.getCurrentRate() - 2);
+                        break;
+                    case IDLE:
+                        tt.setRate(tt.getRequest().maxTickRate);
+                        break;
+                    case SAME:
+                        break;
+                    case SLEEP:
+                        this.sleepDevice(tt.getNode());
+                        break;
+                    case SLOWER:
+                        tt.setRate(tt.getCurrentRate() + 1);
+                        break;
+                    case URGENT:
+                        tt.setRate(0);
+                        break;
+                    default:
+                        break;
+                }
+
+                if (this.awake.containsKey(tt.getNode())) {
+                    this.addToQueue(tt);
                 }
             }
         } catch (final Throwable t) {
@@ -120,20 +138,26 @@ public class TickManagerCache implements ITickManager {
                     .makeCategory(tt.getGridTickable().getClass().getSimpleName() + " being ticked.");
             tt.addEntityCrashInfo(crashreportcategory);
             throw new ReportedException(crashreport);
+        } finally {
+            this.upcomingTicks.endTick();
         }
     }
 
     private void addToQueue(final TickTracker tt) {
         tt.setLastTick(this.currentTick);
-        this.upcomingTicks.add(tt);
+        this.upcomingTicks.schedule(tt, tt.getNextTick());
     }
 
     @Override
     public void removeNode(final IGridNode gridNode, final IGridHost machine) {
         if (machine instanceof IGridTickable) {
             this.alertable.remove(gridNode);
-            this.upcomingTicks.remove(this.sleeping.remove(gridNode));
-            this.upcomingTicks.remove(this.awake.remove(gridNode));
+            this.sleeping.remove(gridNode);
+
+            final TickTracker tt = this.awake.remove(gridNode);
+            if (tt != null) {
+                this.upcomingTicks.cancel(tt);
+            }
         }
     }
 
@@ -142,7 +166,7 @@ public class TickManagerCache implements ITickManager {
         if (machine instanceof IGridTickable) {
             final TickingRequest tr = ((IGridTickable) machine).getTickingRequest(gridNode);
             if (tr != null) {
-                final TickTracker tt = new TickTracker(tr, gridNode, (IGridTickable) machine, this.currentTick, this);
+                final TickTracker tt = new TickTracker(tr, gridNode, (IGridTickable) machine, this.currentTick);
 
                 if (tr.canBeAlerted) {
                     this.alertable.put(gridNode, tt);
@@ -185,8 +209,7 @@ public class TickManagerCache implements ITickManager {
         tt.setCurrentRate(tt.getRequest().minTickRate);
 
         // prevent dupes and tick build up.
-        this.upcomingTicks.remove(tt);
-        this.upcomingTicks.add(tt);
+        this.upcomingTicks.schedule(tt, tt.getNextTick());
 
         return true;
     }
@@ -197,7 +220,7 @@ public class TickManagerCache implements ITickManager {
             final TickTracker gt = this.awake.get(node);
             this.awake.remove(node);
             this.sleeping.put(node, gt);
-            this.upcomingTicks.remove(gt);
+            this.upcomingTicks.cancel(gt);
 
             return true;
         }
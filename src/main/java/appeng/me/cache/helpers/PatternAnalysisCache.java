@@ -0,0 +1,185 @@
+/*
+ * This file is part of Applied Energistics 2. Copyright (c) 2013 - 2014, AlgorithmX2, All rights reserved. Applied
+ * Energistics 2 is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version. Applied Energistics 2 is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details. You should have received a copy of the GNU Lesser General Public License along with
+ * Applied Energistics 2. If not, see <http://www.gnu.org/licenses/lgpl>.
+ */
+
+package appeng.me.cache.helpers;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import appeng.api.networking.crafting.ICraftingMedium;
+import appeng.api.networking.crafting.ICraftingPatternDetails;
+import appeng.api.storage.data.IAEItemStack;
+import appeng.util.item.OreListMultiMap;
+
+/**
+ * What crafting calculations work out about the patterns of one network, kept from one calculation to the next.
+ * <p>
+ * The pattern map and its fuzzy index are an immutable {@link PatternSnapshot} shared by every calculation started
+ * until the patterns change. Whether a pattern is complex and which icon its crafter has are remembered per pattern;
+ * when a pattern changes it only loses its complexity if it left the network, and only loses its icon if its mediums
+ * changed.
+ * <p>
+ * Calculations read this from worker threads, it is only changed on the server thread.
+ */
+public class PatternAnalysisCache {
+
+    public enum Analysis {
+        PATTERNS,
+        FUZZY_PATTERNS,
+        COMPLEXITY,
+        CRAFTER_ICON
+    }
+
+    /**
+     * The craftable items of a network at one point in time, with the fuzzy index built the first time it is needed.
+     */
+    public static final class PatternSnapshot {
+
+        private final PatternAnalysisCache owner;
+        private final ImmutableMap<IAEItemStack, ImmutableList<ICraftingPatternDetails>> patterns;
+        private volatile OreListMultiMap<ICraftingPatternDetails> fuzzyPatterns;
+
+        private PatternSnapshot(PatternAnalysisCache owner,
+                ImmutableMap<IAEItemStack, ImmutableList<ICraftingPatternDetails>> patterns) {
+            this.owner = owner;
+            this.patterns = patterns;
+        }
+
+        public ImmutableMap<IAEItemStack, ImmutableList<ICraftingPatternDetails>> getPatterns() {
+            return this.patterns;
+        }
+
+        public List<ICraftingPatternDetails> getFuzzyPatternsFor(@Nonnull IAEItemStack stack) {
+            OreListMultiMap<ICraftingPatternDetails> index = this.fuzzyPatterns;
+            if (index == null) {
+                synchronized (this) {
+                    index = this.fuzzyPatterns;
+                    if (index == null) {
+                        this.owner.count(Analysis.FUZZY_PATTERNS, false);
+                        index = buildFuzzyIndex(this.patterns);
+                        this.fuzzyPatterns = index;
+                        return index.get(stack);
+                    }
+                }
+            }
+            this.owner.count(Analysis.FUZZY_PATTERNS, true);
+            return index.get(stack);
+        }
+
+        private static OreListMultiMap<ICraftingPatternDetails> buildFuzzyIndex(
+                ImmutableMap<IAEItemStack, ImmutableList<ICraftingPatternDetails>> patterns) {
+            final OreListMultiMap<ICraftingPatternDetails> index = new OreListMultiMap<>();
+            for (final ImmutableList<ICraftingPatternDetails> patternSet : patterns.values()) {
+                for (final ICraftingPatternDetails pattern : patternSet) {
+                    if (pattern.canBeSubstitute()) {
+                        for (final IAEItemStack output : pattern.getOutputs()) {
+                            index.put(output.copy(), pattern);
+                        }
+                    }
+                }
+            }
+            index.freeze();
+            return index;
+        }
+    }
+
+    private volatile PatternSnapshot snapshot;
+    private final Map<ICraftingPatternDetails, Boolean> complexity = new ConcurrentHashMap<>();
+    private final Map<ICraftingPatternDetails, IAEItemStack> crafterIcons = new ConcurrentHashMap<>();
+    private final AtomicLongArray hits = new AtomicLongArray(Analysis.values().length);
+    private final AtomicLongArray misses = new AtomicLongArray(Analysis.values().length);
+
+    /**
+     * @param patterns Builds the pattern map if there is no snapshot of the current patterns yet
+     */
+    public PatternSnapshot getSnapshot(
+            @Nonnull Supplier<ImmutableMap<IAEItemStack, ImmutableList<ICraftingPatternDetails>>> patterns) {
+        PatternSnapshot current = this.snapshot;
+        this.count(Analysis.PATTERNS, current != null);
+        if (current == null) {
+            current = new PatternSnapshot(this, patterns.get());
+            this.snapshot = current;
+        }
+        return current;
+    }
+
+    /**
+     * @return Whether the pattern leaves items in the crafting grid, null if that isn't known yet
+     */
+    @Nullable
+    public Boolean getComplexity(@Nonnull ICraftingPatternDetails pattern) {
+        final Boolean isComplex = this.complexity.get(pattern);
+        this.count(Analysis.COMPLEXITY, isComplex != null);
+        return isComplex;
+    }
+
+    public void setComplexity(@Nonnull ICraftingPatternDetails pattern, boolean isComplex) {
+        this.complexity.put(pattern, isComplex);
+    }
+
+    @Nullable
+    public IAEItemStack getCrafterIcon(@Nonnull ICraftingPatternDetails pattern) {
+        final IAEItemStack icon = this.crafterIcons.get(pattern);
+        this.count(Analysis.CRAFTER_ICON, icon != null);
+        return icon;
+    }
+
+    public void setCrafterIcon(@Nonnull ICraftingPatternDetails pattern, @Nullable IAEItemStack icon) {
+        if (icon != null) {
+            this.crafterIcons.put(pattern, icon);
+        }
+    }
+
+    /**
+     * Forgets what no longer holds after the mediums providing a pattern changed from {@code before} to {@code after},
+     * null when the pattern wasn't or isn't on the network.
+     */
+    public void onPatternChanged(@Nonnull ICraftingPatternDetails pattern, @Nullable List<ICraftingMedium> before,
+            @Nullable List<ICraftingMedium> after) {
+        this.snapshot = null;
+        if (after == null) {
+            this.complexity.remove(pattern);
+        }
+        if (!Objects.equals(before, after)) {
+            this.crafterIcons.remove(pattern);
+        }
+    }
+
+    public long getHits(@Nonnull Analysis analysis) {
+        return this.hits.get(analysis.ordinal());
+    }
+
+    public long getMisses(@Nonnull Analysis analysis) {
+        return this.misses.get(analysis.ordinal());
+    }
+
+    /**
+     * @return The share of lookups answered from the cache, 0 if there were none
+     */
+    public double getHitRate(@Nonnull Analysis analysis) {
+        final long hit = this.getHits(analysis);
+        final long total = hit + this.getMisses(analysis);
+        return total == 0 ? 0 : (double) hit / total;
+    }
+
+    private void count(Analysis analysis, boolean hit) {
+        (hit ? this.hits : this.misses).incrementAndGet(analysis.ordinal());
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * This file is part of Applied Energistics 2. Copyright (c) 2013 - 2014, AlgorithmX2, All rights reserved. Applied
+ * Energistics 2 is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version. Applied Energistics 2 is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details. You should have received a copy of the GNU Lesser General Public License along with
+ * Applied Energistics 2. If not, see <http://www.gnu.org/licenses/lgpl>.
+ */
+
+package appeng.me.cache.helpers;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import javax.annotation.Nullable;
+
+import appeng.api.config.FuzzyMode;
+import appeng.api.storage.data.IAEStack;
+
+/**
+ * The running total of every stack on a network, or of every stack a fuzzy filter matches, shared by everything that
+ * watches the same filter and kept up to date from the network's changes.
+ */
+public class StorageCounter<T extends IAEStack<T>> {
+
+    @Nullable
+    private final T filter;
+    private final FuzzyMode mode;
+    private final Map<IStorageCounterWatcher<T>, Object> watchers = new HashMap<>();
+
+    private long value;
+    private boolean changed;
+
+    StorageCounter(@Nullable final T filter, final FuzzyMode mode) {
+        this.filter = filter;
+        this.mode = mode;
+    }
+
+    public long getValue() {
+        return this.value;
+    }
+
+    /**
+     * @return the stack the counter sums fuzzy matches of, or null when it counts everything
+     */
+    @Nullable
+    public T getFilter() {
+        return this.filter;
+    }
+
+    public FuzzyMode getFuzzyMode() {
+        return this.mode;
+    }
+
+    void setValue(final long value) {
+        if (this.value != value) {
+            this.value = value;
+            this.changed = true;
+        }
+    }
+
+    /**
+     * @return true the first time the counter changes since it last notified its watchers
+     */
+    boolean add(final long delta) {
+        this.value += delta;
+        final boolean first = !this.changed;
+        this.changed = true;
+        return first;
+    }
+
+    Map<IStorageCounterWatcher<T>, Object> getWatchers() {
+        return this.watchers;
+    }
+
+    void notifyWatchers() {
+        if (!this.changed) {
+            return;
+        }
+        this.changed = false;
+
+        final Iterator<Entry<IStorageCounterWatcher<T>, Object>> i = this.watchers.entrySet().iterator();
+        while (i.hasNext()) {
+            final Entry<IStorageCounterWatcher<T>, Object> o = i.next();
+            if (o.getKey().isValid(o.getValue())) {
+                o.getKey().onCounterChange(this);
+            } else {
+                i.remove();
+            }
+        }
+    }
+}
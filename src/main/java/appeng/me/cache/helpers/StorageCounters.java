@@ -0,0 +1,233 @@
+/*
+ * This file is part of Applied Energistics 2. Copyright (c) 2013 - 2014, AlgorithmX2, All rights reserved. Applied
+ * Energistics 2 is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version. Applied Energistics 2 is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details. You should have received a copy of the GNU Lesser General Public License along with
+ * Applied Energistics 2. If not, see <http://www.gnu.org/licenses/lgpl>.
+ */
+
+package appeng.me.cache.helpers;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+import javax.annotation.Nullable;
+
+import appeng.api.config.FuzzyMode;
+import appeng.api.storage.StorageChannel;
+import appeng.api.storage.data.IAEStack;
+import appeng.api.storage.data.IItemList;
+
+/**
+ * The {@link StorageCounter}s of one network monitor.
+ * <p>
+ * Each change the monitor posts is added to the whole-network counter and to the fuzzy counters matching the changed
+ * stack, so keeping a counter current costs nothing per stored type. Which fuzzy counters a stack belongs to is worked
+ * out once per stack type with the same {@link IItemList#findFuzzy} the counters are seeded with, and remembered until
+ * the set of fuzzy counters changes.
+ */
+public class StorageCounters<T extends IAEStack<T>> {
+
+    private final StorageChannel channel;
+    private final Map<CounterKey<T>, StorageCounter<T>> counters = new HashMap<>();
+    private final List<StorageCounter<T>> fuzzyCounters = new ArrayList<>();
+    private final Map<T, List<StorageCounter<T>>> matchingCounters = new HashMap<>();
+    private final List<StorageCounter<T>> changedCounters = new ArrayList<>();
+
+    @Nullable
+    private StorageCounter<T> total;
+
+    public StorageCounters(final StorageChannel channel) {
+        this.channel = channel;
+    }
+
+    public boolean isEmpty() {
+        return this.counters.isEmpty();
+    }
+
+    /**
+     * Starts watching the counter for a filter, creating and seeding it from the storage list if nobody watched it yet.
+     * A watcher only ever watches one counter, watching another one stops watching the previous.
+     *
+     * @param filter the stack to sum fuzzy matches of, or null to count everything
+     */
+    public StorageCounter<T> watch(@Nullable final T filter, final FuzzyMode mode,
+            final IStorageCounterWatcher<T> watcher, final Object verificationToken,
+            final Supplier<IItemList<T>> storageList) {
+        final CounterKey<T> key = new CounterKey<>(filter, mode);
+        StorageCounter<T> counter = this.counters.get(key);
+
+        if (counter == null || !counter.getWatchers().containsKey(watcher)) {
+            this.unwatch(watcher);
+        }
+
+        if (counter == null) {
+            counter = new StorageCounter<>(filter == null ? null : filter.copy(), key.mode);
+            counter.setValue(sum(counter, storageList.get()));
+            this.counters.put(new CounterKey<>(counter.getFilter(), counter.getFuzzyMode()), counter);
+
+            if (filter == null) {
+                this.total = counter;
+            } else {
+                this.fuzzyCounters.add(counter);
+                this.matchingCounters.clear();
+            }
+        }
+
+        counter.getWatchers().put(watcher, verificationToken);
+        return counter;
+    }
+
+    public void unwatch(final IStorageCounterWatcher<T> watcher) {
+        for (final StorageCounter<T> counter : this.counters.values()) {
+            if (counter.getWatchers().remove(watcher) != null) {
+                if (counter.getWatchers().isEmpty()) {
+                    this.remove(counter);
+                }
+                return;
+            }
+        }
+    }
+
+    private void remove(final StorageCounter<T> counter) {
+        this.counters.remove(new CounterKey<>(counter.getFilter(), counter.getFuzzyMode()));
+
+        if (counter == this.total) {
+            this.total = null;
+        } else {
+            this.fuzzyCounters.remove(counter);
+            this.matchingCounters.clear();
+        }
+    }
+
+    /**
+     * Adds a batch of changes, posted the same way as to the monitor's listeners, and tells the watchers of every
+     * counter that moved.
+     */
+    public void postChange(final boolean add, final Iterable<T> changes) {
+        if (this.counters.isEmpty()) {
+            return;
+        }
+
+        for (final T changedItem : changes) {
+            if (changedItem == null || changedItem.getStackSize() == 0) {
+                continue;
+            }
+
+            final long delta = add ? changedItem.getStackSize() : -changedItem.getStackSize();
+
+            if (this.total != null && this.total.add(delta)) {
+                this.changedCounters.add(this.total);
+            }
+
+            if (!this.fuzzyCounters.isEmpty()) {
+                for (final StorageCounter<T> counter : this.getMatchingCounters(changedItem)) {
+                    if (counter.add(delta)) {
+                        this.changedCounters.add(counter);
+                    }
+                }
+            }
+        }
+
+        this.notifyChangedCounters();
+    }
+
+    /**
+     * Seeds every counter again from a rebuilt storage list.
+     */
+    public void recalculate(final IItemList<T> storageList) {
+        for (final StorageCounter<T> counter : this.counters.values()) {
+            counter.setValue(sum(counter, storageList));
+            this.changedCounters.add(counter);
+        }
+
+        this.notifyChangedCounters();
+    }
+
+    private void notifyChangedCounters() {
+        if (this.changedCounters.isEmpty()) {
+            return;
+        }
+
+        final List<StorageCounter<T>> changed = new ArrayList<>(this.changedCounters);
+        this.changedCounters.clear();
+
+        for (final StorageCounter<T> counter : changed) {
+            counter.notifyWatchers();
+            if (counter.getWatchers().isEmpty() && this.counters.get(
+                    new CounterKey<>(counter.getFilter(), counter.getFuzzyMode())) == counter) {
+                this.remove(counter);
+            }
+        }
+    }
+
+    private List<StorageCounter<T>> getMatchingCounters(final T stack) {
+        List<StorageCounter<T>> matching = this.matchingCounters.get(stack);
+
+        if (matching == null) {
+            final IItemList<T> single = (IItemList<T>) this.channel.createList();
+            final T type = stack.copy();
+            type.reset();
+            type.setStackSize(1);
+            single.add(type);
+
+            matching = new ArrayList<>(0);
+            for (final StorageCounter<T> counter : this.fuzzyCounters) {
+                if (!single.findFuzzy(counter.getFilter(), counter.getFuzzyMode()).isEmpty()) {
+                    matching.add(counter);
+                }
+            }
+
+            this.matchingCounters.put(type, matching.isEmpty() ? Collections.emptyList() : matching);
+        }
+
+        return matching;
+    }
+
+    private static <T extends IAEStack<T>> long sum(final StorageCounter<T> counter, final IItemList<T> storageList) {
+        long value = 0;
+
+        if (counter.getFilter() == null) {
+            for (final T stack : storageList) {
+                value += stack.getStackSize();
+            }
+        } else {
+            for (final T stack : storageList.findFuzzy(counter.getFilter(), counter.getFuzzyMode())) {
+                value += stack.getStackSize();
+            }
+        }
+
+        return value;
+    }
+
+    private static final class CounterKey<T extends IAEStack<T>> {
+
+        @Nullable
+        private final T filter;
+        private final FuzzyMode mode;
+
+        private CounterKey(@Nullable final T filter, final FuzzyMode mode) {
+            this.filter = filter;
+            // the mode means nothing without a filter
+            this.mode = filter == null ? FuzzyMode.IGNORE_ALL : mode;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(this.filter) * 31 + this.mode.hashCode();
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            return obj instanceof CounterKey<?>other && this.mode == other.mode
+                    && Objects.equals(this.filter, other.filter);
+        }
+    }
+}
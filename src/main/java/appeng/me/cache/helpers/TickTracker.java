@@ -10,41 +10,90 @@
 
 package appeng.me.cache.helpers;
 
-import javax.annotation.Nonnull;
-
 import net.minecraft.crash.CrashReportCategory;
 
 import appeng.api.networking.IGridNode;
 import appeng.api.networking.ticking.IGridTickable;
 import appeng.api.networking.ticking.TickingRequest;
 import appeng.api.util.DimensionalCoord;
-import appeng.me.cache.TickManagerCache;
 import appeng.parts.AEBasePart;
 
-public class TickTracker implements Comparable<TickTracker> {
+public class TickTracker {
+
+    static final int NOT_SCHEDULED = -1;
+
+    // weight of a new sample in the moving average, as a power of two
+    private static final int AVERAGE_SHIFT = 4;
 
     private final TickingRequest request;
     private final IGridTickable gt;
     private final IGridNode node;
-    private final TickManagerCache host;
-
-    private final long LastFiveTicksTime = 0;
 
     private long lastTick;
     private int currentRate;
 
-    public TickTracker(final TickingRequest req, final IGridNode node, final IGridTickable gt, final long currentTick,
-            final TickManagerCache tickManagerCache) {
+    private long avgNanos;
+    private long maxNanos;
+    private long ticks;
+
+    // position in the TickWheel of the grid
+    int wheelSlot = NOT_SCHEDULED;
+    long wheelTick;
+    TickTracker wheelPrev;
+    TickTracker wheelNext;
+
+    public TickTracker(final TickingRequest req, final IGridNode node, final IGridTickable gt,
+            final long currentTick) {
         this.request = req;
         this.gt = gt;
         this.node = node;
         this.setCurrentRate((req.minTickRate + req.maxTickRate) / 2);
         this.setLastTick(currentTick);
-        this.host = tickManagerCache;
     }
 
+    /**
+     * @return the tick this tracker wants to be ticked on next
+     */
+    public long getNextTick() {
+        return this.getLastTick() + this.getCurrentRate();
+    }
+
+    /**
+     * Records how long one call to {@link IGridTickable#tickingRequest} took.
+     */
+    public void recordTickTime(final long nanos) {
+        if (this.ticks == 0) {
+            this.avgNanos = nanos;
+        } else {
+            this.avgNanos += (nanos - this.avgNanos) >> AVERAGE_SHIFT;
+        }
+
+        if (nanos > this.maxNanos) {
+            this.maxNanos = nanos;
+        }
+
+        this.ticks++;
+    }
+
+    public void resetTickTimes() {
+        this.avgNanos = 0;
+        this.maxNanos = 0;
+        this.ticks = 0;
+    }
+
+    /**
+     * @return exponential moving average of the time taken per tick, weighting the last 16 ticks most
+     */
     public long getAvgNanos() {
-        return (this.LastFiveTicksTime / 5);
+        return this.avgNanos;
+    }
+
+    public long getMaxNanos() {
+        return this.maxNanos;
+    }
+
+    public long getTicks() {
+        return this.ticks;
     }
 
     public void setRate(final int rate) {
@@ -59,13 +108,6 @@ public class TickTracker implements Comparable<TickTracker> {
         }
     }
 
-    @Override
-    public int compareTo(@Nonnull final TickTracker t) {
-        final int nextTick = (int) ((this.getLastTick() - this.host.getCurrentTick()) + this.getCurrentRate());
-        final int ts_nextTick = (int) ((t.getLastTick() - this.host.getCurrentTick()) + t.getCurrentRate());
-        return nextTick - ts_nextTick;
-    }
-
     public void addEntityCrashInfo(final CrashReportCategory crashreportcategory) {
         if (this.getGridTickable() instanceof AEBasePart part) {
             part.addEntityCrashInfo(crashreportcategory);
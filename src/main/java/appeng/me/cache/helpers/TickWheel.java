@@ -0,0 +1,170 @@
+/*
+ * This file is part of Applied Energistics 2. Copyright (c) 2013 - 2014, AlgorithmX2, All rights reserved. Applied
+ * Energistics 2 is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version. Applied Energistics 2 is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details. You should have received a copy of the GNU Lesser General Public License along with
+ * Applied Energistics 2. If not, see <http://www.gnu.org/licenses/lgpl>.
+ */
+
+package appeng.me.cache.helpers;
+
+/**
+ * Hierarchical timing wheel holding the awake {@link TickTracker}s of a grid.
+ * <p>
+ * The first level has one bucket per tick for the next {@link #LEVEL0_SLOTS} ticks, the second level one bucket per
+ * {@link #LEVEL0_SLOTS} ticks which is cascaded into the first level when its time comes. Trackers are linked directly
+ * into their bucket, so scheduling and cancelling are O(1) regardless of how many devices are awake.
+ */
+public class TickWheel {
+
+    private static final int LEVEL0_BITS = 8;
+    private static final int LEVEL0_SLOTS = 1 << LEVEL0_BITS;
+    private static final int LEVEL0_MASK = LEVEL0_SLOTS - 1;
+    private static final int LEVEL1_SLOTS = 64;
+    private static final int LEVEL1_MASK = LEVEL1_SLOTS - 1;
+    private static final long LEVEL1_SPAN = (long) LEVEL0_SLOTS * LEVEL1_SLOTS;
+
+    private final TickTracker[] level0Heads = new TickTracker[LEVEL0_SLOTS];
+    private final TickTracker[] level0Tails = new TickTracker[LEVEL0_SLOTS];
+    private final TickTracker[] level1Heads = new TickTracker[LEVEL1_SLOTS];
+    private final TickTracker[] level1Tails = new TickTracker[LEVEL1_SLOTS];
+
+    private long currentTick;
+    private boolean ticking = false;
+    private int size = 0;
+
+    public TickWheel(final long currentTick) {
+        this.currentTick = currentTick;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public boolean isScheduled(final TickTracker tt) {
+        return tt.wheelSlot != TickTracker.NOT_SCHEDULED;
+    }
+
+    /**
+     * Schedules the tracker to be polled at the given tick, replacing any earlier schedule. Trackers that are already
+     * overdue are polled during the current tick if it is still being processed, otherwise on the next one.
+     */
+    public void schedule(final TickTracker tt, final long dueTick) {
+        this.cancel(tt);
+
+        final long earliest = this.ticking ? this.currentTick : this.currentTick + 1;
+        this.place(tt, Math.max(dueTick, earliest));
+    }
+
+    public void cancel(final TickTracker tt) {
+        final int slot = tt.wheelSlot;
+        if (slot == TickTracker.NOT_SCHEDULED) {
+            return;
+        }
+
+        final TickTracker[] heads = slot < LEVEL0_SLOTS ? this.level0Heads : this.level1Heads;
+        final TickTracker[] tails = slot < LEVEL0_SLOTS ? this.level0Tails : this.level1Tails;
+        final int index = slot < LEVEL0_SLOTS ? slot : slot - LEVEL0_SLOTS;
+
+        if (tt.wheelPrev == null) {
+            heads[index] = tt.wheelNext;
+        } else {
+            tt.wheelPrev.wheelNext = tt.wheelNext;
+        }
+
+        if (tt.wheelNext == null) {
+            tails[index] = tt.wheelPrev;
+        } else {
+            tt.wheelNext.wheelPrev = tt.wheelPrev;
+        }
+
+        tt.wheelPrev = null;
+        tt.wheelNext = null;
+        tt.wheelSlot = TickTracker.NOT_SCHEDULED;
+        this.size--;
+    }
+
+    /**
+     * Moves the wheel to the given tick and starts handing out the trackers due on it through {@link #poll()}.
+     */
+    public void beginTick(final long tick) {
+        while (this.currentTick < tick) {
+            this.currentTick++;
+
+            if ((this.currentTick & LEVEL0_MASK) == 0) {
+                this.cascade((int) ((this.currentTick >> LEVEL0_BITS) & LEVEL1_MASK));
+            }
+        }
+
+        this.ticking = true;
+    }
+
+    /**
+     * @return the next tracker due on the current tick, or null once all of them have been handed out. Trackers
+     *         scheduled for the current tick while it is being processed are returned as well.
+     */
+    public TickTracker poll() {
+        final TickTracker head = this.level0Heads[(int) (this.currentTick & LEVEL0_MASK)];
+
+        if (head != null) {
+            this.cancel(head);
+        }
+
+        return head;
+    }
+
+    public void endTick() {
+        this.ticking = false;
+    }
+
+    private void cascade(final int level1Index) {
+        TickTracker tt = this.level1Heads[level1Index];
+        this.level1Heads[level1Index] = null;
+        this.level1Tails[level1Index] = null;
+
+        while (tt != null) {
+            final TickTracker next = tt.wheelNext;
+            tt.wheelPrev = null;
+            tt.wheelNext = null;
+            tt.wheelSlot = TickTracker.NOT_SCHEDULED;
+            this.size--;
+
+            this.place(tt, tt.wheelTick);
+            tt = next;
+        }
+    }
+
+    private void place(final TickTracker tt, final long at) {
+        tt.wheelTick = at;
+
+        if (at - this.currentTick < LEVEL0_SLOTS) {
+            this.link(tt, (int) (at & LEVEL0_MASK));
+        } else if (at - this.currentTick < LEVEL1_SPAN) {
+            this.link(tt, LEVEL0_SLOTS + (int) ((at >> LEVEL0_BITS) & LEVEL1_MASK));
+        } else {
+            // beyond the wheel, park it in the last reachable bucket and place it again from there
+            this.link(tt, LEVEL0_SLOTS + (int) ((this.currentTick >> LEVEL0_BITS) & LEVEL1_MASK));
+        }
+    }
+
+    private void link(final TickTracker tt, final int slot) {
+        final TickTracker[] heads = slot < LEVEL0_SLOTS ? this.level0Heads : this.level1Heads;
+        final TickTracker[] tails = slot < LEVEL0_SLOTS ? this.level0Tails : this.level1Tails;
+        final int index = slot < LEVEL0_SLOTS ? slot : slot - LEVEL0_SLOTS;
+
+        final TickTracker tail = tails[index];
+        tt.wheelPrev = tail;
+        tt.wheelNext = null;
+        tt.wheelSlot = slot;
+
+        if (tail == null) {
+            heads[index] = tt;
+        } else {
+            tail.wheelNext = tt;
+        }
+        tails[index] = tt;
+        this.size++;
+    }
+}
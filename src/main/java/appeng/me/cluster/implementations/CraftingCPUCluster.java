@@ -30,6 +30,7 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.TreeMap;
+import java.util.TreeSet;
 import java.util.concurrent.TimeUnit;
 import java.util.function.IntConsumer;
 import java.util.stream.IntStream;
@@ -130,6 +131,8 @@ public final class CraftingCPUCluster implements IAECluster, ICraftingCPU {
             .comparing(ICraftingPatternDetails::getPriority).thenComparing(ICraftingPatternDetails::hashCode);
     private final Map<ICraftingPatternDetails, TaskProgress> tasks = new TreeMap<>(priorityComparator);
     private Map<ICraftingPatternDetails, TaskProgress> workableTasks = new TreeMap<>(priorityComparator);
+    // what the tasks have yet to make, kept in step with them for the status screens
+    private final Map<IAEItemStack, PendingOutput> pendingOutputs = new HashMap<>();
     private HashSet<ICraftingMedium> knownBusyMediums = new HashSet<>();
     // INSTANCE sate
     private final LinkedList<TileCraftingTile> tiles = new LinkedList<>();
@@ -648,6 +651,7 @@ public final class CraftingCPUCluster implements IAECluster, ICraftingCPU {
         this.isComplete = true;
         this.myLastLink = null;
         this.tasks.clear();
+        this.pendingOutputs.clear();
         this.providers.clear();
         final ImmutableSet<IAEItemStack> items = ImmutableSet.copyOf(this.waitingFor);
 
@@ -797,19 +801,40 @@ public final class CraftingCPUCluster implements IAECluster, ICraftingCPU {
                         continue;
                     }
 
-                    // Find a valid craftingInventory for this craft.
-                    double sum = 0;
                     if (craftingInventory == null) {
-                        final IAEItemStack[] input = details.getInputs();
+                        final int copies = this.pushPatternBatch(eg, details, medium, craftingEntry.getValue().value);
+                        if (copies > 0) {
+                            pushedPattern = true;
+                            didPatternCraft = true;
+
+                            executedTasks += copies;
+                            craftingEntry.getValue().value -= copies;
+                            this.updatePendingOutputs(details, -copies, craftingEntry.getValue().value);
+                            if (craftingEntry.getValue().value <= 0) {
+                                break doWhileCraftingLoop;
+                            }
 
-                        for (final IAEItemStack anInput : input) {
-                            if (anInput != null) {
-                                sum += anInput.getStackSize();
+                            if (this.remainingOperations == 0) {
+                                if (mediumListCheck != null) parallelismProvider.put(details, mediumListCheck);
+                                return;
                             }
+                            if (medium.getBlockingMode() == BlockingMode.BLOCKING) break;
+
+                            if (!this.canCraft(details, details.getCondensedInputs())) {
+                                sr = ScheduledReason.NOT_ENOUGH_INGREDIENTS;
+                                break;
+                            }
+
+                            sr = medium.getScheduledReason();
+                            continue;
                         }
-                        // upgraded interface uses more power
-                        if (medium instanceof DualityInterface) sum *= Math
-                                .pow(4.0, ((DualityInterface) medium).getInstalledUpgrades(Upgrades.PATTERN_CAPACITY));
+                    }
+
+                    // Find a valid craftingInventory for this craft.
+                    double sum = 0;
+                    if (craftingInventory == null) {
+                        final IAEItemStack[] input = details.getInputs();
+                        sum = getPushPower(details, medium);
 
                         // check if there is enough power
                         if (eg.extractAEPower(sum, Actionable.SIMULATE, PowerMultiplier.CONFIG) < sum - 0.01) continue;
@@ -869,28 +894,7 @@ public final class CraftingCPUCluster implements IAECluster, ICraftingCPU {
 
                         // Process output items.
                         for (final IAEItemStack outputItemStack : details.getCondensedOutputs()) {
-                            this.postChange(outputItemStack, this.machineSrc);
-                            this.waitingFor.add(outputItemStack.copy());
-                            this.postCraftingStatusChange(outputItemStack.copy());
-
-                            // Add this medium to the list of providers for the outputItemStack if not yet in there.
-                            providers.computeIfAbsent(outputItemStack, k -> new ArrayList<>());
-                            List<DimensionalCoord> list = providers.get(outputItemStack);
-                            if (medium instanceof ICraftingProvider) {
-                                TileEntity tile = this.getTile(medium);
-                                if (tile == null) continue;
-                                DimensionalCoord tileDimensionalCoord = new DimensionalCoord(tile);
-                                boolean isAdded = false;
-                                for (DimensionalCoord dimensionalCoord : list) {
-                                    if (dimensionalCoord.isEqual(tileDimensionalCoord)) {
-                                        isAdded = true;
-                                        break;
-                                    }
-                                }
-                                if (!isAdded) {
-                                    list.add(tileDimensionalCoord);
-                                }
-                            }
+                            this.addPushedOutput(outputItemStack, medium);
                         }
 
                         if (details.isCraftable()) {
@@ -915,6 +919,7 @@ public final class CraftingCPUCluster implements IAECluster, ICraftingCPU {
 
                         executedTasks += 1;
                         craftingEntry.getValue().value--;
+                        this.updatePendingOutputs(details, -1, craftingEntry.getValue().value);
                         if (craftingEntry.getValue().value <= 0) {
                             // This craftingEntry is done.
                             break doWhileCraftingLoop;
@@ -965,6 +970,122 @@ public final class CraftingCPUCluster implements IAECluster, ICraftingCPU {
         }
     }
 
+    private static double getPushPower(final ICraftingPatternDetails details, final ICraftingMedium medium) {
+        double sum = 0;
+        for (final IAEItemStack anInput : details.getInputs()) {
+            if (anInput != null) {
+                sum += anInput.getStackSize();
+            }
+        }
+        // upgraded interface uses more power
+        if (medium instanceof DualityInterface) sum *= Math
+                .pow(4.0, ((DualityInterface) medium).getInstalledUpgrades(Upgrades.PATTERN_CAPACITY));
+        return sum;
+    }
+
+    /**
+     * Pushes several crafts of a processing pattern in one go if the medium accepts that. The crafts still use one
+     * operation each, power for all of them is extracted at once.
+     *
+     * @return How many crafts were pushed, 0 if the medium should be sent one craft at a time
+     */
+    private int pushPatternBatch(final IEnergyGrid eg, final ICraftingPatternDetails details,
+            final ICraftingMedium medium, final long remaining) {
+        if (details.isCraftable() || details.canSubstitute()) {
+            return 0;
+        }
+
+        long copies = Math.min(medium.getMaxBatchSize(details), Math.min(remaining, this.remainingOperations));
+        if (copies <= 1) {
+            return 0;
+        }
+
+        final IAEItemStack[] input = details.getInputs();
+        for (final IAEItemStack anInput : input) {
+            if (anInput != null) {
+                copies = Math.min(copies, Integer.MAX_VALUE / anInput.getStackSize());
+            }
+        }
+        for (final IAEItemStack anInput : details.getCondensedInputs()) {
+            final IAEItemStack stored = this.inventory.getItemList().findPrecise(anInput);
+            copies = Math.min(copies, stored == null ? 0 : stored.getStackSize() / anInput.getStackSize());
+        }
+        if (copies <= 1) {
+            return 0;
+        }
+
+        final double power = getPushPower(details, medium) * copies;
+        if (eg.extractAEPower(power, Actionable.SIMULATE, PowerMultiplier.CONFIG) < power - 0.01) {
+            return 0;
+        }
+
+        final InventoryCrafting craftingInventory = new InventoryCrafting(new ContainerNull(), input.length, 1);
+        boolean found = true;
+        for (int x = 0; x < input.length && found; x++) {
+            if (input[x] != null) {
+                final IAEItemStack request = input[x].copy();
+                request.setStackSize(input[x].getStackSize() * copies);
+                final IAEItemStack ais = this.inventory.extractItems(request, Actionable.MODULATE, this.machineSrc);
+                if (ais != null) {
+                    craftingInventory.setInventorySlotContents(x, ais.getItemStack());
+                }
+                found = ais != null && ais.getStackSize() == request.getStackSize();
+            }
+        }
+
+        if (!found || !medium.pushPatternBatch(details, craftingInventory, (int) copies)) {
+            // put stuff back.
+            for (int x = 0; x < craftingInventory.getSizeInventory(); x++) {
+                final ItemStack is = craftingInventory.getStackInSlot(x);
+                if (is != null) {
+                    this.inventory.injectItems(AEItemStack.create(is), Actionable.MODULATE, this.machineSrc);
+                }
+            }
+            return 0;
+        }
+
+        eg.extractAEPower(power, Actionable.MODULATE, PowerMultiplier.CONFIG);
+        this.somethingChanged = true;
+        this.remainingOperations -= (int) copies;
+        this.isFakeCrafting = (medium instanceof DualityInterface di && di.isFakeCraftingMode());
+
+        for (int x = 0; x < craftingInventory.getSizeInventory(); x++) {
+            final ItemStack is = craftingInventory.getStackInSlot(x);
+            if (is != null) {
+                this.postChange(AEItemStack.create(is), this.machineSrc);
+            }
+        }
+        for (final IAEItemStack outputItemStack : details.getCondensedOutputs()) {
+            final IAEItemStack pushed = outputItemStack.copy();
+            pushed.setStackSize(outputItemStack.getStackSize() * copies);
+            this.addPushedOutput(pushed, medium);
+        }
+
+        this.markDirty();
+        return (int) copies;
+    }
+
+    private void addPushedOutput(final IAEItemStack outputItemStack, final ICraftingMedium medium) {
+        this.postChange(outputItemStack, this.machineSrc);
+        this.waitingFor.add(outputItemStack.copy());
+        this.postCraftingStatusChange(outputItemStack.copy());
+
+        // Add this medium to the list of providers for the outputItemStack if not yet in there.
+        providers.computeIfAbsent(outputItemStack, k -> new ArrayList<>());
+        List<DimensionalCoord> list = providers.get(outputItemStack);
+        if (medium instanceof ICraftingProvider) {
+            TileEntity tile = this.getTile(medium);
+            if (tile == null) return;
+            DimensionalCoord tileDimensionalCoord = new DimensionalCoord(tile);
+            for (DimensionalCoord dimensionalCoord : list) {
+                if (dimensionalCoord.isEqual(tileDimensionalCoord)) {
+                    return;
+                }
+            }
+            list.add(tileDimensionalCoord);
+        }
+    }
+
     private void storeItems() {
         final IGrid g = this.getGrid();
 
@@ -1087,6 +1208,7 @@ public final class CraftingCPUCluster implements IAECluster, ICraftingCPU {
             } else {
                 this.waitingForMissing.resetStatus();
                 this.tasks.clear();
+                this.pendingOutputs.clear();
                 this.providers.clear();
                 this.inventory.getItemList().resetStatus();
             }
@@ -1095,6 +1217,7 @@ public final class CraftingCPUCluster implements IAECluster, ICraftingCPU {
 
             this.waitingForMissing.resetStatus();
             this.tasks.clear();
+            this.pendingOutputs.clear();
             this.providers.clear();
             this.inventory.getItemList().resetStatus();
         }
@@ -1169,12 +1292,14 @@ public final class CraftingCPUCluster implements IAECluster, ICraftingCPU {
                 waitingForMissing = backupWaitingForMissing;
                 tasks.clear();
                 tasks.putAll(tasksBackup);
+                this.rebuildPendingOutputs();
             }
         } catch (final CraftBranchFailure e) {
             inventory = backupInventory;
             waitingForMissing = backupWaitingForMissing;
             tasks.clear();
             tasks.putAll(tasksBackup);
+            this.rebuildPendingOutputs();
             handleCraftBranchFailure(e, src);
         }
 
@@ -1269,13 +1394,7 @@ public final class CraftingCPUCluster implements IAECluster, ICraftingCPU {
                 }
             }
             case PENDING -> {
-                for (final Entry<ICraftingPatternDetails, TaskProgress> t : this.tasks.entrySet()) {
-                    for (IAEItemStack ais : t.getKey().getCondensedOutputs()) {
-                        ais = ais.copy();
-                        ais.setStackSize(ais.getStackSize() * t.getValue().value);
-                        list.add(ais);
-                    }
-                }
+                this.getPendingOutputs(list);
             }
             case STORAGE -> this.inventory.getAvailableItems(list, IterationCounter.fetchNewId());
             default -> {
@@ -1283,13 +1402,7 @@ public final class CraftingCPUCluster implements IAECluster, ICraftingCPU {
                 for (final IAEItemStack ais : this.waitingFor) {
                     list.add(ais);
                 }
-                for (final Entry<ICraftingPatternDetails, TaskProgress> t : this.tasks.entrySet()) {
-                    for (IAEItemStack ais : t.getKey().getCondensedOutputs()) {
-                        ais = ais.copy();
-                        ais.setStackSize(ais.getStackSize() * t.getValue().value);
-                        list.add(ais);
-                    }
-                }
+                this.getPendingOutputs(list);
             }
         }
     }
@@ -1311,6 +1424,49 @@ public final class CraftingCPUCluster implements IAECluster, ICraftingCPU {
         }
 
         i.value += crafts;
+        this.updatePendingOutputs(details, crafts, i.value);
+    }
+
+    /**
+     * Keeps {@link #pendingOutputs} in step with a task whose remaining crafts changed by {@code crafts}.
+     */
+    private void updatePendingOutputs(final ICraftingPatternDetails details, final long crafts, final long remaining) {
+        for (final IAEItemStack out : details.getCondensedOutputs()) {
+            PendingOutput pending = this.pendingOutputs.get(out);
+            if (pending == null) {
+                if (remaining <= 0) {
+                    continue;
+                }
+                final IAEItemStack key = out.copy();
+                key.setStackSize(0);
+                this.pendingOutputs.put(key, pending = new PendingOutput(key));
+            }
+
+            pending.amount += out.getStackSize() * crafts;
+            if (remaining > 0) {
+                pending.patterns.add(details);
+            } else {
+                pending.patterns.remove(details);
+                if (pending.patterns.isEmpty()) {
+                    this.pendingOutputs.remove(out);
+                }
+            }
+        }
+    }
+
+    private void rebuildPendingOutputs() {
+        this.pendingOutputs.clear();
+        for (final Entry<ICraftingPatternDetails, TaskProgress> t : this.tasks.entrySet()) {
+            this.updatePendingOutputs(t.getKey(), t.getValue().value, t.getValue().value);
+        }
+    }
+
+    private void getPendingOutputs(final IItemList<IAEItemStack> list) {
+        for (final PendingOutput pending : this.pendingOutputs.values()) {
+            final IAEItemStack ais = pending.item.copy();
+            ais.setStackSize(pending.amount);
+            list.add(ais);
+        }
     }
 
     public IAEItemStack getItemStack(final IAEItemStack what, final CraftingItemList storage2) {
@@ -1319,28 +1475,9 @@ public final class CraftingCPUCluster implements IAECluster, ICraftingCPU {
             case STORAGE -> is = this.inventory.getItemList().findPrecise(what);
             case ACTIVE -> is = this.waitingFor.findPrecise(what);
             case PENDING -> {
-                CraftingGridCache cache = null;
-                if (this.getGrid() != null) {
-                    cache = this.getGrid().getCache(ICraftingGrid.class);
-                }
+                final PendingOutput pending = this.pendingOutputs.get(what);
                 is = what.copy();
-                is.setStackSize(0);
-                for (final Entry<ICraftingPatternDetails, TaskProgress> t : this.tasks.entrySet()) {
-                    for (final IAEItemStack ais : t.getKey().getCondensedOutputs()) {
-                        if (Objects.equals(ais, is)) {
-                            is.setStackSize(is.getStackSize() + ais.getStackSize() * t.getValue().value);
-                            if (cache != null) {
-                                List<ICraftingMedium> craftingProviders = cache.getMediums(t.getKey());
-                                List<DimensionalCoord> dimensionalCoords = new ArrayList<>();
-                                for (ICraftingMedium craftingProvider : craftingProviders) {
-                                    final TileEntity tile = this.getTile(craftingProvider);
-                                    if (tile != null) dimensionalCoords.add(new DimensionalCoord(tile));
-                                }
-                                this.providers.put(is, dimensionalCoords);
-                            }
-                        }
-                    }
-                }
+                is.setStackSize(pending == null ? 0 : pending.amount);
             }
             default -> throw new IllegalStateException("Invalid Operation");
         }
@@ -1520,6 +1657,7 @@ public final class CraftingCPUCluster implements IAECluster, ICraftingCPU {
                 }
             }
         }
+        this.rebuildPendingOutputs();
 
         this.waitingFor = this.readList((NBTTagList) data.getTag("waitingFor"));
         for (final IAEItemStack is : this.waitingFor) {
@@ -1692,20 +1830,38 @@ public final class CraftingCPUCluster implements IAECluster, ICraftingCPU {
         }
     }
 
+    /**
+     * @return Where the item was pushed to, or where it can be made while nothing was pushed yet
+     */
     @SuppressWarnings("unchecked")
     public List<DimensionalCoord> getProviders(IAEItemStack is) {
-        return this.providers.getOrDefault(is, Collections.EMPTY_LIST);
+        final List<DimensionalCoord> pushedTo = this.providers.get(is);
+        if (pushedTo != null) {
+            return pushedTo;
+        }
+
+        final PendingOutput pending = this.pendingOutputs.get(is);
+        if (pending == null || this.getGrid() == null) {
+            return Collections.EMPTY_LIST;
+        }
+
+        final CraftingGridCache cache = this.getGrid().getCache(ICraftingGrid.class);
+        final List<DimensionalCoord> dimensionalCoords = new ArrayList<>();
+        for (final ICraftingPatternDetails details : pending.patterns) {
+            for (final ICraftingMedium craftingProvider : cache.getMediums(details)) {
+                final TileEntity tile = this.getTile(craftingProvider);
+                if (tile != null) dimensionalCoords.add(new DimensionalCoord(tile));
+            }
+        }
+        return dimensionalCoords;
     }
 
     public ScheduledReason getScheduledReason(IAEItemStack is) {
-        for (final Entry<ICraftingPatternDetails, TaskProgress> t : this.tasks.entrySet()) {
-            for (final IAEItemStack ais : t.getKey().getCondensedOutputs()) {
-                if (Objects.equals(ais, is)) {
-                    return reasonProvider.getOrDefault(t.getKey(), ScheduledReason.UNDEFINED);
-                }
-            }
+        final PendingOutput pending = this.pendingOutputs.get(is);
+        if (pending == null) {
+            return ScheduledReason.UNDEFINED;
         }
-        return ScheduledReason.UNDEFINED;
+        return reasonProvider.getOrDefault(pending.patterns.first(), ScheduledReason.UNDEFINED);
     }
 
     private TileEntity getTile(ICraftingMedium craftingProvider) {
@@ -1770,6 +1926,20 @@ public final class CraftingCPUCluster implements IAECluster, ICraftingCPU {
         private long value;
     }
 
+    /**
+     * How much of an item the tasks have yet to make, and the tasks making it in the order they run.
+     */
+    private class PendingOutput {
+
+        private final IAEItemStack item;
+        private final TreeSet<ICraftingPatternDetails> patterns = new TreeSet<>(priorityComparator);
+        private long amount;
+
+        private PendingOutput(final IAEItemStack item) {
+            this.item = item;
+        }
+    }
+
     private static class CraftNotification {
 
         private ItemStack finalOutput;
@@ -0,0 +1,203 @@
+/*
+ * This file is part of Applied Energistics 2. Copyright (c) 2013 - 2014, AlgorithmX2, All rights reserved. Applied
+ * Energistics 2 is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version. Applied Energistics 2 is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details. You should have received a copy of the GNU Lesser General Public License along with
+ * Applied Energistics 2. If not, see <http://www.gnu.org/licenses/lgpl>.
+ */
+
+package appeng.me.pathfinding;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+import appeng.api.networking.GridFlags;
+import appeng.me.cache.PathGridCache;
+
+/**
+ * The changes made to a grid since its channels were assigned, applied on top of the existing controller routes when
+ * they amount to a single node joining or leaving the grid at the end of a route.
+ * <p>
+ * A joining leaf only gets a channel if every item on its parent's route still has one to spare, and a leaving leaf
+ * only gives its channel back if no device was denied one; in both cases every other device keeps the route and
+ * channel a full repath would give it. Everything else, including a leaf that is a multiblock, a p2p tunnel or cannot
+ * carry channels, is left to a full repath.
+ */
+public class IncrementalPathUpdate {
+
+    private IPathItem node;
+    private boolean nodeAdded;
+    private IPathItem connection;
+    private boolean connectionAdded;
+    private List<IPathItem> sides;
+    private List<List<IPathItem>> optionsBefore;
+    private boolean tooComplex;
+
+    public void onNodeAdded(final IPathItem node) {
+        this.recordNode(node, true);
+    }
+
+    public void onNodeRemoved(final IPathItem node) {
+        this.recordNode(node, false);
+    }
+
+    /**
+     * Must be called before the connection is added to its sides.
+     */
+    public void onConnectionAdded(final IPathItem connection) {
+        this.recordConnection(connection, true);
+    }
+
+    /**
+     * Must be called before the connection is removed from its sides.
+     */
+    public void onConnectionRemoved(final IPathItem connection) {
+        this.recordConnection(connection, false);
+    }
+
+    public boolean isEmpty() {
+        return this.node == null && this.connection == null && !this.tooComplex;
+    }
+
+    public void clear() {
+        this.node = null;
+        this.connection = null;
+        this.sides = null;
+        this.optionsBefore = null;
+        this.tooComplex = false;
+    }
+
+    /**
+     * @return true if the routes and channels are up to date, false if the grid needs a full repath
+     */
+    public boolean apply(final PathGridCache pgc) {
+        if (this.tooComplex || this.node == null || this.connection == null || this.nodeAdded != this.connectionAdded) {
+            return false;
+        }
+
+        final int leafSide = this.sides.indexOf(this.node);
+        if (leafSide < 0) {
+            return false;
+        }
+
+        final EnumSet<GridFlags> flags = this.node.getFlags();
+        if (flags.contains(GridFlags.MULTIBLOCK) || flags.contains(GridFlags.COMPRESSED_CHANNEL)
+                || flags.contains(GridFlags.CANNOT_CARRY)) {
+            return false;
+        }
+
+        final IPathItem parent = this.sides.get(1 - leafSide);
+        final boolean requireChannel = flags.contains(GridFlags.REQUIRE_CHANNEL);
+        if (this.nodeAdded) {
+            return this.addLeaf(pgc, parent, leafSide, requireChannel);
+        }
+        return this.removeLeaf(pgc, parent, leafSide, requireChannel);
+    }
+
+    private boolean addLeaf(final PathGridCache pgc, final IPathItem parent, final int leafSide,
+            final boolean requireChannel) {
+        final List<IPathItem> leafOptions = optionsOf(this.node);
+        final List<IPathItem> parentOptions = optionsOf(parent);
+        final List<IPathItem> parentBefore = this.optionsBefore.get(1 - leafSide);
+
+        // connecting must not have reordered the parent's connections, that changes the order of the search
+        if (leafOptions.size() != 1 || leafOptions.get(0) != this.connection
+                || parentOptions.size() != parentBefore.size() + 1
+                || !parentOptions.subList(0, parentBefore.size()).equals(parentBefore)
+                || parentOptions.get(parentBefore.size()) != this.connection) {
+            return false;
+        }
+
+        this.connection.setControllerRoute(parent, true);
+        this.node.setControllerRoute(this.connection, true);
+
+        if (requireChannel) {
+            for (IPathItem pi = this.node; pi != null; pi = pi.getControllerRoute()) {
+                if (!pi.canSupportMoreChannels()) {
+                    return false;
+                }
+            }
+
+            for (IPathItem pi = this.node; pi != null; pi = pi.getControllerRoute()) {
+                pgc.setChannelsByBlocks(pgc.getChannelsByBlocks() + 1);
+                pi.incrementChannelCount(1);
+            }
+            pgc.setChannelsInUse(pgc.getChannelsInUse() + 1);
+        }
+
+        for (IPathItem pi = this.node; pi != null; pi = pi.getControllerRoute()) {
+            pi.finalizeChannels();
+        }
+        return true;
+    }
+
+    private boolean removeLeaf(final PathGridCache pgc, final IPathItem parent, final int leafSide,
+            final boolean requireChannel) {
+        final List<IPathItem> leafBefore = this.optionsBefore.get(leafSide);
+        final List<IPathItem> parentBefore = this.optionsBefore.get(1 - leafSide);
+
+        // the connection has to lead from the parent's route to the leaf, not the other way around
+        if (leafBefore.size() != 1 || leafSide != 1 || parentBefore.isEmpty()
+                || parentBefore.get(0) == this.connection) {
+            return false;
+        }
+
+        final List<IPathItem> expected = new ArrayList<>(parentBefore);
+        expected.remove(this.connection);
+        if (!optionsOf(parent).equals(expected)) {
+            return false;
+        }
+
+        if (requireChannel) {
+            // the freed channel could have gone to a device that was denied one
+            if (pgc.getChannelsDenied() > 0) {
+                return false;
+            }
+
+            pgc.setChannelsByBlocks(pgc.getChannelsByBlocks() - 2);
+            for (IPathItem pi = this.connection.getControllerRoute(); pi != null; pi = pi.getControllerRoute()) {
+                pgc.setChannelsByBlocks(pgc.getChannelsByBlocks() - 1);
+                pi.incrementChannelCount(-1);
+                pi.finalizeChannels();
+            }
+            pgc.setChannelsInUse(pgc.getChannelsInUse() - 1);
+        }
+        return true;
+    }
+
+    private void recordNode(final IPathItem node, final boolean added) {
+        if (this.node != null) {
+            this.tooComplex = true;
+            return;
+        }
+
+        this.node = node;
+        this.nodeAdded = added;
+    }
+
+    private void recordConnection(final IPathItem connection, final boolean added) {
+        if (this.connection != null) {
+            this.tooComplex = true;
+            return;
+        }
+
+        this.connection = connection;
+        this.connectionAdded = added;
+        this.sides = optionsOf(connection);
+        this.optionsBefore = new ArrayList<>(2);
+        for (final IPathItem side : this.sides) {
+            this.optionsBefore.add(optionsOf(side));
+        }
+    }
+
+    private static List<IPathItem> optionsOf(final IPathItem item) {
+        final List<IPathItem> options = new ArrayList<>();
+        for (final IPathItem pi : item.getPossibleOptions()) {
+            options.add(pi);
+        }
+        return options;
+    }
+}
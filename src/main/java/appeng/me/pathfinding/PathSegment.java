@@ -80,8 +80,10 @@ public class PathSegment {
 
     private boolean useChannel(final IPathItem start, boolean p2p) {
         for (IPathItem pi = start; pi != null; pi = pi.getControllerRoute()) {
-            if (!pi.canSupportMoreChannels() || (p2p && pi.getFlags().contains(GridFlags.CANNOT_CARRY_COMPRESSED)))
+            if (!pi.canSupportMoreChannels() || (p2p && pi.getFlags().contains(GridFlags.CANNOT_CARRY_COMPRESSED))) {
+                this.pgc.setChannelsDenied(this.pgc.getChannelsDenied() + 1);
                 return false;
+            }
         }
 
         for (IPathItem pi = start; pi != null; pi = pi.getControllerRoute()) {
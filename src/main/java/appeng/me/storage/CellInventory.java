@@ -10,7 +10,9 @@
 
 package appeng.me.storage;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -43,6 +45,7 @@ import appeng.core.AELog;
 import appeng.util.IterationCounter;
 import appeng.util.Platform;
 import appeng.util.item.AEItemStack;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 
 public class CellInventory implements ICellInventory {
 
@@ -59,6 +62,13 @@ public class CellInventory implements ICellInventory {
     private short storedItemTypes = 0;
     private long storedItemCount = 0;
     private IItemList<IAEItemStack> cellItems;
+    /**
+     * Stored item -> NBT slot it is persisted in. Slots are kept compact from 0 to storedItemTypes - 1, so only the
+     * slots touched by an operation have to be rewritten.
+     */
+    private final Object2IntOpenHashMap<IAEItemStack> slotByItem = new Object2IntOpenHashMap<>();
+    private final List<IAEItemStack> itemBySlot = new ArrayList<>();
+    private final BitSet dirtySlots = new BitSet();
     private final ItemStack cellItem;
     private IStorageCell cellType;
     private boolean cardVoidOverflow = false;
@@ -121,6 +131,7 @@ public class CellInventory implements ICellInventory {
             }
         }
 
+        this.slotByItem.defaultReturnValue(-1);
         this.container = container;
         this.tagCompound = Platform.openNbtData(o);
         this.storedItemTypes = this.tagCompound.getShort(ITEM_TYPE_TAG);
@@ -220,7 +231,8 @@ public class CellInventory implements ICellInventory {
 
         final IAEItemStack l = this.getCellItems().findPrecise(input);
 
-        if (l != null) {
+        // a drained type keeps its record until the list is iterated, but has lost its slot and counts as new
+        if (l != null && this.slotByItem.getInt(l) >= 0) {
             long remainingItemSlots;
             if (cardDistribution) {
                 remainingItemSlots = this.getRemainingItemsCountDist(l);
@@ -242,6 +254,7 @@ public class CellInventory implements ICellInventory {
                 if (mode == Actionable.MODULATE) {
                     l.setStackSize(l.getStackSize() + remainingItemSlots);
                     this.updateItemCount(remainingItemSlots);
+                    this.markSlotDirty(l);
                     this.saveChanges();
                 }
 
@@ -250,6 +263,7 @@ public class CellInventory implements ICellInventory {
                 if (mode == Actionable.MODULATE) {
                     l.setStackSize(l.getStackSize() + input.getStackSize());
                     this.updateItemCount(input.getStackSize());
+                    this.markSlotDirty(l);
                     this.saveChanges();
                 }
 
@@ -281,6 +295,7 @@ public class CellInventory implements ICellInventory {
 
                         this.cellItems.add(toWrite);
                         this.updateItemCount(toWrite.getStackSize());
+                        this.markSlotDirty(this.cellItems.findPrecise(toWrite));
                         this.saveChanges();
                     }
                     return toReturn;
@@ -289,6 +304,7 @@ public class CellInventory implements ICellInventory {
                 if (mode == Actionable.MODULATE) {
                     this.updateItemCount(input.getStackSize());
                     this.cellItems.add(input);
+                    this.markSlotDirty(this.cellItems.findPrecise(input));
                     this.saveChanges();
                 }
 
@@ -320,6 +336,7 @@ public class CellInventory implements ICellInventory {
                 if (mode == Actionable.MODULATE) {
                     this.updateItemCount(-l.getStackSize());
                     l.setStackSize(0);
+                    this.releaseSlot(l);
                     this.saveChanges();
                 }
             } else {
@@ -328,6 +345,7 @@ public class CellInventory implements ICellInventory {
                 if (mode == Actionable.MODULATE) {
                     l.setStackSize(l.getStackSize() - size);
                     this.updateItemCount(-size);
+                    this.markSlotDirty(l);
                     this.saveChanges();
                 }
             }
@@ -349,66 +367,85 @@ public class CellInventory implements ICellInventory {
         this.tagCompound.setLong(ITEM_COUNT_TAG, this.storedItemCount);
     }
 
-    private void saveChanges() {
-        // cellItems.clean();
-        long itemCount = 0;
+    /**
+     * Marks the slot of a stored item for rewriting, giving it the next free slot if it has none yet.
+     */
+    private void markSlotDirty(final IAEItemStack stored) {
+        int slot = this.slotByItem.getInt(stored);
 
-        // add new pretty stuff...
-        int x = 0;
+        if (slot < 0) {
+            slot = this.itemBySlot.size();
+            this.itemBySlot.add(stored);
+            this.slotByItem.put(stored, slot);
+        }
 
-        for (final IAEItemStack v : this.cellItems) {
-            itemCount += v.getStackSize();
+        this.dirtySlots.set(slot);
+    }
 
-            final NBTBase c = this.tagCompound.getTag(itemSlots[x]);
+    /**
+     * Frees the slot of an item that is no longer stored by moving the item of the last slot into it.
+     */
+    private void releaseSlot(final IAEItemStack stored) {
+        final int slot = this.slotByItem.removeInt(stored);
 
-            if (c instanceof NBTTagCompound) {
-                v.writeToNBT((NBTTagCompound) c);
-            } else {
-                final NBTTagCompound g = new NBTTagCompound();
-                v.writeToNBT(g);
-                this.tagCompound.setTag(itemSlots[x], g);
-            }
+        if (slot < 0) {
+            return;
+        }
 
-            /*
-             * NBTBase tagSlotCount = tagCompound.getTag( itemSlotCount[x] ); if ( tagSlotCount instanceof NBTTagInt )
-             * ((NBTTagInt) tagSlotCount).data = (int) v.getStackSize(); else
-             */
-            this.tagCompound.setLong(itemSlotCount[x], v.getStackSize());
+        final int last = this.itemBySlot.size() - 1;
+        final IAEItemStack moved = this.itemBySlot.remove(last);
 
-            x++;
+        if (slot != last) {
+            this.itemBySlot.set(slot, moved);
+            this.slotByItem.put(moved, slot);
+            this.dirtySlots.set(slot);
         }
 
-        // NBTBase tagType = tagCompound.getTag( ITEM_TYPE_TAG );
-        // NBTBase tagCount = tagCompound.getTag( ITEM_COUNT_TAG );
-        final short oldStoredItems = this.storedItemTypes;
+        // now beyond the stored types, gets cleared on the next save
+        this.dirtySlots.set(last);
+    }
+
+    /**
+     * Writes the dirty slots and the cell totals to the cell NBT and notifies the container.
+     */
+    private void saveChanges() {
+        final int slotCount = this.itemBySlot.size();
+
+        for (int x = this.dirtySlots.nextSetBit(0); x >= 0 && x < itemSlots.length; x = this.dirtySlots
+                .nextSetBit(x + 1)) {
+            if (x < slotCount) {
+                final IAEItemStack v = this.itemBySlot.get(x);
+                final NBTBase c = this.tagCompound.getTag(itemSlots[x]);
+
+                if (c instanceof NBTTagCompound) {
+                    v.writeToNBT((NBTTagCompound) c);
+                } else {
+                    final NBTTagCompound g = new NBTTagCompound();
+                    v.writeToNBT(g);
+                    this.tagCompound.setTag(itemSlots[x], g);
+                }
+
+                this.tagCompound.setLong(itemSlotCount[x], v.getStackSize());
+            } else {
+                // clean any old crusty stuff...
+                this.tagCompound.removeTag(itemSlots[x]);
+                this.tagCompound.removeTag(itemSlotCount[x]);
+            }
+        }
 
-        /*
-         * if ( tagType instanceof NBTTagShort ) ((NBTTagShort) tagType).data = storedItems = (short) cellItems.size();
-         * else
-         */
-        this.storedItemTypes = (short) this.cellItems.size();
+        this.dirtySlots.clear();
+        this.storedItemTypes = (short) slotCount;
 
-        if (this.cellItems.isEmpty()) {
+        if (slotCount == 0) {
             this.tagCompound.removeTag(ITEM_TYPE_TAG);
         } else {
             this.tagCompound.setShort(ITEM_TYPE_TAG, this.storedItemTypes);
         }
 
-        /*
-         * if ( tagCount instanceof NBTTagInt ) ((NBTTagInt) tagCount).data = storedItemCount = itemCount; else
-         */
-        this.storedItemCount = itemCount;
-
-        if (itemCount == 0) {
+        if (this.storedItemCount == 0) {
             this.tagCompound.removeTag(ITEM_COUNT_TAG);
         } else {
-            this.tagCompound.setLong(ITEM_COUNT_TAG, itemCount);
-        }
-
-        // clean any old crusty stuff...
-        for (; x < oldStoredItems && x < this.maxItemTypes; x++) {
-            this.tagCompound.removeTag(itemSlots[x]);
-            this.tagCompound.removeTag(itemSlotCount[x]);
+            this.tagCompound.setLong(ITEM_COUNT_TAG, this.storedItemCount);
         }
 
         if (this.container != null) {
@@ -416,12 +453,36 @@ public class CellInventory implements ICellInventory {
         }
     }
 
+    /**
+     * Reassigns every slot from the in-memory item list and rewrites the whole cell, used to repair broken cells when
+     * they are loaded. Public for the persistence benchmark, which compares against rewriting after each operation.
+     */
+    public void rewriteAllSlots() {
+        final int oldStoredItems = this.storedItemTypes;
+        long itemCount = 0;
+
+        this.itemBySlot.clear();
+        this.slotByItem.clear();
+
+        for (final IAEItemStack v : this.getCellItems()) {
+            this.slotByItem.put(v, this.itemBySlot.size());
+            this.itemBySlot.add(v);
+            itemCount += v.getStackSize();
+        }
+
+        this.storedItemCount = itemCount;
+        this.dirtySlots.set(0, Math.max(this.itemBySlot.size(), Math.min(oldStoredItems, this.maxItemTypes)));
+        this.saveChanges();
+    }
+
     private void loadCellItems() {
         if (this.cellItems == null) {
             this.cellItems = AEApi.instance().storage().createPrimitiveItemList();
         }
 
         this.cellItems.resetStatus(); // clears totals and stuff.
+        this.itemBySlot.clear();
+        this.slotByItem.clear();
 
         final int types = (int) this.getStoredItemTypes();
 
@@ -430,21 +491,25 @@ public class CellInventory implements ICellInventory {
             final IAEItemStack ias = AEItemStack.create(t);
             if (t != null) {
                 ias.setStackSize(this.tagCompound.getLong(itemSlotCount[x]));
-                if (ias.getStackSize() > 0) {
-                    this.cellItems.add(ias);
-                } else {
+                if (ias.getStackSize() <= 0) {
                     // Dirty Compact for EC2
                     ias.setStackSize(this.tagCompound.getCompoundTag(itemSlots[x]).getLong("Cnt"));
-                    if (ias.getStackSize() > 0) {
-                        this.cellItems.add(ias);
+                }
+                if (ias.getStackSize() > 0) {
+                    this.cellItems.add(ias);
+
+                    final IAEItemStack stored = this.cellItems.findPrecise(ias);
+                    if (!this.slotByItem.containsKey(stored)) {
+                        this.slotByItem.put(stored, this.itemBySlot.size());
+                        this.itemBySlot.add(stored);
                     }
                 }
             }
         }
 
-        if (this.cellItems.size() != types) {
+        if (this.cellItems.size() != types || this.itemBySlot.size() != types) {
             // fix broken singularity cells
-            this.saveChanges();
+            this.rewriteAllSlots();
         }
     }
 
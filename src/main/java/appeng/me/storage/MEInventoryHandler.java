@@ -221,6 +221,27 @@ public class MEInventoryHandler<T extends IAEStack<T>> implements IMEInventoryHa
         return this.myPartitionList.isListed(input) && this.internal.canAccept(input);
     }
 
+    /**
+     * @return true if the access restriction or the partition list could refuse some input
+     */
+    public boolean hasFilter() {
+        return !this.hasWriteAccess || !this.myPartitionList.isEmpty();
+    }
+
+    /**
+     * @return true if the access restriction or the partition list refuse the input, independent of what is stored
+     */
+    public boolean isRejectedByFilter(final T input) {
+        if (!this.hasWriteAccess) {
+            return true;
+        }
+
+        if (this.myWhitelist == IncludeExclude.BLACKLIST) {
+            return this.myPartitionList.isListed(input);
+        }
+        return !this.myPartitionList.isEmpty() && !this.myPartitionList.isListed(input);
+    }
+
     @Override
     public int getPriority() {
         return this.myPriority;
@@ -10,12 +10,13 @@
 
 package appeng.me.storage;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
 import java.util.HashMap;
 import java.util.Iterator;
-import java.util.LinkedList;
+import java.util.List;
 import java.util.Map.Entry;
-import java.util.NavigableMap;
-import java.util.concurrent.ConcurrentSkipListMap;
 
 import javax.annotation.Nonnull;
 
@@ -37,18 +38,35 @@ import appeng.util.Platform;
 import appeng.util.inv.ItemSlot;
 import appeng.util.item.ItemFilterList;
 
+/**
+ * Exposes an {@link InventoryAdaptor} to the network, keeping a copy of each slot to find out what changed.
+ * <p>
+ * Changes made through this monitor are posted right away without looking at the inventory. Changes made by anything
+ * else are found by scanning the inventory, at most {@link #SLOTS_PER_TICK} slots per tick, continuing where the last
+ * tick stopped. The scan also confirms the changes made through the monitor; whatever it could not confirm after a
+ * whole pass, because something else changed the same slots, is taken back.
+ */
 public class MEMonitorIInventory implements IMEMonitor<IAEItemStack> {
 
+    private static final int SLOTS_PER_TICK = 1024;
+
     private final InventoryAdaptor adaptor;
     private final IItemList<IAEItemStack> list = AEApi.instance().storage().createItemList();
     private final HashMap<IMEMonitorHandlerReceiver<IAEItemStack>, Object> listeners = new HashMap<>();
-    private final NavigableMap<Integer, CachedItemStack> memory;
+    private CachedItemStack[] memory = new CachedItemStack[16];
+    private int memorySize;
+    private Iterator<ItemSlot> scanner;
+    private int scanHigh;
+    private boolean passChanged;
+    private boolean scannedOnce;
+    // changes posted by this monitor that no scan has seen yet, made during the current pass and before it started
+    private IItemList<IAEItemStack> unconfirmed = AEApi.instance().storage().createItemList();
+    private IItemList<IAEItemStack> unconfirmedBefore = AEApi.instance().storage().createItemList();
     private BaseActionSource mySource;
     private StorageFilter mode = StorageFilter.EXTRACTABLE_ONLY;
 
     public MEMonitorIInventory(final InventoryAdaptor adaptor) {
         this.adaptor = adaptor;
-        this.memory = new ConcurrentSkipListMap<>();
     }
 
     @Override
@@ -72,7 +90,7 @@ public class MEMonitorIInventory implements IMEMonitor<IAEItemStack> {
         }
 
         if (type == Actionable.MODULATE) {
-            this.onTick();
+            this.onChanged(input, input.getStackSize() - (out == null ? 0 : out.stackSize));
         }
 
         if (out == null) {
@@ -105,7 +123,7 @@ public class MEMonitorIInventory implements IMEMonitor<IAEItemStack> {
         o.setStackSize(out.stackSize);
 
         if (type == Actionable.MODULATE) {
-            this.onTick();
+            this.onChanged(o, -out.stackSize);
         }
 
         return o;
@@ -117,95 +135,194 @@ public class MEMonitorIInventory implements IMEMonitor<IAEItemStack> {
     }
 
     public TickRateModulation onTick() {
+        if (this.scan(SLOTS_PER_TICK)) {
+            return TickRateModulation.URGENT;
+        }
+
+        // keep going through a pass, only slow down once a whole one found nothing
+        if (this.scanner != null) {
+            return TickRateModulation.FASTER;
+        }
+        return this.passChanged ? TickRateModulation.SAME : TickRateModulation.SLOWER;
+    }
+
+    /**
+     * Posts a change made through this monitor. Until the inventory has been scanned once there is nothing to post it
+     * against, so the whole inventory is scanned instead.
+     */
+    private void onChanged(final IAEItemStack type, final long delta) {
+        if (!this.scannedOnce) {
+            this.scanner = null;
+            this.scan(Integer.MAX_VALUE);
+            return;
+        }
 
-        final LinkedList<IAEItemStack> changes = new LinkedList<>();
+        if (delta != 0) {
+            final IAEItemStack change = type.copy();
+            change.setStackSize(delta);
+            this.unconfirmed.add(change);
 
-        this.list.resetStatus();
-        int high = 0;
+            final List<IAEItemStack> changes = new ArrayList<>(1);
+            changes.add(change);
+            this.postDifference(changes);
+        }
+    }
+
+    /**
+     * Compares up to the given number of slots with the copy kept of them, continuing the current pass or starting a
+     * new one.
+     *
+     * @return true if anything changed
+     */
+    private boolean scan(int slots) {
+        if (this.scanner == null) {
+            this.scanner = this.adaptor.iterator();
+            this.scanHigh = -1;
+            this.passChanged = false;
+        }
+
+        final List<IAEItemStack> changes = new ArrayList<>();
         boolean changed = false;
-        for (final ItemSlot is : this.adaptor) {
-            final CachedItemStack old = this.memory.get(is.getSlot());
-            high = Math.max(high, is.getSlot());
+        try {
+            while (slots-- > 0 && this.scanner.hasNext()) {
+                final ItemSlot is = this.scanner.next();
+                this.scanHigh = Math.max(this.scanHigh, is.getSlot());
+
+                final ItemStack newIS = !is.isExtractable() && this.getMode() == StorageFilter.EXTRACTABLE_ONLY ? null
+                        : is.getItemStack();
+                changed |= this.updateSlot(is.getSlot(), newIS, changes);
+            }
 
-            final ItemStack newIS = !is.isExtractable() && this.getMode() == StorageFilter.EXTRACTABLE_ONLY ? null
-                    : is.getItemStack();
-            final ItemStack oldIS = old == null ? null : old.itemStack;
+            if (!this.scanner.hasNext()) {
+                changed |= this.finishPass(changes);
+            }
+        } catch (final ConcurrentModificationException e) {
+            // the inventory changed under the iterator, start over
+            this.scanner = null;
+            changed = true;
+        }
 
-            if (this.isDifferent(newIS, oldIS)) {
-                final CachedItemStack cis = new CachedItemStack(is.getItemStack());
-                this.memory.put(is.getSlot(), cis);
+        this.passChanged |= changed;
 
-                if (old != null && old.aeStack != null) {
-                    old.aeStack.setStackSize(-old.aeStack.getStackSize());
-                    changes.add(old.aeStack);
-                }
+        if (!changes.isEmpty()) {
+            this.postDifference(changes);
+        }
 
-                if (cis.aeStack != null) {
-                    changes.add(cis.aeStack);
-                    this.list.add(cis.aeStack);
-                }
+        return changed;
+    }
 
-                changed = true;
-            } else {
-                final int newSize = (newIS == null ? 0 : newIS.stackSize);
-                final int diff = newSize - (oldIS == null ? 0 : oldIS.stackSize);
-
-                final IAEItemStack stack = (old == null || old.aeStack == null
-                        ? AEApi.instance().storage().createItemStack(newIS)
-                        : old.aeStack.copy());
-                if (stack != null) {
-                    stack.setStackSize(newSize);
-                    this.list.add(stack);
-                }
+    private boolean updateSlot(final int slot, final ItemStack newIS, final List<IAEItemStack> changes) {
+        final CachedItemStack old = slot < this.memory.length ? this.memory[slot] : null;
+        final ItemStack oldIS = old == null ? null : old.itemStack;
 
-                if (diff != 0 && stack != null) {
-                    final CachedItemStack cis = new CachedItemStack(is.getItemStack());
-                    this.memory.put(is.getSlot(), cis);
+        if (newIS == null && oldIS == null) {
+            return false;
+        }
 
-                    final IAEItemStack a = stack.copy();
-                    a.setStackSize(diff);
-                    changes.add(a);
-                    changed = true;
-                }
+        if (newIS != null && oldIS != null && Platform.isSameItemPrecise(newIS, oldIS)) {
+            final int diff = newIS.stackSize - oldIS.stackSize;
+            if (diff == 0) {
+                return false;
+            }
+
+            oldIS.stackSize = newIS.stackSize;
+            if (old.aeStack != null) {
+                old.aeStack.setStackSize(newIS.stackSize);
+                this.addChange(old.aeStack, diff, changes);
             }
+            return true;
+        }
+
+        if (old != null && old.aeStack != null) {
+            this.addChange(old.aeStack, -old.aeStack.getStackSize(), changes);
         }
 
+        final CachedItemStack cis = newIS == null ? null : new CachedItemStack(newIS);
+        if (slot >= this.memory.length) {
+            this.memory = Arrays.copyOf(this.memory, Math.max(slot + 1, this.memory.length * 2));
+        }
+        this.memory[slot] = cis;
+        this.memorySize = Math.max(this.memorySize, slot + 1);
+
+        if (cis != null && cis.aeStack != null) {
+            this.addChange(cis.aeStack, cis.aeStack.getStackSize(), changes);
+        }
+        return true;
+    }
+
+    private boolean finishPass(final List<IAEItemStack> changes) {
+        boolean changed = false;
+
         // detect dropped items; should fix non IISided Inventory Changes.
-        final NavigableMap<Integer, CachedItemStack> end = this.memory.tailMap(high, false);
-        if (!end.isEmpty()) {
-            for (final CachedItemStack cis : end.values()) {
-                if (cis != null && cis.aeStack != null) {
-                    final IAEItemStack a = cis.aeStack.copy();
-                    a.setStackSize(-a.getStackSize());
-                    changes.add(a);
-                    changed = true;
-                }
+        for (int slot = this.scanHigh + 1; slot < this.memorySize; slot++) {
+            final CachedItemStack cis = this.memory[slot];
+            if (cis != null && cis.aeStack != null) {
+                this.addChange(cis.aeStack, -cis.aeStack.getStackSize(), changes);
+                changed = true;
             }
-            end.clear();
+            this.memory[slot] = null;
         }
-
-        if (!changes.isEmpty()) {
-            this.postDifference(changes);
+        this.memorySize = this.scanHigh + 1;
+
+        // a whole pass has seen every slot since these were posted, take back what it did not find
+        for (final IAEItemStack stack : this.unconfirmedBefore) {
+            final IAEItemStack a = stack.copy();
+            a.setStackSize(-a.getStackSize());
+            changes.add(a);
+            changed = true;
         }
+        this.unconfirmedBefore.resetStatus();
 
-        return changed ? TickRateModulation.URGENT : TickRateModulation.SLOWER;
+        final IItemList<IAEItemStack> swap = this.unconfirmedBefore;
+        this.unconfirmedBefore = this.unconfirmed;
+        this.unconfirmed = swap;
+
+        this.scanner = null;
+        this.scannedOnce = true;
+        return changed;
     }
 
-    private boolean isDifferent(final ItemStack a, final ItemStack b) {
-        if (a == b && b == null) {
-            return false;
+    /**
+     * Queues a change found by the scan, less the part of it that was already posted when it was made.
+     */
+    private void addChange(final IAEItemStack type, long delta, final List<IAEItemStack> changes) {
+        delta = confirm(this.unconfirmedBefore, type, delta);
+        delta = confirm(this.unconfirmed, type, delta);
+
+        if (delta != 0) {
+            final IAEItemStack a = type.copy();
+            a.setStackSize(delta);
+            changes.add(a);
         }
+    }
 
-        if ((a == null && b != null) || (a != null && b == null)) {
-            return true;
+    private static long confirm(final IItemList<IAEItemStack> posted, final IAEItemStack type, final long delta) {
+        final IAEItemStack p = posted.findPrecise(type);
+        if (p == null || delta == 0) {
+            return delta;
         }
 
-        return !Platform.isSameItemPrecise(a, b);
+        final long pending = p.getStackSize();
+        final long confirmed;
+        if (pending > 0 && delta > 0) {
+            confirmed = Math.min(pending, delta);
+        } else if (pending < 0 && delta < 0) {
+            confirmed = Math.max(pending, delta);
+        } else {
+            return delta;
+        }
+
+        p.setStackSize(pending - confirmed);
+        return delta - confirmed;
     }
 
     private void postDifference(final Iterable<IAEItemStack> a) {
         // AELog.info( a.getItemStack().getUnlocalizedName() + " @ " + a.getStackSize() );
         if (a != null) {
+            for (final IAEItemStack change : a) {
+                this.list.add(change);
+            }
+
             final Iterator<Entry<IMEMonitorHandlerReceiver<IAEItemStack>, Object>> i = this.listeners.entrySet()
                     .iterator();
             while (i.hasNext()) {
@@ -252,8 +369,10 @@ public class MEMonitorIInventory implements IMEMonitor<IAEItemStack> {
 
     @Override
     public IItemList<IAEItemStack> getAvailableItems(final IItemList out, int iteration) {
-        for (final CachedItemStack is : this.memory.values()) {
-            out.addStorage(is.aeStack);
+        for (final IAEItemStack is : this.list) {
+            if (is.getStackSize() > 0) {
+                out.addStorage(is);
+            }
         }
         if (out instanceof ItemFilterList) adaptor.getAvailableItems(out, iteration);
         return out;
@@ -261,18 +380,11 @@ public class MEMonitorIInventory implements IMEMonitor<IAEItemStack> {
 
     @Override
     public IAEItemStack getAvailableItem(@Nonnull IAEItemStack request, int iteration) {
-        long count = 0;
-        for (final CachedItemStack is : this.memory.values()) {
-            if (is != null && is.aeStack != null && is.aeStack.getStackSize() > 0 && is.aeStack.isSameType(request)) {
-                count += is.aeStack.getStackSize();
-                if (count < 0) {
-                    // overflow
-                    count = Long.MAX_VALUE;
-                    break;
-                }
-            }
+        final IAEItemStack is = this.list.findPrecise(request);
+        if (is == null || is.getStackSize() <= 0) {
+            return null;
         }
-        return count == 0 ? null : request.copy().setStackSize(count);
+        return request.copy().setStackSize(is.getStackSize());
     }
 
     @Override
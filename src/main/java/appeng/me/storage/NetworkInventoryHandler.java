@@ -10,10 +10,13 @@
 
 package appeng.me.storage;
 
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.annotation.Nonnull;
 
@@ -27,11 +30,13 @@ import appeng.api.networking.security.BaseActionSource;
 import appeng.api.networking.security.ISecurityGrid;
 import appeng.api.networking.security.MachineSource;
 import appeng.api.networking.security.PlayerSource;
+import appeng.api.storage.ICellCacheRegistry;
 import appeng.api.storage.IMEInventoryHandler;
 import appeng.api.storage.StorageChannel;
 import appeng.api.storage.data.IAEStack;
 import appeng.api.storage.data.IItemList;
 import appeng.me.cache.SecurityCache;
+import appeng.util.IterationCounter;
 import appeng.util.SortedArrayList;
 
 public class NetworkInventoryHandler<T extends IAEStack<T>> implements IMEInventoryHandler<T> {
@@ -78,6 +83,28 @@ public class NetworkInventoryHandler<T extends IAEStack<T>> implements IMEInvent
     private final List<IMEInventoryHandler<T>> priorityInventory;
     private int myPass = 0;
 
+    /**
+     * Item key -> positions in {@link #priorityInventory} of the cells that currently report holding that item. A
+     * missing key means the location is unknown, or no cell holds the item, and has to be looked up again. The sets are
+     * never modified once stored, changes store a modified copy so that simulations see a consistent set.
+     */
+    private final Map<T, BitSet> itemLocations = new ConcurrentHashMap<>();
+    /**
+     * Positions of handlers which cannot report their contents reliably (storage buses, external inventories), these
+     * are always visited during extraction.
+     */
+    private BitSet unindexedHandlers;
+    /**
+     * Positions of handlers with partition or access settings, the only ones that can refuse an item up front.
+     */
+    private BitSet filteredHandlers;
+    /**
+     * Item key -> positions in {@link #priorityInventory} whose partition or access settings refuse that item. Those
+     * handlers are skipped without calling canAccept/isPrioritized/extract on them. Items no handler refuses are not
+     * kept.
+     */
+    private final Map<T, BitSet> rejectedRoutes = new ConcurrentHashMap<>();
+
     public NetworkInventoryHandler(final StorageChannel chan, final SecurityCache security) {
         this.myChannel = chan;
         this.security = security;
@@ -86,6 +113,134 @@ public class NetworkInventoryHandler<T extends IAEStack<T>> implements IMEInvent
 
     public void addNewStorage(final IMEInventoryHandler<T> h) {
         this.priorityInventory.add(h);
+        // positions in the priority list have shifted
+        this.itemLocations.clear();
+        this.unindexedHandlers = null;
+        this.filteredHandlers = null;
+        this.rejectedRoutes.clear();
+    }
+
+    /**
+     * Drops the known locations of the given items, used when cells changed their contents without going through this
+     * handler.
+     */
+    public void invalidateItemLocations(final Iterable<? extends IAEStack> changes) {
+        if (this.itemLocations.isEmpty()) {
+            return;
+        }
+
+        for (final IAEStack changed : changes) {
+            if (changed != null) {
+                this.itemLocations.remove(changed);
+            }
+        }
+    }
+
+    private static boolean canReportContents(final IMEInventoryHandler<?> h) {
+        return h instanceof MEInventoryHandler<?> meh && meh.getInternal() instanceof ICellCacheRegistry;
+    }
+
+    private BitSet getUnindexedHandlers() {
+        BitSet unindexed = this.unindexedHandlers;
+
+        if (unindexed == null) {
+            final List<IMEInventoryHandler<T>> priorityInventory = this.priorityInventory;
+            unindexed = new BitSet(priorityInventory.size());
+            for (int i = 0; i < priorityInventory.size(); i++) {
+                if (!canReportContents(priorityInventory.get(i))) {
+                    unindexed.set(i);
+                }
+            }
+            this.unindexedHandlers = unindexed;
+        }
+
+        return unindexed;
+    }
+
+    /**
+     * @return the positions of the cells holding the given item, looked up from every cell if not yet known. Only
+     *         looked up during {@link Actionable#MODULATE} so that simulations never write to the index.
+     */
+    private BitSet getItemLocations(final T request, final Actionable mode) {
+        BitSet locations = this.itemLocations.get(request);
+
+        if (locations == null && mode == Actionable.MODULATE) {
+            final List<IMEInventoryHandler<T>> priorityInventory = this.priorityInventory;
+            final int iteration = IterationCounter.fetchNewId();
+            locations = new BitSet(priorityInventory.size());
+
+            for (int i = 0; i < priorityInventory.size(); i++) {
+                final IMEInventoryHandler<T> inv = priorityInventory.get(i);
+                if (canReportContents(inv)) {
+                    final T stored = inv.getAvailableItem(request, iteration);
+                    if (stored != null && stored.getStackSize() > 0) {
+                        locations.set(i);
+                    }
+                }
+            }
+
+            if (!locations.isEmpty()) {
+                final T key = request.copy();
+                key.setStackSize(0);
+                this.itemLocations.put(key, locations);
+            }
+        }
+
+        return locations;
+    }
+
+    private BitSet getFilteredHandlers() {
+        BitSet filtered = this.filteredHandlers;
+
+        if (filtered == null) {
+            final List<IMEInventoryHandler<T>> priorityInventory = this.priorityInventory;
+            filtered = new BitSet(priorityInventory.size());
+            for (int i = 0; i < priorityInventory.size(); i++) {
+                if (priorityInventory.get(i) instanceof MEInventoryHandler<T> meh && meh.hasFilter()) {
+                    filtered.set(i);
+                }
+            }
+            this.filteredHandlers = filtered;
+        }
+
+        return filtered;
+    }
+
+    private BitSet getRejectedRoutes(final T input) {
+        BitSet rejected = this.rejectedRoutes.get(input);
+
+        if (rejected == null) {
+            final List<IMEInventoryHandler<T>> priorityInventory = this.priorityInventory;
+            final BitSet filtered = this.getFilteredHandlers();
+            rejected = new BitSet(priorityInventory.size());
+
+            for (int i = filtered.nextSetBit(0); i >= 0; i = filtered.nextSetBit(i + 1)) {
+                if (((MEInventoryHandler<T>) priorityInventory.get(i)).isRejectedByFilter(input)) {
+                    rejected.set(i);
+                }
+            }
+
+            if (!rejected.isEmpty()) {
+                final T key = input.copy();
+                key.setStackSize(0);
+                this.rejectedRoutes.put(key, rejected);
+            }
+        }
+
+        return rejected;
+    }
+
+    private void onItemsInjected(final int position, final T input, final T leftover) {
+        if (leftover != null && leftover.getStackSize() >= input.getStackSize()) {
+            return;
+        }
+
+        final BitSet locations = this.itemLocations.get(input);
+        if (locations != null && !locations.get(position)) {
+            final BitSet updated = (BitSet) locations.clone();
+            updated.set(position);
+            this.itemLocations.replace(input, locations, updated);
+        }
     }
 
     @Override
@@ -94,24 +249,26 @@ public class NetworkInventoryHandler<T extends IAEStack<T>> implements IMEInvent
             return input;
         }
 
-        if (this.testPermission(src, SecurityPermissions.INJECT)) {
+        if (input == null || this.testPermission(src, SecurityPermissions.INJECT)) {
             this.surface(this, type);
             return input;
         }
 
         final List<IMEInventoryHandler<T>> priorityInventory = this.priorityInventory;
         final int size = priorityInventory.size();
+        // handlers refusing this item through their partitions would do nothing in either pass
+        final BitSet rejected = this.getRejectedRoutes(input);
 
-        int i = 0;
+        int i = rejected.nextClearBit(0);
         boolean stickyInventoryFound = false;
         // Try to insert into all sticky inventories which are at the beginning of the list
-        for (; i < size && input != null; i++) {
+        for (; i < size && input != null; i = rejected.nextClearBit(i + 1)) {
             final IMEInventoryHandler<T> inv = priorityInventory.get(i);
             if (!inv.getSticky() && !inv.isAutoCraftingInventory()) break;
 
             if (inv.canAccept(input)
                     && (inv.isPrioritized(input) || inv.extractItems(input, Actionable.SIMULATE, src) != null)) {
-                input = inv.injectItems(input, type, src);
+                input = this.injectInto(i, inv, input, type, src);
                 if (!stickyInventoryFound && inv.getSticky()) stickyInventoryFound = true;
             }
         }
@@ -134,7 +291,7 @@ public class NetworkInventoryHandler<T extends IAEStack<T>> implements IMEInvent
                 final boolean validForPass1 = inv.validForPass(1);
                 if (validForPass1 && (canAcceptInput = inv.canAccept(input))
                         && (inv.isPrioritized(input) || inv.extractItems(input, Actionable.SIMULATE, src) != null)) {
-                    input = inv.injectItems(input, type, src);
+                    input = this.injectInto(i, inv, input, type, src);
                     if (input == null) break outer;
                 }
 
@@ -147,7 +304,7 @@ public class NetworkInventoryHandler<T extends IAEStack<T>> implements IMEInvent
                     if (!validForPass1) break;
                 }
 
-                i++;
+                i = rejected.nextClearBit(i + 1);
 
                 if (i >= size) {
                     if (passTwoIndex == -1) break outer; // If pass 2 also has no work to do, we're fully done
@@ -171,11 +328,11 @@ public class NetworkInventoryHandler<T extends IAEStack<T>> implements IMEInvent
                 lastPriority = inv.getPriority();
                 while (true) {
                     if (inv.canAccept(input) && !inv.isPrioritized(input)) {
-                        input = inv.injectItems(input, type, src);
+                        input = this.injectInto(i, inv, input, type, src);
                         if (input == null) break outer;
                     }
 
-                    i++;
+                    i = rejected.nextClearBit(i + 1);
 
                     // Pass 2 iteration will go at least as far as pass 1, therefore we can be sure pass 1 also has
                     // no work left
@@ -198,6 +355,17 @@ public class NetworkInventoryHandler<T extends IAEStack<T>> implements IMEInvent
         return input;
     }
 
+    private T injectInto(final int position, final IMEInventoryHandler<T> inv, final T input, final Actionable type,
+            final BaseActionSource src) {
+        final T leftover = inv.injectItems(input, type, src);
+
+        if (type == Actionable.MODULATE) {
+            this.onItemsInjected(position, input, leftover);
+        }
+
+        return leftover;
+    }
+
     private boolean diveList(final NetworkInventoryHandler<T> networkInventoryHandler, final Actionable type) {
         final LinkedList cDepth = this.getDepth(type);
         if (cDepth.contains(networkInventoryHandler)) {
@@ -272,11 +440,48 @@ public class NetworkInventoryHandler<T extends IAEStack<T>> implements IMEInvent
 
         final List<IMEInventoryHandler<T>> priorityInventory = this.priorityInventory;
         final int size = priorityInventory.size();
-        for (int i = size - 1; i >= 0 && output.getStackSize() < req; i--) {
-            final IMEInventoryHandler<T> inv = priorityInventory.get(i);
+        final BitSet locations = this.getItemLocations(request, mode);
 
-            request.setStackSize(req - output.getStackSize());
-            output.add(inv.extractItems(request, mode, src));
+        if (locations == null) {
+            for (int i = size - 1; i >= 0 && output.getStackSize() < req; i--) {
+                final IMEInventoryHandler<T> inv = priorityInventory.get(i);
+
+                request.setStackSize(req - output.getStackSize());
+                output.add(inv.extractItems(request, mode, src));
+            }
+        } else {
+            // only visit cells known to hold the item, plus everything that cannot report its contents
+            final BitSet unindexed = this.getUnindexedHandlers();
+            BitSet remaining = locations;
+            int i = Math.max(locations.previousSetBit(size - 1), unindexed.previousSetBit(size - 1));
+
+            while (i >= 0 && output.getStackSize() < req) {
+                final IMEInventoryHandler<T> inv = priorityInventory.get(i);
+                final long missing = req - output.getStackSize();
+
+                request.setStackSize(missing);
+                final T extracted = inv.extractItems(request, mode, src);
+                output.add(extracted);
+
+                if (mode == Actionable.MODULATE && !unindexed.get(i)
+                        && (extracted == null || extracted.getStackSize() < missing)) {
+                    // the cell ran out of this item
+                    if (remaining == locations) {
+                        remaining = (BitSet) locations.clone();
+                    }
+                    remaining.clear(i);
+                }
+
+                i = Math.max(locations.previousSetBit(i - 1), unindexed.previousSetBit(i - 1));
+            }
+
+            if (remaining != locations) {
+                if (remaining.isEmpty()) {
+                    this.itemLocations.remove(request, locations);
+                } else {
+                    this.itemLocations.replace(request, locations, remaining);
+                }
+            }
         }
 
         this.surface(this, mode);
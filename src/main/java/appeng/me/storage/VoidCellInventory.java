@@ -127,6 +127,11 @@ public class VoidCellInventory extends MEInventoryHandler<IAEItemStack> {
         return this.getPartitionList().isListed(input);
     }
 
+    @Override
+    public boolean isRejectedByFilter(final IAEItemStack input) {
+        return !this.canAccept(input);
+    }
+
     @Override
     public int getSlot() {
         return 0;
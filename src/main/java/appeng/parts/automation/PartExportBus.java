@@ -177,10 +177,12 @@ public class PartExportBus extends PartSharedItemBus implements ICraftingRequest
                 } else if (!oreFilterString.isEmpty()) {
                     if (filterPredicate == null) filterPredicate = OreFilteredList.makeFilter(oreFilterString);
 
-                    for (IAEItemStack stack : gridInv.getStorageList()) {
-                        if (stack == null || filterPredicate == null || !this.filterPredicate.test(stack)) continue;
-                        this.pushItemIntoTarget(destination, energy, gridInv, stack);
-                        if (this.itemToSend <= 0) break;
+                    if (filterPredicate != null && gridInv instanceof NetworkMonitor<?>) {
+                        for (IAEItemStack stack : ((NetworkMonitor<IAEItemStack>) gridInv)
+                                .findOreFiltered(filterPredicate)) {
+                            this.pushItemIntoTarget(destination, energy, gridInv, stack);
+                            if (this.itemToSend <= 0) break;
+                        }
                     }
                 }
             } else {
@@ -10,7 +10,6 @@
 
 package appeng.parts.automation;
 
-import java.util.Collection;
 import java.util.Random;
 
 import net.minecraft.client.renderer.RenderBlocks;
@@ -48,7 +47,6 @@ import appeng.api.networking.events.MENetworkCraftingPatternChange;
 import appeng.api.networking.events.MENetworkEventSubscribe;
 import appeng.api.networking.events.MENetworkPowerStatusChange;
 import appeng.api.networking.security.BaseActionSource;
-import appeng.api.networking.storage.IBaseMonitor;
 import appeng.api.networking.storage.IStackWatcher;
 import appeng.api.networking.storage.IStackWatcherHost;
 import appeng.api.networking.ticking.IGridTickable;
@@ -57,7 +55,6 @@ import appeng.api.networking.ticking.TickingRequest;
 import appeng.api.parts.IPartCollisionHelper;
 import appeng.api.parts.IPartRenderHelper;
 import appeng.api.storage.IMEMonitor;
-import appeng.api.storage.IMEMonitorHandlerReceiver;
 import appeng.api.storage.StorageChannel;
 import appeng.api.storage.data.IAEItemStack;
 import appeng.api.storage.data.IAEStack;
@@ -70,6 +67,9 @@ import appeng.core.AELog;
 import appeng.core.sync.GuiBridge;
 import appeng.helpers.Reflected;
 import appeng.me.GridAccessException;
+import appeng.me.cache.NetworkMonitor;
+import appeng.me.cache.helpers.IStorageCounterWatcher;
+import appeng.me.cache.helpers.StorageCounter;
 import appeng.tile.inventory.AppEngInternalAEInventory;
 import appeng.tile.inventory.InvOperation;
 import appeng.util.Platform;
@@ -77,7 +77,7 @@ import cpw.mods.fml.relauncher.Side;
 import cpw.mods.fml.relauncher.SideOnly;
 
 public class PartLevelEmitter extends PartUpgradeable implements IEnergyWatcherHost, IStackWatcherHost,
-        ICraftingWatcherHost, IMEMonitorHandlerReceiver<IAEItemStack>, ICraftingProvider, IGridTickable {
+        ICraftingWatcherHost, IStorageCounterWatcher<IAEItemStack>, ICraftingProvider, IGridTickable {
 
     private static final int FLAG_ON = 8;
 
@@ -91,6 +91,8 @@ public class PartLevelEmitter extends PartUpgradeable implements IEnergyWatcherH
     private IStackWatcher myWatcher;
     private IEnergyWatcher myEnergyWatcher;
     private ICraftingWatcher myCraftingWatcher;
+    private NetworkMonitor<IAEItemStack> counterMonitor;
+    private StorageCounter<IAEItemStack> counter;
     private double centerX;
     private double centerY;
     private double centerZ;
@@ -239,7 +241,7 @@ public class PartLevelEmitter extends PartUpgradeable implements IEnergyWatcherH
                 this.updateState();
 
                 // no more item stuff..
-                this.getProxy().getStorage().getItemInventory().removeListener(this);
+                this.stopWatchingCounter();
             } catch (final GridAccessException e) {
                 // :P
             }
@@ -248,10 +250,12 @@ public class PartLevelEmitter extends PartUpgradeable implements IEnergyWatcherH
         }
 
         try {
-            if (this.getInstalledUpgrades(Upgrades.FUZZY) > 0 || myStack == null) {
-                this.getProxy().getStorage().getItemInventory().addListener(this, this.getProxy().getGrid());
+            if (myStack == null) {
+                this.watchCounter(null);
+            } else if (this.getInstalledUpgrades(Upgrades.FUZZY) > 0) {
+                this.watchCounter(myStack);
             } else {
-                this.getProxy().getStorage().getItemInventory().removeListener(this);
+                this.stopWatchingCounter();
 
                 if (this.myWatcher != null) {
                     this.myWatcher.add(myStack);
@@ -264,21 +268,31 @@ public class PartLevelEmitter extends PartUpgradeable implements IEnergyWatcherH
         }
     }
 
+    private void watchCounter(final IAEItemStack filter) throws GridAccessException {
+        final NetworkMonitor<IAEItemStack> monitor = (NetworkMonitor<IAEItemStack>) this.getProxy().getStorage()
+                .getItemInventory();
+        if (this.counterMonitor != monitor) {
+            this.stopWatchingCounter();
+        }
+
+        final FuzzyMode fzMode = (FuzzyMode) this.getConfigManager().getSetting(Settings.FUZZY_MODE);
+        this.counterMonitor = monitor;
+        this.counter = monitor.watchCounter(filter, fzMode, this, this.getProxy().getGrid());
+    }
+
+    private void stopWatchingCounter() {
+        if (this.counterMonitor != null) {
+            this.counterMonitor.unwatchCounter(this);
+            this.counterMonitor = null;
+            this.counter = null;
+        }
+    }
+
     private void updateReportingValue(final IMEMonitor<IAEItemStack> monitor) {
         final IAEItemStack myStack = this.config.getAEStackInSlot(0);
 
-        if (myStack == null) {
-            this.lastReportedValue = 0;
-            for (final IAEItemStack st : monitor.getStorageList()) {
-                this.lastReportedValue += st.getStackSize();
-            }
-        } else if (this.getInstalledUpgrades(Upgrades.FUZZY) > 0) {
-            this.lastReportedValue = 0;
-            final FuzzyMode fzMode = (FuzzyMode) this.getConfigManager().getSetting(Settings.FUZZY_MODE);
-            final Collection<IAEItemStack> fuzzyList = monitor.getStorageList().findFuzzy(myStack, fzMode);
-            for (final IAEItemStack st : fuzzyList) {
-                this.lastReportedValue += st.getStackSize();
-            }
+        if (myStack == null || this.getInstalledUpgrades(Upgrades.FUZZY) > 0) {
+            this.lastReportedValue = this.counter == null ? 0 : this.counter.getValue();
         } else {
             final IAEItemStack r = monitor.getStorageList().findPrecise(myStack);
             if (r == null) {
@@ -347,14 +361,13 @@ public class PartLevelEmitter extends PartUpgradeable implements IEnergyWatcherH
         if (delayedUpdatesQueued && canDoWork()) {
             delayedUpdatesQueued = false;
             lastWorkingTick = MinecraftServer.getServer().getTickCounter();
-            this.onListUpdate();
+            this.updateReportingValue();
         }
         return delayedUpdatesQueued ? TickRateModulation.IDLE : TickRateModulation.SLEEP;
     }
 
     @Override
-    public void postChange(final IBaseMonitor<IAEItemStack> monitor, final Iterable<IAEItemStack> change,
-            final BaseActionSource actionSource) {
+    public void onCounterChange(final StorageCounter<IAEItemStack> counter) {
         if (canDoWork()) {
             if (delayedUpdatesQueued) {
                 delayedUpdatesQueued = false;
@@ -365,7 +378,8 @@ public class PartLevelEmitter extends PartUpgradeable implements IEnergyWatcherH
                 }
             }
             lastWorkingTick = MinecraftServer.getServer().getTickCounter();
-            this.updateReportingValue((IMEMonitor<IAEItemStack>) monitor);
+            this.lastReportedValue = counter.getValue();
+            this.updateState();
         } else if (!delayedUpdatesQueued) {
             delayedUpdatesQueued = true;
             try {
@@ -376,8 +390,7 @@ public class PartLevelEmitter extends PartUpgradeable implements IEnergyWatcherH
         }
     }
 
-    @Override
-    public void onListUpdate() {
+    private void updateReportingValue() {
         try {
             this.updateReportingValue(this.getProxy().getStorage().getItemInventory());
         } catch (final GridAccessException e) {
@@ -1,16 +1,32 @@
 package appeng.server.subcommands;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 import net.minecraft.command.ICommandSender;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.ChatComponentText;
 import net.minecraft.util.ChatComponentTranslation;
 import net.minecraft.util.IChatComponent;
 import net.minecraft.world.WorldServer;
 import net.minecraftforge.common.util.ForgeDirection;
 
 import appeng.api.networking.IGridHost;
+import appeng.api.networking.ticking.ITickManager;
+import appeng.api.util.DimensionalCoord;
+import appeng.core.AELog;
 import appeng.me.Grid;
+import appeng.me.GridProfiler;
+import appeng.me.cache.TickManagerCache;
+import appeng.me.cache.helpers.TickTracker;
 import appeng.server.ISubCommand;
+import appeng.util.TimingHistogram;
 
 public class Profile implements ISubCommand {
 
@@ -21,42 +37,157 @@ public class Profile implements ISubCommand {
 
     @Override
     public void call(MinecraftServer srv, String[] args, ICommandSender sender) {
-        if (args.length < 4) sender.addChatMessage(new ChatComponentTranslation("commands.ae2.Profiler"));
-        try {
-            int x = Integer.decode(args[1]);
-            int y = Integer.decode(args[2]);
-            int z = Integer.decode(args[3]);
-            TileEntity tile;
-            if (args.length > 4) {
-                int dim = Integer.decode(args[4]);
-                WorldServer ws = srv.worldServerForDimension(dim);
-                if (ws == null) {
-                    sender.addChatMessage(new ChatComponentTranslation("commands.ae2.ProfilerFailedDim"));
-                    return;
-                }
-                tile = ws.getTileEntity(x, y, z);
-            } else tile = sender.getEntityWorld().getTileEntity(x, y, z);
+        if (args.length > 1 && args[1].equalsIgnoreCase("top")) {
+            this.reportTopDevices(srv, args, sender);
+            return;
+        }
 
-            if (!(tile instanceof IGridHost) || ((IGridHost) tile).getGridNode(ForgeDirection.UNKNOWN) == null) {
-                sender.addChatMessage(new ChatComponentTranslation("commands.ae2.ProfilerFailed"));
-                return;
-            }
-            Grid grid = (Grid) ((IGridHost) tile).getGridNode(ForgeDirection.UNKNOWN).getGrid();
+        final boolean csv = args.length > 1 && args[args.length - 1].equalsIgnoreCase("csv");
+        if (csv) {
+            args = Arrays.copyOf(args, args.length - 1);
+        }
+
+        if (args.length < 4) {
+            sender.addChatMessage(new ChatComponentTranslation("commands.ae2.Profiler"));
+            return;
+        }
+        try {
+            Grid grid = this.findGrid(srv, args, 1, sender);
             if (grid == null) {
-                sender.addChatMessage(new ChatComponentTranslation("commands.ae2.ProfilerGridDown"));
                 return;
             }
             if (!grid.isProfiling()) {
                 sender.addChatMessage(new ChatComponentTranslation("commands.ae2.ProfilerStart"));
+                ((TickManagerCache) grid.getCache(ITickManager.class)).resetTickTimes();
                 grid.startProfiling();
             } else {
+                final GridProfiler profiler = grid.stopProfiling();
                 IChatComponent message = new ChatComponentTranslation("commands.ae2.ProfilerStop");
-                message.appendText(String.format(" %d", grid.stopProfiling()));
+                message.appendText(String.format(" %d", profiler.getTickTimes().getMean()));
                 sender.addChatMessage(message);
+                this.reportTimings(sender, profiler.getCacheTimes());
+                sender.addChatMessage(new ChatComponentTranslation("commands.ae2.ProfilerEvents"));
+                this.reportTimings(sender, profiler.getEventTimes());
+
+                if (csv) {
+                    final File file = srv.getFile("ae2-profile-" + System.currentTimeMillis() + ".csv");
+                    try {
+                        profiler.writeCsv(file);
+                        sender.addChatMessage(
+                                new ChatComponentTranslation("commands.ae2.ProfilerCsv", file.getAbsolutePath()));
+                    } catch (IOException e) {
+                        AELog.warn(e, "Could not write grid profile to " + file);
+                        sender.addChatMessage(new ChatComponentTranslation("commands.ae2.ProfilerCsvFailed"));
+                    }
+                }
             }
         } catch (NumberFormatException ex) {
             sender.addChatMessage(new ChatComponentTranslation("commands.ae2.ProfilerFailed"));
             return;
         }
     }
+
+    private void reportTimings(ICommandSender sender, Map<? extends Class<?>, TimingHistogram> timings) {
+        final List<Map.Entry<? extends Class<?>, TimingHistogram>> sorted = new ArrayList<>(timings.entrySet());
+        sorted.sort((a, b) -> Long.compare(b.getValue().getSum(), a.getValue().getSum()));
+
+        for (final Map.Entry<? extends Class<?>, TimingHistogram> entry : sorted) {
+            final TimingHistogram h = entry.getValue();
+            sender.addChatMessage(
+                    new ChatComponentText(
+                            String.format(
+                                    "%s x%d: p50 %d ns, p99 %d ns, max %d ns",
+                                    entry.getKey().getSimpleName(),
+                                    h.getCount(),
+                                    h.getPercentile(0.5),
+                                    h.getPercentile(0.99),
+                                    h.getMax())));
+        }
+    }
+
+    private void reportTopDevices(MinecraftServer srv, String[] args, ICommandSender sender) {
+        final Grid grid;
+        final int count;
+        try {
+            count = Integer.decode(args[2]);
+            grid = this.findGrid(srv, args, 3, sender);
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException ex) {
+            sender.addChatMessage(new ChatComponentTranslation("commands.ae2.Profiler"));
+            return;
+        }
+        if (grid == null) {
+            return;
+        }
+
+        final TickManagerCache tmc = grid.getCache(ITickManager.class);
+        final List<TickTracker> trackers = tmc.getTrackersByCost();
+
+        // device count, summed average and worst single tick per machine class
+        final Map<Class<? extends IGridHost>, long[]> byClass = new HashMap<>();
+        for (final TickTracker tt : trackers) {
+            final long[] stats = byClass.computeIfAbsent(tt.getNode().getMachine().getClass(), c -> new long[3]);
+            stats[0]++;
+            stats[1] += tt.getAvgNanos();
+            stats[2] = Math.max(stats[2], tt.getMaxNanos());
+        }
+        final List<Map.Entry<Class<? extends IGridHost>, long[]>> classes = new ArrayList<>(byClass.entrySet());
+        classes.sort((a, b) -> Long.compare(b.getValue()[1], a.getValue()[1]));
+
+        sender.addChatMessage(new ChatComponentTranslation("commands.ae2.ProfilerClasses"));
+        for (int i = 0; i < classes.size() && i < count; i++) {
+            final Map.Entry<Class<? extends IGridHost>, long[]> entry = classes.get(i);
+            sender.addChatMessage(
+                    new ChatComponentText(
+                            String.format(
+                                    "%s x%d: %d ns avg, %d ns max",
+                                    entry.getKey().getSimpleName(),
+                                    entry.getValue()[0],
+                                    entry.getValue()[1],
+                                    entry.getValue()[2])));
+        }
+
+        sender.addChatMessage(new ChatComponentTranslation("commands.ae2.ProfilerDevices"));
+        for (int i = 0; i < trackers.size() && i < count; i++) {
+            final TickTracker tt = trackers.get(i);
+            final DimensionalCoord c = tt.getNode().getGridBlock().getLocation();
+            sender.addChatMessage(
+                    new ChatComponentText(
+                            String.format(
+                                    "%s at (%d %d %d) in dim %d: %d ns avg, %d ns max, every %d ticks",
+                                    tt.getNode().getMachine().getClass().getSimpleName(),
+                                    c.x,
+                                    c.y,
+                                    c.z,
+                                    c.getDimension(),
+                                    tt.getAvgNanos(),
+                                    tt.getMaxNanos(),
+                                    tt.getCurrentRate())));
+        }
+    }
+
+    private Grid findGrid(MinecraftServer srv, String[] args, int offset, ICommandSender sender) {
+        int x = Integer.decode(args[offset]);
+        int y = Integer.decode(args[offset + 1]);
+        int z = Integer.decode(args[offset + 2]);
+        TileEntity tile;
+        if (args.length > offset + 3) {
+            int dim = Integer.decode(args[offset + 3]);
+            WorldServer ws = srv.worldServerForDimension(dim);
+            if (ws == null) {
+                sender.addChatMessage(new ChatComponentTranslation("commands.ae2.ProfilerFailedDim"));
+                return null;
+            }
+            tile = ws.getTileEntity(x, y, z);
+        } else tile = sender.getEntityWorld().getTileEntity(x, y, z);
+
+        if (!(tile instanceof IGridHost) || ((IGridHost) tile).getGridNode(ForgeDirection.UNKNOWN) == null) {
+            sender.addChatMessage(new ChatComponentTranslation("commands.ae2.ProfilerFailed"));
+            return null;
+        }
+        Grid grid = (Grid) ((IGridHost) tile).getGridNode(ForgeDirection.UNKNOWN).getGrid();
+        if (grid == null) {
+            sender.addChatMessage(new ChatComponentTranslation("commands.ae2.ProfilerGridDown"));
+        }
+        return grid;
+    }
 }
@@ -0,0 +1,35 @@
+package appeng.server.subcommands;
+
+import net.minecraft.command.ICommandSender;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.util.ChatComponentTranslation;
+
+import appeng.server.ISubCommand;
+import appeng.util.item.AESharedNBT;
+
+public class SharedNBTStats implements ISubCommand {
+
+    @Override
+    public String getHelp(MinecraftServer srv) {
+        return "commands.ae2.SharedNBTStats";
+    }
+
+    @Override
+    public void call(MinecraftServer srv, String[] args, ICommandSender sender) {
+        if (args.length > 1 && args[1].equalsIgnoreCase("purge")) {
+            final int purged = AESharedNBT.purgeStaleSharedTags();
+            sender.addChatMessage(new ChatComponentTranslation("commands.ae2.SharedNBTStatsPurged", purged));
+        }
+
+        final long hits = AESharedNBT.sharedTagHits();
+        final long misses = AESharedNBT.sharedTagMisses();
+        final long total = hits + misses;
+        sender.addChatMessage(
+                new ChatComponentTranslation(
+                        "commands.ae2.SharedNBTStatsTable",
+                        AESharedNBT.sharedTagLoad(),
+                        hits,
+                        misses,
+                        String.format("%.1f", total == 0 ? 0.0 : hits * 100.0 / total)));
+    }
+}
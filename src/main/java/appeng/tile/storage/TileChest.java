@@ -54,9 +54,6 @@ import appeng.api.networking.security.MachineSource;
 import appeng.api.networking.security.PlayerSource;
 import appeng.api.networking.storage.IBaseMonitor;
 import appeng.api.networking.storage.IStorageGrid;
-import appeng.api.networking.ticking.IGridTickable;
-import appeng.api.networking.ticking.TickRateModulation;
-import appeng.api.networking.ticking.TickingRequest;
 import appeng.api.storage.ICellCacheRegistry;
 import appeng.api.storage.ICellHandler;
 import appeng.api.storage.ICellInventoryHandler;
@@ -77,6 +74,7 @@ import appeng.api.util.IConfigManager;
 import appeng.helpers.IPriorityHost;
 import appeng.items.storage.ItemBasicStorageCell;
 import appeng.me.GridAccessException;
+import appeng.me.cache.GridStorageCache;
 import appeng.me.storage.MEInventoryHandler;
 import appeng.tile.TileEvent;
 import appeng.tile.events.TileEventType;
@@ -90,7 +88,7 @@ import appeng.util.item.AEFluidStack;
 import io.netty.buffer.ByteBuf;
 
 public class TileChest extends AENetworkPowerTile implements IMEChest, IFluidHandler, ITerminalHost, IPriorityHost,
-        IConfigManagerHost, IColorableTile, IGridTickable {
+        IConfigManagerHost, IColorableTile {
 
     private static final ChestNoHandler NO_HANDLER = new ChestNoHandler();
     private static final int[] SIDES = { 0 };
@@ -113,7 +111,7 @@ public class TileChest extends AENetworkPowerTile implements IMEChest, IFluidHan
     private ICellHandler cellHandler;
     private MEMonitorHandler itemCell;
     private MEMonitorHandler fluidCell;
-    private boolean displayNeedsUpdate;
+    private boolean displayNeedsUpdate = true;
 
     public TileChest() {
         this.setInternalMaxPower(PowerMultiplier.CONFIG.multiply(40));
@@ -175,24 +173,22 @@ public class TileChest extends AENetworkPowerTile implements IMEChest, IFluidHan
         }
     }
 
-    @Override
-    public TickingRequest getTickingRequest(IGridNode node) {
-        return new TickingRequest(15, 15, false, false);
-    }
-
-    @Override
-    public TickRateModulation tickingRequest(IGridNode node, int ticksSinceLastCall) {
-        this.recalculateDisplay();
-        return TickRateModulation.SAME;
-    }
-
     @Override
     public int getCellCount() {
         return 1;
     }
 
+    /**
+     * @return the inventory of the cell in the chest, without the chest's wrappers, or null if it has none for the
+     *         channel
+     */
     public IMEInventoryHandler getInternalHandler(final StorageChannel channel) {
-        return this.cellHandler.getCellInventory(this.inv.getStackInSlot(1), this, channel);
+        try {
+            if (this.getHandler(channel) instanceof ChestMonitorHandler cmh) {
+                return cmh.getInternalHandler();
+            }
+        } catch (final ChestNoHandler ignored) {}
+        return null;
     }
 
     public IMEInventoryHandler getHandler(final StorageChannel channel) throws ChestNoHandler {
@@ -490,12 +486,14 @@ public class TileChest extends AENetworkPowerTile implements IMEChest, IFluidHan
             this.itemCell = null;
             this.fluidCell = null;
             this.isCached = false; // recalculate the storage cell.
+            this.displayNeedsUpdate = true;
 
             try {
                 this.getProxy().getGrid().postEvent(new MENetworkCellArrayUpdate());
 
                 final IStorageGrid gs = this.getProxy().getStorage();
                 Platform.postChanges(gs, removed, added, this.mySrc);
+                this.notifyCellsChanged();
             } catch (final GridAccessException ignored) {
 
             }
@@ -737,6 +735,22 @@ public class TileChest extends AENetworkPowerTile implements IMEChest, IFluidHan
     @Override
     public void saveChanges(final IMEInventory cellInventory) {
         this.worldObj.markTileEntityChunkModified(this.xCoord, this.yCoord, this.zCoord, this);
+        this.notifyCellChanged(cellInventory);
+        this.displayNeedsUpdate = true;
+    }
+
+    private void notifyCellsChanged() {
+        try {
+            final GridStorageCache gsc = this.getProxy().getGrid().getCache(IStorageGrid.class);
+            gsc.onCellsChanged(this);
+        } catch (final GridAccessException ignored) {}
+    }
+
+    private void notifyCellChanged(final IMEInventory cellInventory) {
+        try {
+            final GridStorageCache gsc = this.getProxy().getGrid().getCache(IStorageGrid.class);
+            gsc.onCellChanged(this, cellInventory);
+        } catch (final GridAccessException ignored) {}
     }
 
     public boolean toggleItemStorageCellLocking() {
@@ -751,6 +765,7 @@ public class TileChest extends AENetworkPowerTile implements IMEChest, IFluidHan
             } else {
                 TileDrive.partitionStorageCellToItemsOnCell(handler);
             }
+            this.displayNeedsUpdate = true;
             try {
                 this.getProxy().getGrid().postEvent(new MENetworkCellArrayUpdate());
             } catch (final GridAccessException ignored) {}
@@ -768,6 +783,7 @@ public class TileChest extends AENetworkPowerTile implements IMEChest, IFluidHan
                 if (this.isCached) {
                     this.isCached = false;
                 }
+                this.displayNeedsUpdate = true;
                 try {
                     this.getProxy().getGrid().postEvent(new MENetworkCellArrayUpdate());
                 } catch (final GridAccessException ignored) {}
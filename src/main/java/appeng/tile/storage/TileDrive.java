@@ -52,6 +52,7 @@ import appeng.helpers.IPriorityHost;
 import appeng.items.materials.ItemMultiMaterial;
 import appeng.items.storage.ItemBasicStorageCell;
 import appeng.me.GridAccessException;
+import appeng.me.cache.GridStorageCache;
 import appeng.me.storage.MEInventoryHandler;
 import appeng.tile.TileEvent;
 import appeng.tile.events.TileEventType;
@@ -89,6 +90,7 @@ public class TileDrive extends AENetworkInvTile implements IChestOrDrive, IPrior
     private int type = 0;
     private int priority = 0;
     private boolean wasActive = false;
+    private boolean displayAlerted = false;
 
     public TileDrive() {
         this.mySrc = new MachineSource(this);
@@ -109,7 +111,7 @@ public class TileDrive extends AENetworkInvTile implements IChestOrDrive, IPrior
     @Override
     public int getCellStatus(final int slot) {
         if (Platform.isClient()) {
-            return (this.state >> (slot * 3)) & 0b111;
+            return this.getDisplayedCellStatus(slot);
         }
 
         final ItemStack cell = this.inv.getStackInSlot(2);
@@ -164,13 +166,59 @@ public class TileDrive extends AENetworkInvTile implements IChestOrDrive, IPrior
 
     @Override
     public TickingRequest getTickingRequest(IGridNode node) {
-        return new TickingRequest(15, 15, false, false);
+        // ticks once to show the cells it was loaded with, after that only when a cell changed its status
+        return new TickingRequest(15, 15, false, true);
     }
 
     @Override
     public TickRateModulation tickingRequest(IGridNode node, int ticksSinceLastCall) {
+        this.displayAlerted = false;
         this.recalculateDisplay();
-        return TickRateModulation.SAME;
+        return TickRateModulation.SLEEP;
+    }
+
+    /**
+     * Wakes the drive to update its display on the next tick.
+     */
+    private void alertDisplay() {
+        if (!this.displayAlerted) {
+            try {
+                this.displayAlerted = this.getProxy().getTick().alertDevice(this.getProxy().getNode());
+            } catch (final GridAccessException ignored) {}
+        }
+    }
+
+    /**
+     * Wakes the drive if the status of the changed cell is no longer the one on display.
+     */
+    private void checkCellStatus(final IMEInventory cellInventory) {
+        if (this.displayAlerted) {
+            return;
+        }
+
+        for (int x = 0; x < INV_SIZE; x++) {
+            final MEInventoryHandler<IAEItemStack> handler = this.invBySlot[x];
+            if (handler != null && (handler.getInternal() == cellInventory
+                    || handler.getInternal() instanceof ICellInventoryHandler cih
+                            && cih.getCellInv() == cellInventory)) {
+                if (this.getCellStatus(x) != this.getDisplayedCellStatus(x)) {
+                    this.alertDisplay();
+                }
+                return;
+            }
+        }
+
+        // not a cell this drive knows, compare all of them
+        for (int x = 0; x < INV_SIZE; x++) {
+            if (this.getCellStatus(x) != this.getDisplayedCellStatus(x)) {
+                this.alertDisplay();
+                return;
+            }
+        }
+    }
+
+    private int getDisplayedCellStatus(final int slot) {
+        return (this.state >> (slot * 3)) & 0b111;
     }
 
     @Override
@@ -274,8 +322,10 @@ public class TileDrive extends AENetworkInvTile implements IChestOrDrive, IPrior
 
             final IStorageGrid gs = this.getProxy().getStorage();
             Platform.postChanges(gs, removed, added, this.mySrc);
+            this.notifyCellsChanged();
         } catch (final GridAccessException ignored) {}
 
+        this.alertDisplay();
         this.markForUpdate();
     }
 
@@ -374,6 +424,22 @@ public class TileDrive extends AENetworkInvTile implements IChestOrDrive, IPrior
     @Override
     public void saveChanges(final IMEInventory cellInventory) {
         this.worldObj.markTileEntityChunkModified(this.xCoord, this.yCoord, this.zCoord, this);
+        this.notifyCellChanged(cellInventory);
+        this.checkCellStatus(cellInventory);
+    }
+
+    private void notifyCellsChanged() {
+        try {
+            final GridStorageCache gsc = this.getProxy().getGrid().getCache(IStorageGrid.class);
+            gsc.onCellsChanged(this);
+        } catch (final GridAccessException ignored) {}
+    }
+
+    private void notifyCellChanged(final IMEInventory cellInventory) {
+        try {
+            final GridStorageCache gsc = this.getProxy().getGrid().getCache(IStorageGrid.class);
+            gsc.onCellChanged(this, cellInventory);
+        } catch (final GridAccessException ignored) {}
     }
 
     public static void partitionStorageCellToItemsOnCell(ICellInventoryHandler handler) {
@@ -461,6 +527,7 @@ public class TileDrive extends AENetworkInvTile implements IChestOrDrive, IPrior
         try {
             this.getProxy().getGrid().postEvent(new MENetworkCellArrayUpdate());
         } catch (final GridAccessException ignored) {}
+        this.alertDisplay();
         return res;
     }
 
@@ -485,6 +552,7 @@ public class TileDrive extends AENetworkInvTile implements IChestOrDrive, IPrior
         try {
             this.getProxy().getGrid().postEvent(new MENetworkCellArrayUpdate());
         } catch (final GridAccessException ignored) {}
+        this.alertDisplay();
         return res;
     }
 }
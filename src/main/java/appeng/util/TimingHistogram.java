@@ -0,0 +1,88 @@
+package appeng.util;
+
+/**
+ * Fixed size histogram of nanosecond timings.
+ * <p>
+ * Every power of two is split into 8 linear buckets, so percentiles are exact below 16 ns and within 12.5% above, no
+ * matter how many samples are recorded.
+ */
+public class TimingHistogram {
+
+    private static final int SUB_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int SUB_MASK = SUB_BUCKETS - 1;
+    private static final int BUCKETS = (Long.SIZE - SUB_BITS + 1) * SUB_BUCKETS;
+
+    private final long[] counts = new long[BUCKETS];
+    private long count;
+    private long sum;
+    private long max;
+
+    public void record(final long nanos) {
+        final long value = Math.max(nanos, 0);
+        this.counts[bucketOf(value)]++;
+        this.count++;
+        this.sum += value;
+
+        if (value > this.max) {
+            this.max = value;
+        }
+    }
+
+    public long getCount() {
+        return this.count;
+    }
+
+    public long getSum() {
+        return this.sum;
+    }
+
+    public long getMax() {
+        return this.max;
+    }
+
+    public long getMean() {
+        return this.count == 0 ? 0 : this.sum / this.count;
+    }
+
+    /**
+     * @param fraction between 0 and 1, e.g. 0.99 for the 99th percentile
+     * @return upper bound of the bucket holding the requested percentile, never more than the largest sample
+     */
+    public long getPercentile(final double fraction) {
+        if (this.count == 0) {
+            return 0;
+        }
+
+        final long rank = Math.max(1, (long) Math.ceil(fraction * this.count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += this.counts[i];
+            if (seen >= rank) {
+                return Math.min(upperBoundOf(i), this.max);
+            }
+        }
+
+        return this.max;
+    }
+
+    private static int bucketOf(final long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+
+        final int exponent = 63 - Long.numberOfLeadingZeros(value);
+        final int sub = (int) (value >>> (exponent - SUB_BITS)) & SUB_MASK;
+        return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    private static long upperBoundOf(final int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+
+        final int shift = bucket / SUB_BUCKETS - 1;
+        final long lower = (long) (SUB_BUCKETS + (bucket & SUB_MASK)) << shift;
+        return lower + (1L << shift) - 1;
+    }
+}
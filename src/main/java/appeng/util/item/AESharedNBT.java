@@ -10,8 +10,11 @@
 
 package appeng.util.item;
 
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
 import java.lang.ref.WeakReference;
-import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
@@ -28,9 +31,17 @@ import appeng.util.Platform;
 public class AESharedNBT extends NBTTagCompound implements IAETagCompound {
 
     /*
-     * Shared Tag Compound Cache.
+     * Shared Tag Compound Cache, read without locking from the server, packet and crafting calculation threads. Keys
+     * never reference the shared tag, so an entry only lives as long as some stack still uses its tag.
      */
-    private static final WeakHashMap<SharedSearchObject, WeakReference<SharedSearchObject>> SHARED_TAG_COMPOUND = new WeakHashMap<>();
+    private static final ConcurrentHashMap<SharedSearchObject, SharedReference> SHARED_TAG_COMPOUND = new ConcurrentHashMap<>();
+    private static final ReferenceQueue<AESharedNBT> STALE_REFERENCES = new ReferenceQueue<>();
+    /*
+     * Stale entries removed per new tag, keeps the cleanup cost bounded on every insert.
+     */
+    private static final int MAX_CLEANUP_PER_INSERT = 16;
+    private static final LongAdder HITS = new LongAdder();
+    private static final LongAdder MISSES = new LongAdder();
     private final Item item;
     private final int meta;
     private SharedSearchObject sso;
@@ -55,10 +66,39 @@ public class AESharedNBT extends NBTTagCompound implements IAETagCompound {
         return SHARED_TAG_COMPOUND.size();
     }
 
+    public static long sharedTagHits() {
+        return HITS.sum();
+    }
+
+    public static long sharedTagMisses() {
+        return MISSES.sum();
+    }
+
+    /*
+     * Drops every entry whose tag has been collected, returns the number of removed entries.
+     */
+    public static int purgeStaleSharedTags() {
+        return expungeStaleEntries(Integer.MAX_VALUE);
+    }
+
+    private static int expungeStaleEntries(final int limit) {
+        int removed = 0;
+        Reference<? extends AESharedNBT> ref;
+
+        while (removed < limit && (ref = STALE_REFERENCES.poll()) != null) {
+            final SharedReference stale = (SharedReference) ref;
+            if (SHARED_TAG_COMPOUND.remove(stale.key, stale)) {
+                removed++;
+            }
+        }
+
+        return removed;
+    }
+
     /*
      * Returns an NBT Compound that is used for accelerating comparisons.
      */
-    static synchronized NBTTagCompound getSharedTagCompound(final NBTTagCompound tagCompound, final ItemStack s) {
+    static NBTTagCompound getSharedTagCompound(final NBTTagCompound tagCompound, final ItemStack s) {
         if (tagCompound.hasNoTags()) {
             return null;
         }
@@ -75,26 +115,39 @@ public class AESharedNBT extends NBTTagCompound implements IAETagCompound {
 
         final SharedSearchObject sso = new SharedSearchObject(item, meta, tagCompound);
 
-        final WeakReference<SharedSearchObject> c = SHARED_TAG_COMPOUND.get(sso);
+        final SharedReference c = SHARED_TAG_COMPOUND.get(sso);
         if (c != null) {
-            final SharedSearchObject cg = c.get();
+            final AESharedNBT cg = c.get();
             if (cg != null) {
-                return cg.getShared(); // I don't think I really need to check this
+                HITS.increment();
+                return cg;
             }
-            // as its already certain to exist..
         }
 
+        MISSES.increment();
+        expungeStaleEntries(MAX_CLEANUP_PER_INSERT);
+
         final AESharedNBT clone = AESharedNBT.createFromCompound(item, meta, tagCompound);
-        sso.setCompound((NBTTagCompound) sso.getCompound().copy()); // prevent
-        // modification
-        // of data based
-        // on original
-        // item.
-        sso.setShared(clone);
+        // prevent modification of data based on original item.
+        sso.setCompound((NBTTagCompound) sso.getCompound().copy());
         clone.sso = sso;
 
-        SHARED_TAG_COMPOUND.put(sso, new WeakReference<>(sso));
-        return clone;
+        final SharedReference ref = new SharedReference(sso, clone);
+        while (true) {
+            final SharedReference existing = SHARED_TAG_COMPOUND.putIfAbsent(sso, ref);
+            if (existing == null) {
+                return clone;
+            }
+
+            // another thread interned the same tag first, use theirs unless it was collected meanwhile
+            final AESharedNBT other = existing.get();
+            if (other != null) {
+                return other;
+            }
+            if (SHARED_TAG_COMPOUND.replace(sso, existing, ref)) {
+                return clone;
+            }
+        }
     }
 
     /*
@@ -160,6 +213,16 @@ public class AESharedNBT extends NBTTagCompound implements IAETagCompound {
         return false;
     }
 
+    private static final class SharedReference extends WeakReference<AESharedNBT> {
+
+        private final SharedSearchObject key;
+
+        private SharedReference(final SharedSearchObject key, final AESharedNBT shared) {
+            super(shared, STALE_REFERENCES);
+            this.key = key;
+        }
+    }
+
     public boolean compareFuzzyWithRegistry(final AESharedNBT tagCompound) {
         if (this == tagCompound) {
             return true;
@@ -0,0 +1,94 @@
+/*
+ * This file is part of Applied Energistics 2. Copyright (c) 2013 - 2015, AlgorithmX2, All rights reserved. Applied
+ * Energistics 2 is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version. Applied Energistics 2 is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details. You should have received a copy of the GNU Lesser General Public License along with
+ * Applied Energistics 2. If not, see <http://www.gnu.org/licenses/lgpl>.
+ */
+
+package appeng.util.item;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import appeng.api.storage.data.IAEItemStack;
+import appeng.api.storage.data.IItemList;
+import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
+
+/**
+ * The item types of a list grouped by the ore dictionary IDs they carry.
+ * <p>
+ * Ore filters only look at a stack's ore names, so every type in a group passes or fails a filter together. Finding
+ * what a filter matches tests one type per group and then takes the matching groups as a whole, instead of testing
+ * every type in the list; the types without any ore names, usually most of them, are a single group.
+ * <p>
+ * Types are only added. Types no longer in the list are dropped when a search finds them missing.
+ */
+public class OreItemIndex {
+
+    private final Map<Set<Integer>, ObjectOpenHashSet<IAEItemStack>> groups = new HashMap<>();
+
+    private static Set<Integer> getOres(final IAEItemStack stack) {
+        final AEItemStack s = stack instanceof AEItemStack ? (AEItemStack) stack
+                : AEItemStack.create(stack.getItemStack());
+        final OreReference ore = s.getDefinition().getIsOre();
+        if (ore == null) {
+            return Collections.emptySet();
+        }
+        return ore.getOres();
+    }
+
+    public void add(final IAEItemStack stack) {
+        final ObjectOpenHashSet<IAEItemStack> group = this.groups
+                .computeIfAbsent(getOres(stack), k -> new ObjectOpenHashSet<>());
+        if (!group.contains(stack)) {
+            group.add(stack.copy());
+        }
+    }
+
+    public void addAll(final Iterable<IAEItemStack> stacks) {
+        for (final IAEItemStack stack : stacks) {
+            this.add(stack);
+        }
+    }
+
+    /**
+     * @return the entries of the list whose types the filter matches, in no particular order
+     */
+    public List<IAEItemStack> findMatching(final Predicate<IAEItemStack> filter, final IItemList<IAEItemStack> list) {
+        final List<IAEItemStack> out = new ArrayList<>();
+
+        final Iterator<ObjectOpenHashSet<IAEItemStack>> g = this.groups.values().iterator();
+        while (g.hasNext()) {
+            final ObjectOpenHashSet<IAEItemStack> group = g.next();
+            if (group.isEmpty()) {
+                g.remove();
+                continue;
+            }
+
+            if (!filter.test(group.iterator().next())) {
+                continue;
+            }
+
+            final Iterator<IAEItemStack> i = group.iterator();
+            while (i.hasNext()) {
+                final IAEItemStack stored = list.findPrecise(i.next());
+                if (stored == null) {
+                    i.remove();
+                } else if (stored.isMeaningful()) {
+                    out.add(stored);
+                }
+            }
+        }
+
+        return out;
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * This file is part of Applied Energistics 2. Copyright (c) 2013 - 2015, AlgorithmX2, All rights reserved. Applied
+ * Energistics 2 is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version. Applied Energistics 2 is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details. You should have received a copy of the GNU Lesser General Public License along with
+ * Applied Energistics 2. If not, see <http://www.gnu.org/licenses/lgpl>.
+ */
+
+package appeng.core.worlddata;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests for {@link GridStorageFile}
+ */
+public class GridStorageFileTest {
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private static byte[] bytes(final int size, final int seed) {
+        final byte[] data = new byte[size];
+        Arrays.fill(data, (byte) seed);
+        return data;
+    }
+
+    @Test
+    public void latestWriteSurvivesReopening() throws IOException {
+        final File file = this.folder.newFile("grids.dat");
+
+        try (GridStorageFile storage = new GridStorageFile(file)) {
+            storage.write(1, bytes(10, 1));
+            storage.write(2, bytes(20, 2));
+            storage.write(1, bytes(30, 3));
+        }
+
+        try (GridStorageFile storage = new GridStorageFile(file)) {
+            Assert.assertArrayEquals(bytes(30, 3), storage.read(1));
+            Assert.assertArrayEquals(bytes(20, 2), storage.read(2));
+            Assert.assertNull(storage.read(3));
+        }
+    }
+
+    @Test
+    public void changedDataOfTheSameLengthIsAppended() throws IOException {
+        final File file = this.folder.newFile("grids.dat");
+
+        try (GridStorageFile storage = new GridStorageFile(file)) {
+            storage.write(1, bytes(10, 1));
+            final long length = file.length();
+
+            storage.write(1, bytes(10, 2));
+            Assert.assertTrue(file.length() > length);
+            Assert.assertArrayEquals(bytes(10, 2), storage.read(1));
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void corruptPayloadIsDetectedOnRead() throws IOException {
+        final File file = this.folder.newFile("grids.dat");
+
+        try (GridStorageFile storage = new GridStorageFile(file)) {
+            storage.write(1, bytes(10, 1));
+        }
+
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(file.length() - 1);
+            raf.writeByte(7);
+        }
+
+        try (GridStorageFile storage = new GridStorageFile(file)) {
+            storage.read(1);
+        }
+    }
+
+    @Test
+    public void deletedStorageStaysDeleted() throws IOException {
+        final File file = this.folder.newFile("grids.dat");
+
+        try (GridStorageFile storage = new GridStorageFile(file)) {
+            storage.write(1, bytes(10, 1));
+            storage.write(2, bytes(10, 2));
+            storage.delete(1);
+            Assert.assertNull(storage.read(1));
+        }
+
+        try (GridStorageFile storage = new GridStorageFile(file)) {
+            Assert.assertNull(storage.read(1));
+            Assert.assertArrayEquals(bytes(10, 2), storage.read(2));
+        }
+    }
+
+    @Test
+    public void incompleteRecordIsDropped() throws IOException {
+        final File file = this.folder.newFile("grids.dat");
+
+        try (GridStorageFile storage = new GridStorageFile(file)) {
+            storage.write(1, bytes(10, 1));
+            storage.write(2, bytes(100, 2));
+        }
+
+        final long cut = file.length() - 50;
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(cut);
+        }
+
+        try (GridStorageFile storage = new GridStorageFile(file)) {
+            Assert.assertArrayEquals(bytes(10, 1), storage.read(1));
+            Assert.assertNull(storage.read(2));
+
+            storage.write(2, bytes(5, 4));
+        }
+
+        try (GridStorageFile storage = new GridStorageFile(file)) {
+            Assert.assertArrayEquals(bytes(5, 4), storage.read(2));
+        }
+    }
+
+    @Test
+    public void compactionKeepsOnlyLiveRecords() throws IOException {
+        final File file = this.folder.newFile("grids.dat");
+        final int size = 1 << 20;
+
+        try (GridStorageFile storage = new GridStorageFile(file)) {
+            storage.write(1, bytes(size, 1));
+            storage.write(1, bytes(size, 2));
+            storage.write(1, bytes(size, 3));
+            storage.write(2, bytes(10, 4));
+
+            storage.compactIfWasteful();
+            Assert.assertTrue(file.length() < 2L * size);
+            Assert.assertArrayEquals(bytes(size, 3), storage.read(1));
+
+            storage.write(3, bytes(10, 5));
+        }
+
+        try (GridStorageFile storage = new GridStorageFile(file)) {
+            Assert.assertArrayEquals(bytes(size, 3), storage.read(1));
+            Assert.assertArrayEquals(bytes(10, 4), storage.read(2));
+            Assert.assertArrayEquals(bytes(10, 5), storage.read(3));
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package appeng.me.cache.helpers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+import org.junit.Test;
+
+import appeng.api.networking.ticking.TickingRequest;
+
+/**
+ * Test for {@link TickWheel}
+ */
+public class TickWheelTest {
+
+    private static final int DEVICES = 10_000;
+    private static final int BENCHMARK_TICKS = 20_000;
+
+    private static TickTracker tracker(final int min, final int max) {
+        return new TickTracker(new TickingRequest(min, max, false, true), null, null, 0);
+    }
+
+    private static List<TickTracker> drain(final TickWheel wheel, final long tick) {
+        final List<TickTracker> due = new ArrayList<>();
+        wheel.beginTick(tick);
+        TickTracker tt;
+        while ((tt = wheel.poll()) != null) {
+            due.add(tt);
+        }
+        wheel.endTick();
+        return due;
+    }
+
+    @Test
+    public void trackersArePolledOnTheirTick() {
+        final TickWheel wheel = new TickWheel(0);
+        final long[] delays = { 1, 2, 255, 256, 257, 1000, 16383, 16384, 16385, 100_000 };
+        final List<TickTracker> trackers = new ArrayList<>();
+        for (final long delay : delays) {
+            final TickTracker tt = tracker(1, 1);
+            wheel.schedule(tt, delay);
+            trackers.add(tt);
+        }
+        assertEquals(delays.length, wheel.size());
+
+        int next = 0;
+        for (long tick = 1; tick <= 100_000; tick++) {
+            for (final TickTracker tt : drain(wheel, tick)) {
+                assertSame(trackers.get(next), tt);
+                assertEquals(delays[next], tick);
+                next++;
+            }
+        }
+        assertEquals(delays.length, next);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void cancelledTrackersAreNotPolled() {
+        final TickWheel wheel = new TickWheel(0);
+        final TickTracker near = tracker(1, 1);
+        final TickTracker far = tracker(1, 1);
+        wheel.schedule(near, 5);
+        wheel.schedule(far, 5000);
+        wheel.cancel(near);
+        wheel.cancel(far);
+        wheel.cancel(far);
+
+        assertFalse(wheel.isScheduled(near));
+        assertEquals(0, wheel.size());
+        for (long tick = 1; tick <= 6000; tick++) {
+            assertTrue(drain(wheel, tick).isEmpty());
+        }
+    }
+
+    @Test
+    public void reschedulingReplacesTheEarlierTick() {
+        final TickWheel wheel = new TickWheel(0);
+        final TickTracker tt = tracker(1, 1);
+        wheel.schedule(tt, 10);
+        wheel.schedule(tt, 3);
+        assertEquals(1, wheel.size());
+
+        assertTrue(drain(wheel, 2).isEmpty());
+        assertEquals(1, drain(wheel, 3).size());
+        for (long tick = 4; tick <= 12; tick++) {
+            assertTrue(drain(wheel, tick).isEmpty());
+        }
+    }
+
+    @Test
+    public void overdueTrackersRunAsSoonAsPossible() {
+        final TickWheel wheel = new TickWheel(100);
+        final TickTracker outside = tracker(0, 0);
+        wheel.schedule(outside, 50);
+        assertEquals(1, drain(wheel, 101).size());
+
+        // scheduled while the tick is processed, like URGENT devices re-queued with a rate of 0
+        final TickTracker inside = tracker(0, 0);
+        wheel.schedule(inside, 102);
+        wheel.beginTick(102);
+        assertSame(inside, wheel.poll());
+        wheel.schedule(inside, 90);
+        assertSame(inside, wheel.poll());
+        assertNull(wheel.poll());
+        wheel.endTick();
+    }
+
+    /**
+     * Not an assertion, compares the wheel against the priority queue it replaced with devices constantly going to
+     * sleep and being woken up again. Only runs with {@code -Dae2.benchmark=true}.
+     */
+    @Test
+    public void churnBenchmark() {
+        assumeTrue(Boolean.getBoolean("ae2.benchmark"));
+
+        final TickTracker[] trackers = new TickTracker[DEVICES];
+        for (int i = 0; i < DEVICES; i++) {
+            trackers[i] = tracker(1 + i % 5, 20 + i % 60);
+        }
+
+        Random random = new Random(1);
+        final TickWheel wheel = new TickWheel(0);
+        for (final TickTracker tt : trackers) {
+            wheel.schedule(tt, tt.getNextTick());
+        }
+        long polled = 0;
+        long start = System.nanoTime();
+        for (long tick = 1; tick <= BENCHMARK_TICKS; tick++) {
+            wheel.beginTick(tick);
+            TickTracker tt;
+            while ((tt = wheel.poll()) != null) {
+                polled++;
+                tt.setLastTick(tick);
+                wheel.schedule(tt, tt.getNextTick());
+            }
+            wheel.endTick();
+
+            for (int i = 0; i < 100; i++) {
+                final TickTracker churned = trackers[random.nextInt(DEVICES)];
+                if (wheel.isScheduled(churned)) {
+                    wheel.cancel(churned);
+                } else {
+                    churned.setLastTick(tick);
+                    wheel.schedule(churned, churned.getNextTick());
+                }
+            }
+        }
+        final long wheelNanos = System.nanoTime() - start;
+
+        random = new Random(1);
+        final PriorityQueue<TickTracker> queue = new PriorityQueue<>(
+                (a, b) -> Long.compare(a.getNextTick(), b.getNextTick()));
+        for (final TickTracker tt : trackers) {
+            tt.setLastTick(0);
+            queue.add(tt);
+        }
+        start = System.nanoTime();
+        for (long tick = 1; tick <= BENCHMARK_TICKS; tick++) {
+            while (!queue.isEmpty() && queue.peek().getNextTick() <= tick) {
+                final TickTracker tt = queue.poll();
+                tt.setLastTick(tick);
+                queue.add(tt);
+            }
+
+            for (int i = 0; i < 100; i++) {
+                final TickTracker churned = trackers[random.nextInt(DEVICES)];
+                if (!queue.remove(churned)) {
+                    churned.setLastTick(tick);
+                    queue.add(churned);
+                }
+            }
+        }
+        final long queueNanos = System.nanoTime() - start;
+
+        System.out.printf(
+                "%d devices over %d ticks (%d ticked on the wheel): wheel %d ms, priority queue %d ms%n",
+                DEVICES,
+                BENCHMARK_TICKS,
+                polled,
+                wheelNanos / 1_000_000,
+                queueNanos / 1_000_000);
+    }
+}
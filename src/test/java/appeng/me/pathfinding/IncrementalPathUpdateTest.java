@@ -0,0 +1,434 @@
+package appeng.me.pathfinding;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+import appeng.api.networking.GridFlags;
+import appeng.api.util.IReadOnlyCollection;
+import appeng.me.cache.PathGridCache;
+import appeng.util.ReadOnlyCollection;
+
+/**
+ * Test for {@link IncrementalPathUpdate}, on synthetic grids whose nodes and connections behave like
+ * {@link appeng.me.GridNode} and {@link appeng.me.GridConnection} do while pathing.
+ */
+public class IncrementalPathUpdateTest {
+
+    private static final int TRIALS = 500;
+
+    @Test
+    public void incrementalUpdatesMatchAFullRepath() {
+        int applied = 0;
+        for (int trial = 0; trial < TRIALS; trial++) {
+            final Random random = new Random(trial);
+            final TestGrid grid = TestGrid.random(random);
+            grid.fullRepath();
+
+            final Node leaf = grid.randomLeaf(random);
+            if (leaf == null || random.nextBoolean()) {
+                final Node parent = grid.carriers.get(random.nextInt(grid.carriers.size()));
+                grid.addLeaf(parent, random.nextInt(4) != 0);
+            } else {
+                grid.remove(leaf);
+            }
+
+            if (grid.changes.apply(grid.pgc)) {
+                applied++;
+                final Snapshot incremental = grid.snapshot();
+                grid.fullRepath();
+                assertEquals("trial " + trial, grid.snapshot(), incremental);
+            }
+        }
+
+        assertTrue("only " + applied + " changes were applied incrementally", applied > TRIALS / 4);
+    }
+
+    @Test
+    public void leafWithoutSpareChannelNeedsFullRepath() {
+        final TestGrid grid = new TestGrid();
+        final Node cable = grid.addCarrier(grid.controller, false);
+        for (int i = 0; i < 8; i++) {
+            grid.addLeaf(cable, true);
+        }
+        grid.fullRepath();
+
+        grid.addLeaf(cable, true);
+        assertFalse(grid.changes.apply(grid.pgc));
+    }
+
+    @Test
+    public void channelIsNotFreedWhileDevicesAreDenied() {
+        final TestGrid grid = new TestGrid();
+        final Node cable = grid.addCarrier(grid.controller, false);
+        final List<Node> devices = new ArrayList<>();
+        for (int i = 0; i < 9; i++) {
+            devices.add(grid.addLeaf(cable, true));
+        }
+        grid.fullRepath();
+        assertEquals(8, grid.pgc.getChannelsInUse());
+        assertEquals(1, grid.pgc.getChannelsDenied());
+
+        grid.remove(devices.get(0));
+        assertFalse(grid.changes.apply(grid.pgc));
+    }
+
+    @Test
+    public void removedLeafGivesItsChannelBack() {
+        final TestGrid grid = new TestGrid();
+        final Node cable = grid.addCarrier(grid.controller, false);
+        final Node device = grid.addLeaf(cable, true);
+        grid.addLeaf(cable, true);
+        grid.fullRepath();
+        assertEquals(2, cable.lastUsed);
+
+        grid.remove(device);
+        assertTrue(grid.changes.apply(grid.pgc));
+        assertEquals(1, cable.lastUsed);
+        assertEquals(1, grid.pgc.getChannelsInUse());
+    }
+
+    @Test
+    public void severalChangesNeedFullRepath() {
+        final TestGrid grid = new TestGrid();
+        final Node cable = grid.addCarrier(grid.controller, false);
+        grid.fullRepath();
+
+        grid.addLeaf(cable, true);
+        grid.addLeaf(cable, true);
+        assertFalse(grid.changes.apply(grid.pgc));
+    }
+
+    private static final class TestGrid {
+
+        private final PathGridCache pgc = new PathGridCache(null);
+        private final IncrementalPathUpdate changes = new IncrementalPathUpdate();
+        private final Node controller = new Node(EnumSet.of(GridFlags.CANNOT_CARRY, GridFlags.DENSE_CAPACITY), 0);
+        private final List<Node> nodes = new ArrayList<>();
+        private final List<Link> links = new ArrayList<>();
+        private final List<Node> carriers = new ArrayList<>();
+
+        private TestGrid() {
+            this.nodes.add(this.controller);
+        }
+
+        private static TestGrid random(final Random random) {
+            final TestGrid grid = new TestGrid();
+            grid.carriers.add(grid.controller);
+
+            final int cables = 5 + random.nextInt(40);
+            for (int i = 0; i < cables; i++) {
+                final Node parent = grid.carriers.get(random.nextInt(grid.carriers.size()));
+                grid.addCarrier(parent, random.nextInt(5) == 0);
+            }
+
+            // a few loops
+            for (int i = random.nextInt(4); i > 0; i--) {
+                final Node a = grid.carriers.get(1 + random.nextInt(grid.carriers.size() - 1));
+                final Node b = grid.carriers.get(1 + random.nextInt(grid.carriers.size() - 1));
+                if (a != b && !a.isConnectedTo(b)) {
+                    grid.connect(a, b);
+                }
+            }
+
+            final int devices = random.nextInt(60 + cables * 4);
+            for (int i = 0; i < devices; i++) {
+                final Node parent = grid.carriers.get(1 + random.nextInt(grid.carriers.size() - 1));
+                grid.addLeaf(parent, random.nextInt(5) != 0);
+            }
+
+            grid.changes.clear();
+            return grid;
+        }
+
+        private Node addCarrier(final Node parent, final boolean dense) {
+            final Node cable = new Node(
+                    dense ? EnumSet.of(GridFlags.DENSE_CAPACITY) : EnumSet.noneOf(GridFlags.class),
+                    dense ? 32 : 8);
+            this.add(cable, parent);
+            this.carriers.add(cable);
+            return cable;
+        }
+
+        private Node addLeaf(final Node parent, final boolean requireChannel) {
+            final Node device = new Node(
+                    requireChannel ? EnumSet.of(GridFlags.REQUIRE_CHANNEL) : EnumSet.noneOf(GridFlags.class),
+                    8);
+            this.add(device, parent);
+            return device;
+        }
+
+        private void add(final Node node, final Node parent) {
+            this.nodes.add(node);
+            this.changes.onNodeAdded(node);
+            this.connect(parent, node);
+        }
+
+        private void connect(final Node a, final Node b) {
+            final Link link = new Link(a, b);
+            this.changes.onConnectionAdded(link);
+            a.connections.add(link);
+            b.connections.add(link);
+            this.links.add(link);
+        }
+
+        private Node randomLeaf(final Random random) {
+            final List<Node> leaves = new ArrayList<>();
+            for (final Node node : this.nodes) {
+                if (node != this.controller && node.connections.size() == 1) {
+                    leaves.add(node);
+                }
+            }
+            return leaves.isEmpty() ? null : leaves.get(random.nextInt(leaves.size()));
+        }
+
+        private void remove(final Node leaf) {
+            final Link link = (Link) leaf.connections.get(0);
+            this.changes.onConnectionRemoved(link);
+            link.a.connections.remove(link);
+            link.b.connections.remove(link);
+            this.links.remove(link);
+
+            this.changes.onNodeRemoved(leaf);
+            this.nodes.remove(leaf);
+            this.carriers.remove(leaf);
+        }
+
+        /**
+         * Assigns channels the way {@link PathGridCache} does for an online controller.
+         */
+        private void fullRepath() {
+            this.pgc.setChannelsInUse(0);
+            this.pgc.setChannelsByBlocks(0);
+            this.pgc.setChannelsDenied(0);
+
+            final Set<IPathItem> closedList = new HashSet<>();
+            final Set<IPathItem> semiOpen = new HashSet<>();
+            final List<PathSegment> active = new ArrayList<>();
+            closedList.add(this.controller);
+            for (final IPathItem gc : this.controller.getPossibleOptions()) {
+                final List<IPathItem> open = new LinkedList<>();
+                closedList.add(gc);
+                open.add(gc);
+                gc.setControllerRoute(this.controller, true);
+                active.add(new PathSegment(this.pgc, open, semiOpen, closedList));
+            }
+
+            while (!active.isEmpty()) {
+                active.removeIf(PathSegment::step);
+            }
+
+            for (final Node node : this.nodes) {
+                node.finalizeChannels();
+            }
+            for (final Link link : this.links) {
+                link.finalizeChannels();
+            }
+            this.changes.clear();
+        }
+
+        private Snapshot snapshot() {
+            final Snapshot snapshot = new Snapshot();
+            snapshot.channelsInUse = this.pgc.getChannelsInUse();
+            snapshot.channelsByBlocks = this.pgc.getChannelsByBlocks();
+            for (final Node node : this.nodes) {
+                snapshot.channels.put(node, node.lastUsed);
+                snapshot.routes.put(node, node.getControllerRoute());
+            }
+            for (final Link link : this.links) {
+                snapshot.channels.put(link, link.lastUsed);
+                snapshot.routes.put(link, link.getControllerRoute());
+            }
+            return snapshot;
+        }
+    }
+
+    private static final class Snapshot {
+
+        private final Map<IPathItem, Integer> channels = new HashMap<>();
+        private final Map<IPathItem, IPathItem> routes = new HashMap<>();
+        private int channelsInUse;
+        private int channelsByBlocks;
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (!(obj instanceof Snapshot)) {
+                return false;
+            }
+            final Snapshot other = (Snapshot) obj;
+            return this.channelsInUse == other.channelsInUse && this.channelsByBlocks == other.channelsByBlocks
+                    && this.channels.equals(other.channels)
+                    && this.routes.equals(other.routes);
+        }
+
+        @Override
+        public int hashCode() {
+            return this.channels.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return "channels=" + this.channelsInUse + ", byBlocks=" + this.channelsByBlocks + ", " + this.channels;
+        }
+    }
+
+    /**
+     * Like a {@link appeng.me.GridNode}, the controller route is whatever connection comes first.
+     */
+    private static final class Node implements IPathItem {
+
+        private static int nextId = 0;
+
+        private final int id = nextId++;
+        private final List<IPathItem> connections = new ArrayList<>();
+        private final EnumSet<GridFlags> flags;
+        private final int maxChannels;
+        private int used;
+        private int lastUsed;
+
+        private Node(final EnumSet<GridFlags> flags, final int maxChannels) {
+            this.flags = flags;
+            this.maxChannels = maxChannels;
+        }
+
+        private boolean isConnectedTo(final Node other) {
+            for (final IPathItem pi : this.connections) {
+                final Link link = (Link) pi;
+                if (link.a == other || link.b == other) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public IPathItem getControllerRoute() {
+            if (this.connections.isEmpty() || this.flags.contains(GridFlags.CANNOT_CARRY)) {
+                return null;
+            }
+            return this.connections.get(0);
+        }
+
+        @Override
+        public void setControllerRoute(final IPathItem fast, final boolean zeroOut) {
+            if (zeroOut) {
+                this.used = 0;
+            }
+
+            final int idx = this.connections.indexOf(fast);
+            if (idx > 0) {
+                this.connections.remove(fast);
+                this.connections.add(0, fast);
+            }
+        }
+
+        @Override
+        public boolean canSupportMoreChannels() {
+            return this.used < this.maxChannels;
+        }
+
+        @Override
+        public IReadOnlyCollection<IPathItem> getPossibleOptions() {
+            return new ReadOnlyCollection<>(this.connections);
+        }
+
+        @Override
+        public void incrementChannelCount(final int usedChannels) {
+            this.used += usedChannels;
+        }
+
+        @Override
+        public EnumSet<GridFlags> getFlags() {
+            return this.flags;
+        }
+
+        @Override
+        public void finalizeChannels() {
+            if (!this.flags.contains(GridFlags.CANNOT_CARRY)) {
+                this.lastUsed = this.used;
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "node" + this.id;
+        }
+    }
+
+    /**
+     * Like a {@link appeng.me.GridConnection}, side a is the one towards the controller.
+     */
+    private static final class Link implements IPathItem {
+
+        private Node a;
+        private Node b;
+        private int used;
+        private int lastUsed;
+
+        private Link(final Node a, final Node b) {
+            this.a = a;
+            this.b = b;
+        }
+
+        @Override
+        public IPathItem getControllerRoute() {
+            return this.a.flags.contains(GridFlags.CANNOT_CARRY) ? null : this.a;
+        }
+
+        @Override
+        public void setControllerRoute(final IPathItem fast, final boolean zeroOut) {
+            if (zeroOut) {
+                this.used = 0;
+            }
+
+            if (this.b == fast) {
+                final Node tmp = this.a;
+                this.a = this.b;
+                this.b = tmp;
+            }
+        }
+
+        @Override
+        public boolean canSupportMoreChannels() {
+            return this.used < 32;
+        }
+
+        @Override
+        public IReadOnlyCollection<IPathItem> getPossibleOptions() {
+            return new ReadOnlyCollection<>(Arrays.<IPathItem>asList(this.a, this.b));
+        }
+
+        @Override
+        public void incrementChannelCount(final int usedChannels) {
+            this.used += usedChannels;
+        }
+
+        @Override
+        public EnumSet<GridFlags> getFlags() {
+            return EnumSet.noneOf(GridFlags.class);
+        }
+
+        @Override
+        public void finalizeChannels() {
+            this.lastUsed = this.used;
+        }
+
+        @Override
+        public String toString() {
+            return this.a + "-" + this.b;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package appeng.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Test for {@link TimingHistogram}
+ */
+public class TimingHistogramTest {
+
+    @Test
+    public void emptyHistogramReportsZero() {
+        final TimingHistogram h = new TimingHistogram();
+        assertEquals(0, h.getCount());
+        assertEquals(0, h.getMean());
+        assertEquals(0, h.getPercentile(0.99));
+    }
+
+    @Test
+    public void smallValuesAreExact() {
+        final TimingHistogram h = new TimingHistogram();
+        for (int i = 1; i <= 10; i++) {
+            h.record(i);
+        }
+        assertEquals(5, h.getPercentile(0.5));
+        assertEquals(10, h.getPercentile(0.99));
+        assertEquals(10, h.getMax());
+        assertEquals(5, h.getMean());
+    }
+
+    @Test
+    public void percentilesStayWithinBucketPrecision() {
+        final TimingHistogram h = new TimingHistogram();
+        for (long i = 1; i <= 100_000; i++) {
+            h.record(i * 1000);
+        }
+
+        assertWithin(50_000_000L, h.getPercentile(0.5));
+        assertWithin(99_000_000L, h.getPercentile(0.99));
+        assertEquals(100_000_000L, h.getPercentile(1.0));
+        assertEquals(100_000_000L, h.getMax());
+        assertEquals(100_000, h.getCount());
+    }
+
+    @Test
+    public void negativeSamplesCountAsZero() {
+        final TimingHistogram h = new TimingHistogram();
+        h.record(-5);
+        assertEquals(0, h.getMax());
+        assertEquals(0, h.getPercentile(0.5));
+    }
+
+    private static void assertWithin(final long expected, final long actual) {
+        assertTrue(actual + " should be at least " + expected, actual >= expected);
+        assertTrue(actual + " should be within 12.5% of " + expected, actual <= expected + expected / 8);
+    }
+}